@@ -49,6 +49,13 @@ curl -s http://localhost:8080/products/sell \
 echo
 echo
 
+echo "Selling a batch of products in best effort mode:"
+echo "$(cat test-files/sell-products-batch.json)"
+curl -s http://localhost:8080/products/sell/batch \
+-H "Content-Type: application/json" \
+-d @test-files/sell-products-batch.json
+echo
+echo
 
 echo "Listing updated available products:"
 curl -s http://localhost:8080/products/available
@@ -0,0 +1,51 @@
+package com.hal9000.warehouse.inventory.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProducts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailableProductsBenchmark {
+
+    @Param({"100", "10000"})
+    int catalogueSize;
+
+    @Param({"2", "8"})
+    int fanOut;
+
+    private Warehouse warehouse;
+
+    @Setup
+    public void setUp() {
+        warehouse = new Warehouse("map", catalogueSize, fanOut).load();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public AvailableProducts getAvailableProducts() {
+        return warehouse.productCatalogueService.getAvailableProducts();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AvailableProducts getAvailableProductsConcurrently() {
+        return warehouse.productCatalogueService.getAvailableProducts();
+    }
+}
@@ -0,0 +1,67 @@
+package com.hal9000.warehouse.inventory.benchmark;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.RestockMode;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductCatalogueIn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    @Param({"map", "primitive"})
+    String store;
+
+    @Param({"10000", "1000000"})
+    int catalogueSize;
+
+    @Param({"8"})
+    int fanOut;
+
+    private Warehouse emptyWarehouse;
+    private Warehouse stockedWarehouse;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        emptyWarehouse = new Warehouse(store, catalogueSize, fanOut);
+        stockedWarehouse = new Warehouse(store, catalogueSize, fanOut);
+        stockedWarehouse.inventoryService.addToInventory(new AddInventoryIn(stockedWarehouse.articleSupplies, RestockMode.SET));
+        stockedWarehouse.availabilityIndex.drain();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        emptyWarehouse.availabilityIndex.stop();
+        stockedWarehouse.availabilityIndex.stop();
+    }
+
+    @Benchmark
+    public void addToInventory() {
+        emptyWarehouse.inventoryService.addToInventory(new AddInventoryIn(emptyWarehouse.articleSupplies, RestockMode.SET));
+        emptyWarehouse.availabilityIndex.drain();
+    }
+
+    @Benchmark
+    public void addToCatalogue() {
+        stockedWarehouse.productCatalogueService.addToCatalogue(new ProductCatalogueIn(stockedWarehouse.products));
+        stockedWarehouse.availabilityIndex.drain();
+    }
+}
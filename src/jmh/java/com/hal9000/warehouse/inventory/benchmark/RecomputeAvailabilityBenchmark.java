@@ -0,0 +1,52 @@
+package com.hal9000.warehouse.inventory.benchmark;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full recomputation of the available products, as done on startup and after bulk inventory updates, for
+ * a growing number of fork-join workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecomputeAvailabilityBenchmark {
+
+    @Param({"100000"})
+    int catalogueSize;
+
+    @Param({"1", "4"})
+    int parallelism;
+
+    private Warehouse warehouse;
+
+    @Setup
+    public void setUp() {
+        warehouse = new Warehouse("map", catalogueSize, 4, parallelism).load();
+    }
+
+    @TearDown
+    public void tearDown() {
+        warehouse.availabilityIndex.stop();
+    }
+
+    @Benchmark
+    public void recomputeAll() {
+        warehouse.availabilityIndex.recomputeAll();
+    }
+}
@@ -0,0 +1,65 @@
+package com.hal9000.warehouse.inventory.benchmark;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SellProductBenchmark {
+
+    @Param({"map", "primitive"})
+    String store;
+
+    @Param({"100", "10000"})
+    int catalogueSize;
+
+    @Param({"2", "8"})
+    int fanOut;
+
+    private Warehouse warehouse;
+
+    @Setup
+    public void setUp() {
+        warehouse = new Warehouse(store, catalogueSize, fanOut).load();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean sellProduct() {
+        return sellRandomProduct();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean sellProductContended4() {
+        return sellRandomProduct();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean sellProductContended16() {
+        return sellRandomProduct();
+    }
+
+    private boolean sellRandomProduct() {
+        String productName = warehouse.productName(ThreadLocalRandom.current().nextInt(catalogueSize));
+        return warehouse.productCatalogueService.sellProduct(productName, 1);
+    }
+}
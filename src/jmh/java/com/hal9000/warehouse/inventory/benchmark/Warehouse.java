@@ -0,0 +1,87 @@
+package com.hal9000.warehouse.inventory.benchmark;
+
+import com.hal9000.warehouse.inventory.adapter.out.Inventory;
+import com.hal9000.warehouse.inventory.adapter.out.PrimitiveInventory;
+import com.hal9000.warehouse.inventory.adapter.out.ProductCatalogue;
+import com.hal9000.warehouse.inventory.adapter.out.audit.NoAuditTrail;
+import com.hal9000.warehouse.inventory.application.AvailabilityIndex;
+import com.hal9000.warehouse.inventory.application.AvailabilityProperties;
+import com.hal9000.warehouse.inventory.application.InventoryService;
+import com.hal9000.warehouse.inventory.application.ProductCatalogueService;
+import com.hal9000.warehouse.inventory.application.StockEventBus;
+import com.hal9000.warehouse.inventory.application.StockEventProperties;
+import com.hal9000.warehouse.inventory.application.UseCaseMetrics;
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.RestockMode;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductCatalogueIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wires the services the way the application does, without Spring. The catalogue has as many articles
+ * as products and every product is built from {@code fanOut} distinct articles, one unit each, so each
+ * article is shared by {@code fanOut} products.
+ */
+class Warehouse {
+
+    static final int STOCK = 1_000_000_000;
+
+    final AvailabilityIndex availabilityIndex;
+    final InventoryService inventoryService;
+    final ProductCatalogueService productCatalogueService;
+    final List<ArticleSupply> articleSupplies;
+    final List<Product> products;
+
+    Warehouse(String store, int catalogueSize, int fanOut) {
+        this(store, catalogueSize, fanOut, 0);
+    }
+
+    Warehouse(String store, int catalogueSize, int fanOut, int parallelism) {
+        InventoryRepository inventory = "primitive".equals(store) ? new PrimitiveInventory() : new Inventory();
+        ProductCatalogue productCatalogue = new ProductCatalogue();
+        StockEventBus stockEventBus = new StockEventBus(new StockEventProperties(1 << 16, Duration.ofMillis(50)));
+        availabilityIndex = new AvailabilityIndex(productCatalogue, inventory, stockEventBus, new AvailabilityProperties(parallelism, 1024, 1024));
+        UseCaseMetrics useCaseMetrics = new UseCaseMetrics(new SimpleMeterRegistry());
+        inventoryService = new InventoryService(inventory, availabilityIndex, stockEventBus, new NoAuditTrail(), useCaseMetrics);
+        productCatalogueService = new ProductCatalogueService(productCatalogue, inventory, availabilityIndex, stockEventBus, new NoAuditTrail(), useCaseMetrics);
+        articleSupplies = articleSupplies(catalogueSize);
+        products = products(catalogueSize, fanOut);
+    }
+
+    Warehouse load() {
+        inventoryService.addToInventory(new AddInventoryIn(articleSupplies, RestockMode.SET));
+        productCatalogueService.addToCatalogue(new ProductCatalogueIn(products));
+        return this;
+    }
+
+    String productName(int product) {
+        return products.get(product).getName();
+    }
+
+    private static List<ArticleSupply> articleSupplies(int articleCount) {
+        List<ArticleSupply> articleSupplies = new ArrayList<>(articleCount);
+        for (int articleId = 0; articleId < articleCount; articleId++) {
+            articleSupplies.add(new ArticleSupply(new Article(articleId, "article-" + articleId), STOCK));
+        }
+        return articleSupplies;
+    }
+
+    private static List<Product> products(int catalogueSize, int fanOut) {
+        int stride = Math.max(1, catalogueSize / fanOut);
+        List<Product> products = new ArrayList<>(catalogueSize);
+        for (int product = 0; product < catalogueSize; product++) {
+            List<Product.Component> components = new ArrayList<>(fanOut);
+            for (int component = 0; component < fanOut; component++) {
+                components.add(new Product.Component((product + component * stride) % catalogueSize, 1));
+            }
+            products.add(new Product("product-" + product, components));
+        }
+        return products;
+    }
+}
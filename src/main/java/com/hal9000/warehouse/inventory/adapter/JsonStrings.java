@@ -0,0 +1,24 @@
+package com.hal9000.warehouse.inventory.adapter;
+
+/**
+ * Escaping of the strings the adapters write into JSON by hand, as Jackson would escape them.
+ */
+public final class JsonStrings {
+
+    private JsonStrings() {
+    }
+
+    public static StringBuilder appendEscaped(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character == '"' || character == '\\') {
+                builder.append('\\').append(character);
+            } else if (character < ' ') {
+                builder.append(String.format("\\u%04x", (int) character));
+            } else {
+                builder.append(character);
+            }
+        }
+        return builder;
+    }
+}
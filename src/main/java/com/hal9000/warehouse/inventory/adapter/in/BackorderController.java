@@ -0,0 +1,65 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase;
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase.Backorder;
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase.BackorderProductIn;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("backorders")
+@RequiredArgsConstructor
+public class BackorderController {
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class BackorderIn {
+        String productName;
+        int productQuantity;
+    }
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class BackorderOut {
+        String backorderId;
+        String productName;
+        int productQuantity;
+        String status;
+    }
+
+    private final BackorderUseCase backorderUseCase;
+
+    @PostMapping
+    public BackorderOut backorderProduct (@RequestBody BackorderIn backorderIn) {
+        return getBackorderOut(backorderUseCase.backorderProduct(getBackorderProductIn(backorderIn)));
+    }
+
+    @DeleteMapping("{backorderId}")
+    public void cancelBackorder (@PathVariable String backorderId) {
+        backorderUseCase.cancelBackorder(backorderId);
+    }
+
+    static BackorderProductIn getBackorderProductIn(BackorderIn backorderIn) {
+        return new BackorderProductIn(backorderIn.productName, backorderIn.productQuantity);
+    }
+
+    static BackorderOut getBackorderOut(Backorder backorder) {
+        return new BackorderOut(backorder.getBackorderId(), backorder.getProductName(), backorder.getQuantity(),
+            backorder.getStatus().toString());
+    }
+}
@@ -0,0 +1,27 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+
+@Value
+@NoArgsConstructor(force = true, access = PRIVATE)
+@AllArgsConstructor
+class ImportOut {
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class RecordError {
+        long record;
+        String code;
+        String message;
+    }
+
+    long imported;
+    long rejected;
+    List<RecordError> errors;
+}
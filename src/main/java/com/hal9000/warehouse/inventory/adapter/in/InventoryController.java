@@ -4,22 +4,27 @@ import static java.util.Collections.emptyList;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
 import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.hal9000.warehouse.inventory.domain.Article;
 import com.hal9000.warehouse.inventory.domain.ArticleSupply;
 import com.hal9000.warehouse.inventory.port.in.InventoryUseCase;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.RestockMode;
+import java.io.InputStream;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
+@ConditionalOnWebApplication(type = SERVLET)
 @RequestMapping("inventory")
 @RequiredArgsConstructor
 public class InventoryController {
@@ -42,22 +47,34 @@ public class InventoryController {
         }
 
         List<Article> inventory;
+
+        RestockMode mode;
+
+        String location;
     }
 
     private final InventoryUseCase inventoryUseCase;
+    private final StreamingImporter streamingImporter;
 
     @PostMapping("update")
     public void addInventory(@RequestBody AddInventoryIn addInventoryIn) {
         inventoryUseCase.addToInventory(getAddInventoryIn(addInventoryIn));
     }
 
-    private InventoryUseCase.AddInventoryIn getAddInventoryIn(AddInventoryIn addInventoryIn) {
+    @PostMapping("import")
+    public ImportOut importInventory(InputStream inventoryFile) {
+        return streamingImporter.importInventory(inventoryFile);
+    }
+
+    static InventoryUseCase.AddInventoryIn getAddInventoryIn(AddInventoryIn addInventoryIn) {
         return new InventoryUseCase.AddInventoryIn(
             ofNullable(addInventoryIn.inventory).map(
                 inventory -> inventory.stream()
                     .map(article -> new ArticleSupply(new Article(article.getArticleId(), article.name), article.stock))
                     .collect(toList()))
-            .orElse(emptyList()));
+            .orElse(emptyList()),
+            ofNullable(addInventoryIn.mode).orElse(RestockMode.SET),
+            addInventoryIn.location);
     }
 
 }
@@ -0,0 +1,97 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.adapter.JsonStrings.appendEscaped;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NOT_ENOUGH_SUPPLIES;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProduct;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the bodies of the hottest responses without going through Jackson. Constant bodies are encoded
+ * once, and so is the fragment opening the entry of every product name, so listing the available products
+ * only copies those fragments and formats the quantities into a buffer of the exact size of the body.
+ */
+@Component
+public class JsonResponses {
+
+    static final byte[] PRODUCT_CANNOT_BE_SOLD =
+        ("{\"code\":\"" + NOT_ENOUGH_SUPPLIES + "\",\"message\":\"Product cannot be sold\"}").getBytes(UTF_8);
+
+    private static final byte[] PRODUCTS_START = "{\"products\":[".getBytes(UTF_8);
+    private static final byte[] PRODUCTS_END = "]}".getBytes(UTF_8);
+    private static final byte[] NEXT_CURSOR_START = "],\"next_cursor\":\"".getBytes(UTF_8);
+    private static final byte[] NEXT_CURSOR_END = "\"}".getBytes(UTF_8);
+
+    private final Map<String, byte[]> productFragments = new ConcurrentHashMap<>();
+
+    /**
+     * Same body as Jackson writes for {@code {"products":[{"name":..,"amount_of":..}],"next_cursor":..}},
+     * leaving the cursor out when there is none. Cursors are URL safe Base64, so they need no escaping.
+     */
+    byte[] availableProducts(Collection<AvailableProduct> availableProducts, String nextCursor) {
+        int size = PRODUCTS_START.length + Math.max(availableProducts.size() - 1, 0) +
+            (nextCursor == null ? PRODUCTS_END.length : NEXT_CURSOR_START.length + nextCursor.length() + NEXT_CURSOR_END.length);
+        for (AvailableProduct availableProduct : availableProducts) {
+            size += productFragment(availableProduct.getProductName()).length + digits(availableProduct.getQuantity()) + 1;
+        }
+
+        byte[] body = new byte[size];
+        int position = put(body, 0, PRODUCTS_START);
+        boolean first = true;
+        for (AvailableProduct availableProduct : availableProducts) {
+            if (!first) {
+                body[position++] = ',';
+            }
+            first = false;
+            position = put(body, position, productFragment(availableProduct.getProductName()));
+            position = putInt(body, position, availableProduct.getQuantity());
+            body[position++] = '}';
+        }
+        if (nextCursor == null) {
+            put(body, position, PRODUCTS_END);
+        } else {
+            position = put(body, position, NEXT_CURSOR_START);
+            for (int i = 0; i < nextCursor.length(); i++) {
+                body[position++] = (byte) nextCursor.charAt(i);
+            }
+            put(body, position, NEXT_CURSOR_END);
+        }
+        return body;
+    }
+
+    private byte[] productFragment(String productName) {
+        return productFragments.computeIfAbsent(productName,
+            name -> appendEscaped(new StringBuilder("{\"name\":\""), name).append("\",\"amount_of\":").toString().getBytes(UTF_8));
+    }
+
+    private static int put(byte[] body, int position, byte[] fragment) {
+        System.arraycopy(fragment, 0, body, position, fragment.length);
+        return position + fragment.length;
+    }
+
+    private static int putInt(byte[] body, int position, int value) {
+        long remaining = value;
+        if (remaining < 0) {
+            body[position++] = '-';
+            remaining = -remaining;
+        }
+        int end = position + digits(remaining);
+        for (int i = end - 1; i >= position; i--) {
+            body[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return end;
+    }
+
+    private static int digits(long value) {
+        int digits = value < 0 ? 2 : 1;
+        for (long remaining = Math.abs(value); remaining >= 10; remaining /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+}
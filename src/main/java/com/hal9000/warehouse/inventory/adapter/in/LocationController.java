@@ -0,0 +1,55 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.ResponseEntity.status;
+
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("locations")
+@RequiredArgsConstructor
+public class LocationController {
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class LocationsOut {
+        List<String> locations;
+    }
+
+    private final InventoryUseCase inventoryUseCase;
+    private final ProductCatalogueUseCase productCatalogueUseCase;
+    private final JsonResponses jsonResponses;
+
+    @GetMapping
+    public LocationsOut getLocations () {
+        return new LocationsOut(inventoryUseCase.getLocations());
+    }
+
+    @GetMapping("{location}/products/available")
+    public ResponseEntity<byte[]> getAvailableProducts (@PathVariable String location) {
+        return getAvailableProductsResponse(jsonResponses, productCatalogueUseCase, location);
+    }
+
+    static ResponseEntity<byte[]> getAvailableProductsResponse(JsonResponses jsonResponses, ProductCatalogueUseCase productCatalogueUseCase,
+                                                               String location) {
+        return status(OK).contentType(APPLICATION_JSON)
+            .body(jsonResponses.availableProducts(productCatalogueUseCase.getAvailableProductsAt(location).getAvailableProductList(), null));
+    }
+}
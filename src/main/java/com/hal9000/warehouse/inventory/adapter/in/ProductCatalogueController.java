@@ -1,38 +1,59 @@
 package com.hal9000.warehouse.inventory.adapter.in;
 
-import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NOT_ENOUGH_SUPPLIES;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SellMode.ALL_OR_NOTHING;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
 import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.ResponseEntity.status;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.AvailableProductsOut.AvailableProduct;
-import com.hal9000.warehouse.inventory.adapter.in.error.ErrorResponse;
 import com.hal9000.warehouse.inventory.domain.Product;
 import com.hal9000.warehouse.inventory.domain.Product.Component;
+import com.hal9000.warehouse.inventory.domain.Product.SubAssembly;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProductsPage;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProductsQuery;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductCatalogueIn;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductStock;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SellMode;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SoldProducts;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortBy;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortDirection;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
+@ConditionalOnWebApplication(type = SERVLET)
 @RequestMapping("products")
 @RequiredArgsConstructor
 public class ProductCatalogueController {
 
+    static final String DEFAULT_PAGE_SIZE = "100";
+
     @Value
     @NoArgsConstructor(force = true, access = PRIVATE)
     @AllArgsConstructor
@@ -53,11 +74,24 @@ public class ProductCatalogueController {
                 int amountOf;
             }
 
+            @Value
+            @NoArgsConstructor(force = true, access = PRIVATE)
+            @AllArgsConstructor
+            static class SubAssembly {
+                String name;
+
+                @JsonProperty("amount_of")
+                int amountOf;
+            }
+
             String name;
 
             @JsonProperty("contain_articles")
             List<Component> containArticles;
 
+            @JsonProperty("contain_products")
+            List<SubAssembly> containProducts;
+
         }
 
         List<Product> products;
@@ -69,64 +103,181 @@ public class ProductCatalogueController {
     static class SellProductIn {
         String productName;
         int productQuantity;
+        Map<Integer, Long> articleVersions;
+        String location;
     }
 
     @Value
     @NoArgsConstructor(force = true, access = PRIVATE)
     @AllArgsConstructor
-    static class AvailableProductsOut {
+    static class SellProductsIn {
+        SellMode mode;
+        List<SellProductIn> products;
+    }
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class SoldProductsOut {
 
         @Value
         @NoArgsConstructor(force = true, access = PRIVATE)
         @AllArgsConstructor
-        static class AvailableProduct {
-            String name;
+        static class SoldProduct {
+            String productName;
+            int productQuantity;
+            boolean sold;
+            String code;
+        }
+
+        List<SoldProduct> products;
+    }
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class ProductStockOut {
+
+        @Value
+        @NoArgsConstructor(force = true, access = PRIVATE)
+        @AllArgsConstructor
+        static class ArticleStock {
+            @JsonProperty("art_id")
+            int articleId;
 
-            @JsonProperty("amount_of")
-            int amountOf;
+            int stock;
+
+            long version;
         }
 
-        List<AvailableProduct> products;
+        String name;
+
+        @JsonProperty("amount_of")
+        int amountOf;
 
+        List<ArticleStock> articles;
     }
 
     private final ProductCatalogueUseCase productCatalogueUseCase;
+    private final StreamingImporter streamingImporter;
+    private final JsonResponses jsonResponses;
 
     @PostMapping("update")
     public void addProducts (@RequestBody AddProductsIn addProductsIn) {
+        productCatalogueUseCase.addToCatalogue(getProductCatalogueIn(addProductsIn));
+    }
 
-        List<Product> productList = addProductsIn.getProducts().stream()
-            .map(this::getProduct)
-            .collect(toList());
-        productCatalogueUseCase.addToCatalogue(new ProductCatalogueIn(productList));
+    @PostMapping("import")
+    public ImportOut importProducts (InputStream productsFile) {
+        return streamingImporter.importProducts(productsFile);
     }
 
     @PostMapping("sell")
-    public ResponseEntity<ErrorResponse> sellProduct (@RequestBody SellProductIn sellProductIn) {
+    public ResponseEntity<byte[]> sellProduct (@RequestBody SellProductIn sellProductIn) {
+        return getSellProductResponse(sell(productCatalogueUseCase, sellProductIn));
+    }
 
-        return productCatalogueUseCase.sellProduct(sellProductIn.getProductName(), sellProductIn.getProductQuantity()) ?
-            status(OK).build() :
-            status(CONFLICT).body(new ErrorResponse(NOT_ENOUGH_SUPPLIES.toString(), "Product cannot be sold"));
+    @PostMapping("sell/batch")
+    public ResponseEntity<SoldProductsOut> sellProducts (@RequestBody SellProductsIn sellProductsIn) {
+
+        SellMode sellMode = ofNullable(sellProductsIn.mode).orElse(ALL_OR_NOTHING);
+        SoldProducts soldProducts = productCatalogueUseCase.sellProducts(new ProductCatalogueUseCase.SellProductsIn(
+            ofNullable(sellProductsIn.products).orElse(emptyList()).stream()
+                .map(sellProductIn -> new ProductCatalogueUseCase.SellProductIn(sellProductIn.productName, sellProductIn.productQuantity))
+                .collect(toList()),
+            sellMode));
+
+        List<SoldProductsOut.SoldProduct> soldProductList = soldProducts.getSoldProductList().stream()
+            .map(soldProduct -> new SoldProductsOut.SoldProduct(soldProduct.getProductName(), soldProduct.getQuantity(),
+                soldProduct.isSold(), ofNullable(soldProduct.getErrorType()).map(ErrorType::toString).orElse(null)))
+            .collect(toList());
+        boolean rejected = sellMode == ALL_OR_NOTHING && soldProductList.stream().anyMatch(soldProduct -> !soldProduct.sold);
+
+        return status(rejected ? CONFLICT : OK).body(new SoldProductsOut(soldProductList));
     }
 
+    @GetMapping("{productName}/stock")
+    public ProductStockOut getProductStock (@PathVariable String productName) {
+        return getProductStockOut(productCatalogueUseCase.getProductStock(productName));
+    }
+
+    /**
+     * Tagged with the availability version it was read at, so a poller either gets a 304 while nothing
+     * changed or asks only for the products that changed {@code since} that version. Otherwise lists a
+     * page of the available products, which links to the next one with its {@code next_cursor}.
+     */
     @GetMapping("available")
-    public AvailableProductsOut getAvailableProducts () {
+    public ResponseEntity<byte[]> getAvailableProducts (@RequestParam(required = false) Long since,
+                                                        @RequestParam(name = "name_prefix", defaultValue = "") String namePrefix,
+                                                        @RequestParam(name = "min_quantity", defaultValue = "1") int minQuantity,
+                                                        @RequestParam(defaultValue = "NAME") SortBy sort,
+                                                        @RequestParam(defaultValue = "ASC") SortDirection direction,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+                                                        WebRequest webRequest) {
+        if (webRequest.checkNotModified(Long.toString(productCatalogueUseCase.getAvailabilityVersion()))) {
+            return null;
+        }
+        return getAvailableProductsResponse(jsonResponses, productCatalogueUseCase, since,
+            new AvailableProductsQuery(namePrefix, minQuantity, sort, direction, cursor, limit));
+    }
 
-        List<AvailableProduct> availableProducts =
-            productCatalogueUseCase.getAvailableProducts().getAvailableProductList().stream()
-            .map(availableProduct -> new AvailableProduct(availableProduct.getProductName(), availableProduct.getQuantity()))
-            .collect(toList());
+    /**
+     * Sells from the nearest location that can when the request names a location, or else checks the
+     * article versions it read. A request naming both is rejected, as the versions would not be checked.
+     */
+    static boolean sell(ProductCatalogueUseCase productCatalogueUseCase, SellProductIn sellProductIn) {
+        if (sellProductIn.location != null && sellProductIn.articleVersions != null && !sellProductIn.articleVersions.isEmpty()) {
+            throw new ResponseStatusException(BAD_REQUEST, "Article versions cannot be checked when selling from a location");
+        }
+        return sellProductIn.location == null ?
+            productCatalogueUseCase.sellProduct(sellProductIn.productName, sellProductIn.productQuantity,
+                ofNullable(sellProductIn.articleVersions).orElse(emptyMap())) :
+            productCatalogueUseCase.sellProductNear(sellProductIn.productName, sellProductIn.productQuantity, sellProductIn.location);
+    }
 
-        return new AvailableProductsOut(availableProducts);
+    static ProductStockOut getProductStockOut(ProductStock productStock) {
+        return new ProductStockOut(productStock.getProductName(), productStock.getQuantity(), productStock.getArticleStockList().stream()
+            .map(articleStock -> new ProductStockOut.ArticleStock(articleStock.getArticleId(), articleStock.getQuantity(), articleStock.getVersion()))
+            .collect(toList()));
     }
 
-    private Product getProduct(AddProductsIn.Product product) {
+    static ProductCatalogueIn getProductCatalogueIn(AddProductsIn addProductsIn) {
+        return new ProductCatalogueIn(addProductsIn.getProducts().stream()
+            .map(ProductCatalogueController::getProduct)
+            .collect(toList()));
+    }
+
+    static ResponseEntity<byte[]> getSellProductResponse(boolean sold) {
+        return sold ?
+            status(OK).build() :
+            status(CONFLICT).contentType(APPLICATION_JSON).body(JsonResponses.PRODUCT_CANNOT_BE_SOLD);
+    }
+
+    static ResponseEntity<byte[]> getAvailableProductsResponse(JsonResponses jsonResponses, ProductCatalogueUseCase productCatalogueUseCase,
+                                                               Long since, AvailableProductsQuery availableProductsQuery) {
+        byte[] body;
+        if (since != null) {
+            body = jsonResponses.availableProducts(productCatalogueUseCase.getAvailableProducts(since).getAvailableProductList(), null);
+        } else {
+            AvailableProductsPage availableProductsPage = productCatalogueUseCase.getAvailableProducts(availableProductsQuery);
+            body = jsonResponses.availableProducts(availableProductsPage.getAvailableProductList(), availableProductsPage.getNextCursor());
+        }
+        return status(OK).contentType(APPLICATION_JSON).body(body);
+    }
+
+    private static Product getProduct(AddProductsIn.Product product) {
         List<Component> componentList = ofNullable(product.containArticles).map(
             containArticles -> containArticles.stream()
                 .map(component -> new Component(component.getArticleId(), component.getAmountOf()))
                 .collect(toList()))
             .orElse(emptyList());
-        return new Product(product.name, componentList);
+        List<SubAssembly> subAssemblyList = ofNullable(product.containProducts).map(
+            containProducts -> containProducts.stream()
+                .map(subAssembly -> new SubAssembly(subAssembly.getName(), subAssembly.getAmountOf()))
+                .collect(toList()))
+            .orElse(emptyList());
+        return new Product(product.name, componentList, subAssemblyList);
 
     }
 
@@ -0,0 +1,43 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.adapter.in.BackorderController.getBackorderOut;
+import static com.hal9000.warehouse.inventory.adapter.in.BackorderController.getBackorderProductIn;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+import com.hal9000.warehouse.inventory.adapter.in.BackorderController.BackorderIn;
+import com.hal9000.warehouse.inventory.adapter.in.BackorderController.BackorderOut;
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@RestController
+@RequestMapping("backorders")
+@ConditionalOnWebApplication(type = REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveBackorderController {
+
+    private final BackorderUseCase backorderUseCase;
+    private final Scheduler useCaseScheduler;
+
+    @PostMapping
+    public Mono<BackorderOut> backorderProduct(@RequestBody Mono<BackorderIn> backorderIn) {
+        return backorderIn
+            .publishOn(useCaseScheduler)
+            .map(backorder -> getBackorderOut(backorderUseCase.backorderProduct(getBackorderProductIn(backorder))));
+    }
+
+    @DeleteMapping("{backorderId}")
+    public Mono<Void> cancelBackorder(@PathVariable String backorderId) {
+        return Mono.fromRunnable(() -> backorderUseCase.cancelBackorder(backorderId))
+            .subscribeOn(useCaseScheduler)
+            .then();
+    }
+}
@@ -0,0 +1,38 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Netty is selected explicitly, as Tomcat is on the classpath for the servlet adapter, and serves every
+ * connection from a fixed event loop group. The use cases still block on article locks, so they run on
+ * a bounded worker pool with a bounded queue; once the queue is full new requests are rejected with 503
+ * instead of queueing up more threads or memory.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(
+        @Value("${inventory.reactive.event-loop-threads:2}") int eventLoopThreads) {
+        NettyReactiveWebServerFactory nettyReactiveWebServerFactory = new NettyReactiveWebServerFactory();
+        LoopResources loopResources = LoopResources.create("inventory-http", eventLoopThreads, true);
+        nettyReactiveWebServerFactory.addServerCustomizers(httpServer -> httpServer.runOn(loopResources));
+        return nettyReactiveWebServerFactory;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler useCaseScheduler(@Value("${inventory.reactive.worker-threads:8}") int workerThreads,
+                                      @Value("${inventory.reactive.queue-capacity:1000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(workerThreads, queueCapacity, "inventory-use-case");
+    }
+}
@@ -0,0 +1,33 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.adapter.in.InventoryController.getAddInventoryIn;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+import com.hal9000.warehouse.inventory.adapter.in.InventoryController.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@RestController
+@RequestMapping("inventory")
+@ConditionalOnWebApplication(type = REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveInventoryController {
+
+    private final InventoryUseCase inventoryUseCase;
+    private final Scheduler useCaseScheduler;
+
+    @PostMapping("update")
+    public Mono<Void> addInventory(@RequestBody Mono<AddInventoryIn> addInventoryIn) {
+        return addInventoryIn
+            .publishOn(useCaseScheduler)
+            .doOnNext(inventory -> inventoryUseCase.addToInventory(getAddInventoryIn(inventory)))
+            .then();
+    }
+}
@@ -0,0 +1,41 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.adapter.in.LocationController.getAvailableProductsResponse;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+import com.hal9000.warehouse.inventory.adapter.in.LocationController.LocationsOut;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@RestController
+@RequestMapping("locations")
+@ConditionalOnWebApplication(type = REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveLocationController {
+
+    private final InventoryUseCase inventoryUseCase;
+    private final ProductCatalogueUseCase productCatalogueUseCase;
+    private final JsonResponses jsonResponses;
+    private final Scheduler useCaseScheduler;
+
+    @GetMapping
+    public Mono<LocationsOut> getLocations() {
+        return Mono.fromCallable(() -> new LocationsOut(inventoryUseCase.getLocations()))
+            .subscribeOn(useCaseScheduler);
+    }
+
+    @GetMapping("{location}/products/available")
+    public Mono<ResponseEntity<byte[]>> getAvailableProducts(@PathVariable String location) {
+        return Mono.fromCallable(() -> getAvailableProductsResponse(jsonResponses, productCatalogueUseCase, location))
+            .subscribeOn(useCaseScheduler);
+    }
+}
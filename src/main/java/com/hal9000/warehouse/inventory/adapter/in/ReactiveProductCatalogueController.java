@@ -0,0 +1,78 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.DEFAULT_PAGE_SIZE;
+import static com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.getAvailableProductsResponse;
+import static com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.getProductCatalogueIn;
+import static com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.getProductStockOut;
+import static com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.getSellProductResponse;
+import static com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.sell;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.AddProductsIn;
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.ProductStockOut;
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.SellProductIn;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProductsQuery;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortBy;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortDirection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@RestController
+@RequestMapping("products")
+@ConditionalOnWebApplication(type = REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveProductCatalogueController {
+
+    private final ProductCatalogueUseCase productCatalogueUseCase;
+    private final JsonResponses jsonResponses;
+    private final Scheduler useCaseScheduler;
+
+    @PostMapping("update")
+    public Mono<Void> addProducts(@RequestBody Mono<AddProductsIn> addProductsIn) {
+        return addProductsIn
+            .publishOn(useCaseScheduler)
+            .doOnNext(products -> productCatalogueUseCase.addToCatalogue(getProductCatalogueIn(products)))
+            .then();
+    }
+
+    @PostMapping("sell")
+    public Mono<ResponseEntity<byte[]>> sellProduct(@RequestBody Mono<SellProductIn> sellProductIn) {
+        return sellProductIn
+            .publishOn(useCaseScheduler)
+            .map(product -> getSellProductResponse(sell(productCatalogueUseCase, product)));
+    }
+
+    @GetMapping("{productName}/stock")
+    public Mono<ProductStockOut> getProductStock(@PathVariable String productName) {
+        return Mono.fromCallable(() -> getProductStockOut(productCatalogueUseCase.getProductStock(productName)))
+            .subscribeOn(useCaseScheduler);
+    }
+
+    @GetMapping("available")
+    public Mono<ResponseEntity<byte[]>> getAvailableProducts(@RequestParam(required = false) Long since,
+                                                             @RequestParam(name = "name_prefix", defaultValue = "") String namePrefix,
+                                                             @RequestParam(name = "min_quantity", defaultValue = "1") int minQuantity,
+                                                             @RequestParam(defaultValue = "NAME") SortBy sort,
+                                                             @RequestParam(defaultValue = "ASC") SortDirection direction,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+                                                             ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> exchange.checkNotModified(Long.toString(productCatalogueUseCase.getAvailabilityVersion())) ?
+                null :
+                getAvailableProductsResponse(jsonResponses, productCatalogueUseCase, since,
+                    new AvailableProductsQuery(namePrefix, minQuantity, sort, direction, cursor, limit)))
+            .subscribeOn(useCaseScheduler);
+    }
+}
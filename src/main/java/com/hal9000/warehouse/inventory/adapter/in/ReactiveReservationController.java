@@ -0,0 +1,50 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.adapter.in.ReservationController.getHoldProductIn;
+import static com.hal9000.warehouse.inventory.adapter.in.ReservationController.getHoldProductResponse;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+import com.hal9000.warehouse.inventory.adapter.in.ReservationController.HoldIn;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@RestController
+@RequestMapping("reservations")
+@ConditionalOnWebApplication(type = REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveReservationController {
+
+    private final ReservationUseCase reservationUseCase;
+    private final Scheduler useCaseScheduler;
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> holdProduct(@RequestBody Mono<HoldIn> holdIn) {
+        return holdIn
+            .publishOn(useCaseScheduler)
+            .map(hold -> getHoldProductResponse(reservationUseCase.holdProduct(getHoldProductIn(hold))));
+    }
+
+    @PostMapping("{reservationId}/confirm")
+    public Mono<Void> confirmReservation(@PathVariable String reservationId) {
+        return Mono.fromRunnable(() -> reservationUseCase.confirmReservation(reservationId))
+            .subscribeOn(useCaseScheduler)
+            .then();
+    }
+
+    @DeleteMapping("{reservationId}")
+    public Mono<Void> releaseReservation(@PathVariable String reservationId) {
+        return Mono.fromRunnable(() -> reservationUseCase.releaseReservation(reservationId))
+            .subscribeOn(useCaseScheduler)
+            .then();
+    }
+}
@@ -0,0 +1,50 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.adapter.in.StockEventController.LAST_EVENT_ID;
+import static com.hal9000.warehouse.inventory.adapter.in.StockEventController.getLastSequence;
+import static com.hal9000.warehouse.inventory.adapter.in.StockEventController.getStockEventOut;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+import com.hal9000.warehouse.inventory.adapter.in.StockEventController.StockEventOut;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.Subscription;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("events")
+@ConditionalOnWebApplication(type = REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveStockEventController {
+
+    private static final int MAX_PENDING_EVENTS = 1024;
+
+    private final StockEventsUseCase stockEventsUseCase;
+
+    /**
+     * A client that does not keep up gets its stream failed once {@value MAX_PENDING_EVENTS} events are
+     * pending, and resumes from its last event id when it reconnects.
+     */
+    @GetMapping(produces = TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<StockEventOut>> streamEvents(@RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId,
+                                                             @RequestParam(required = false) Long since) {
+        long lastSequence = getLastSequence(stockEventsUseCase, lastEventId, since);
+        return Flux.<ServerSentEvent<StockEventOut>>create(sink -> {
+            Subscription subscription = stockEventsUseCase.subscribe(lastSequence, stockEvent -> sink.next(ServerSentEvent.builder(getStockEventOut(stockEvent))
+                .id(Long.toString(stockEvent.getSequence()))
+                .event(stockEvent.getType().toString())
+                .build()));
+            sink.onDispose(subscription::cancel);
+        })
+            .onBackpressureBuffer(MAX_PENDING_EVENTS, BufferOverflowStrategy.ERROR);
+    }
+}
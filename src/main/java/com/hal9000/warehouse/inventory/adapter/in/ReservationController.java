@@ -0,0 +1,82 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NOT_ENOUGH_SUPPLIES;
+import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.ResponseEntity.status;
+
+import com.hal9000.warehouse.inventory.adapter.in.error.ErrorResponse;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase.HoldProductIn;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase.Reservation;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class HoldIn {
+        String productName;
+        int productQuantity;
+        Duration timeToLive;
+    }
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class ReservationOut {
+        String reservationId;
+        String productName;
+        int productQuantity;
+        Instant expiresAt;
+    }
+
+    private final ReservationUseCase reservationUseCase;
+
+    @PostMapping
+    public ResponseEntity<Object> holdProduct (@RequestBody HoldIn holdIn) {
+        return getHoldProductResponse(reservationUseCase.holdProduct(getHoldProductIn(holdIn)));
+    }
+
+    @PostMapping("{reservationId}/confirm")
+    public void confirmReservation (@PathVariable String reservationId) {
+        reservationUseCase.confirmReservation(reservationId);
+    }
+
+    @DeleteMapping("{reservationId}")
+    public void releaseReservation (@PathVariable String reservationId) {
+        reservationUseCase.releaseReservation(reservationId);
+    }
+
+    static HoldProductIn getHoldProductIn(HoldIn holdIn) {
+        return new HoldProductIn(holdIn.productName, holdIn.productQuantity, holdIn.timeToLive);
+    }
+
+    static ResponseEntity<Object> getHoldProductResponse(Optional<Reservation> reservation) {
+        return reservation
+            .<ResponseEntity<Object>>map(held -> status(OK).body(new ReservationOut(held.getReservationId(), held.getProductName(),
+                held.getQuantity(), held.getExpiresAt())))
+            .orElseGet(() -> status(CONFLICT).body(new ErrorResponse(NOT_ENOUGH_SUPPLIES.toString(), "Product cannot be held")));
+    }
+}
@@ -0,0 +1,114 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
+import static java.util.stream.Collectors.toList;
+import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.EventType;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.StockEvent;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.Subscription;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("events")
+@RequiredArgsConstructor
+public class StockEventController {
+
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    @JsonInclude(NON_EMPTY)
+    static class StockEventOut {
+
+        @Value
+        @NoArgsConstructor(force = true, access = PRIVATE)
+        @AllArgsConstructor
+        static class ArticleQuantity {
+            @JsonProperty("art_id")
+            int articleId;
+
+            int quantity;
+        }
+
+        long sequence;
+
+        String type;
+
+        List<ArticleQuantity> articles;
+
+        List<String> products;
+
+        @JsonProperty("amount_of")
+        Integer amountOf;
+
+        String backorderId;
+    }
+
+    private final StockEventsUseCase stockEventsUseCase;
+
+    /**
+     * Streams the stock events after the sequence of the {@code Last-Event-ID} header a reconnecting
+     * client sends, or else after the {@code since} parameter, or else from now on.
+     */
+    @GetMapping(produces = TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents (@RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId,
+                                    @RequestParam(required = false) Long since) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscription subscription = stockEventsUseCase.subscribe(getLastSequence(stockEventsUseCase, lastEventId, since),
+            stockEvent -> send(emitter, stockEvent));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
+    static long getLastSequence(StockEventsUseCase stockEventsUseCase, Long lastEventId, Long since) {
+        return Optional.ofNullable(lastEventId)
+            .or(() -> Optional.ofNullable(since))
+            .orElseGet(stockEventsUseCase::getLastSequence);
+    }
+
+    static StockEventOut getStockEventOut(StockEvent stockEvent) {
+        return new StockEventOut(stockEvent.getSequence(), stockEvent.getType().toString(),
+            stockEvent.getArticles().stream()
+                .map(articleQuantity -> new StockEventOut.ArticleQuantity(articleQuantity.getArticleId(), articleQuantity.getQuantity()))
+                .collect(toList()),
+            stockEvent.getProductNames(),
+            stockEvent.getType() == EventType.AVAILABILITY_CHANGED || stockEvent.getType() == EventType.BACKORDER_FULFILLED ?
+                stockEvent.getQuantity() : null,
+            stockEvent.getBackorderId());
+    }
+
+    private static void send(SseEmitter emitter, StockEvent stockEvent) {
+        try {
+            emitter.send(SseEmitter.event()
+                .id(Long.toString(stockEvent.getSequence()))
+                .name(stockEvent.getType().toString())
+                .data(getStockEventOut(stockEvent)));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.hal9000.warehouse.inventory.port.in.InventoryUseCase.RestockMode.SET;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static java.util.Comparator.comparingLong;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.InventoryException;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductCatalogueException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports inventory and product files record by record with the Jackson streaming parser. Valid records
+ * are applied in chunks of {@code inventory.import.chunk-size}; when a chunk is rejected its records are
+ * applied one by one to find the invalid ones, so memory stays bounded by the chunk size.
+ * <p>
+ * Products rejected because a sub-assembly is not in catalogue yet are set aside by name, up to a chunk of
+ * them, and retried once the whole file has been read, as their sub-assemblies may come in a later chunk.
+ * A later record of the same product replaces the one set aside.
+ */
+@Slf4j
+@Component
+public class StreamingImporter {
+
+    static final String INVALID_RECORD = "INVALID_RECORD";
+    static final String MALFORMED_JSON = "MALFORMED_JSON";
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int PROGRESS_INTERVAL = 100_000;
+
+    @lombok.Value
+    private static class DeferredRecord<T> {
+        long record;
+        T value;
+        String code;
+        String message;
+    }
+
+    private static class InvalidRecordException extends RuntimeException {
+        InvalidRecordException(String message) {
+            super(message);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final InventoryUseCase inventoryUseCase;
+    private final ProductCatalogueUseCase productCatalogueUseCase;
+    private final int chunkSize;
+
+    public StreamingImporter(ObjectMapper objectMapper, InventoryUseCase inventoryUseCase,
+                             ProductCatalogueUseCase productCatalogueUseCase,
+                             @Value("${inventory.import.chunk-size:1000}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.inventoryUseCase = inventoryUseCase;
+        this.productCatalogueUseCase = productCatalogueUseCase;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportOut importInventory(InputStream inputStream) {
+        return importRecords(inputStream, "inventory", this::getArticleSupply, null,
+            articleSupplies -> inventoryUseCase.addToInventory(new InventoryUseCase.AddInventoryIn(articleSupplies, SET)));
+    }
+
+    public ImportOut importProducts(InputStream inputStream) {
+        return importRecords(inputStream, "products", this::getProduct, Product::getName,
+            products -> productCatalogueUseCase.addToCatalogue(new ProductCatalogueUseCase.ProductCatalogueIn(products)));
+    }
+
+    private <T> ImportOut importRecords(InputStream inputStream, String recordsField,
+                                        Function<JsonNode, T> recordMapper, Function<T, String> deferralKey,
+                                        Consumer<List<T>> chunkConsumer) {
+        Import<T> currentImport = new Import<>(recordsField, deferralKey, chunkConsumer);
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            while (parser.nextToken() == FIELD_NAME) {
+                boolean recordsArray = recordsField.equals(parser.getCurrentName()) && parser.nextToken() == START_ARRAY;
+                if (!recordsArray) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() != END_ARRAY) {
+                    JsonNode record = parser.readValueAsTree();
+                    try {
+                        currentImport.add(recordMapper.apply(record));
+                    } catch (InvalidRecordException exception) {
+                        currentImport.reject(INVALID_RECORD, exception.getMessage());
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            currentImport.flush();
+            currentImport.reject(MALFORMED_JSON, exception.getMessage());
+        }
+        currentImport.flush();
+        currentImport.retryDeferred();
+        log.info("Imported {} {} records, {} rejected", currentImport.imported, recordsField, currentImport.rejected);
+        return new ImportOut(currentImport.imported, currentImport.rejected, currentImport.errors);
+    }
+
+    private class Import<T> {
+        private final String recordsField;
+        private final Function<T, String> deferralKey;
+        private final Consumer<List<T>> chunkConsumer;
+        private final Map<String, DeferredRecord<T>> deferred = new LinkedHashMap<>();
+        private final List<T> chunk = new ArrayList<>(chunkSize);
+        private final List<Long> chunkRecords = new ArrayList<>(chunkSize);
+        private final List<ImportOut.RecordError> errors = new ArrayList<>();
+        private long records;
+        private long imported;
+        private long rejected;
+
+        Import(String recordsField, Function<T, String> deferralKey, Consumer<List<T>> chunkConsumer) {
+            this.recordsField = recordsField;
+            this.deferralKey = deferralKey;
+            this.chunkConsumer = chunkConsumer;
+        }
+
+        void add(T value) {
+            chunk.add(value);
+            chunkRecords.add(nextRecord());
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(String code, String message) {
+            reject(nextRecord(), code, message);
+        }
+
+        private long nextRecord() {
+            if (records > 0 && records % PROGRESS_INTERVAL == 0) {
+                log.info("{} {} records read", records, recordsField);
+            }
+            return records++;
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                chunkConsumer.accept(chunk);
+                imported += chunk.size();
+                if (!deferred.isEmpty()) {
+                    chunk.forEach(value -> deferred.remove(deferralKey.apply(value)));
+                }
+            } catch (InventoryException | ProductCatalogueException exception) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    applyRecord(chunkRecords.get(i), chunk.get(i));
+                }
+            }
+            chunk.clear();
+            chunkRecords.clear();
+        }
+
+        /**
+         * Retries the records set aside in passes, latest records first, until a pass imports none of them,
+         * and rejects the ones left.
+         */
+        void retryDeferred() {
+            while (!deferred.isEmpty()) {
+                List<DeferredRecord<T>> pending = new ArrayList<>(deferred.values());
+                pending.sort(comparingLong(DeferredRecord<T>::getRecord).reversed());
+                deferred.clear();
+                long importedBefore = imported;
+                pending.forEach(deferredRecord -> applyRecord(deferredRecord.getRecord(), deferredRecord.getValue()));
+                if (imported == importedBefore) {
+                    deferred.values().forEach(deferredRecord ->
+                        reject(deferredRecord.getRecord(), deferredRecord.getCode(), deferredRecord.getMessage()));
+                    deferred.clear();
+                }
+            }
+        }
+
+        private void applyRecord(long record, T value) {
+            if (deferralKey != null) {
+                deferred.remove(deferralKey.apply(value));
+            }
+            try {
+                chunkConsumer.accept(List.of(value));
+                imported++;
+            } catch (InventoryException exception) {
+                reject(record, exception.getErrorType().toString(), exception.getMessage());
+            } catch (ProductCatalogueException exception) {
+                if (exception.getErrorType() != NON_EXISTENT_PRODUCT || !defer(record, value, exception)) {
+                    reject(record, exception.getErrorType().toString(), exception.getMessage());
+                }
+            }
+        }
+
+        private boolean defer(long record, T value, ProductCatalogueException exception) {
+            if (deferralKey == null || deferred.size() >= chunkSize) {
+                return false;
+            }
+            deferred.put(deferralKey.apply(value),
+                new DeferredRecord<>(record, value, exception.getErrorType().toString(), exception.getMessage()));
+            return true;
+        }
+
+        private void reject(long record, String code, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportOut.RecordError(record, code, message));
+            }
+        }
+    }
+
+    private ArticleSupply getArticleSupply(JsonNode record) {
+        return new ArticleSupply(
+            new Article(getInt(record, "art_id"), getOptionalText(record, "name")),
+            getInt(record, "stock"));
+    }
+
+    private Product getProduct(JsonNode record) {
+        List<Product.Component> components = new ArrayList<>();
+        JsonNode containArticles = record.path("contain_articles");
+        if (!containArticles.isMissingNode() && !containArticles.isArray()) {
+            throw new InvalidRecordException("'contain_articles' must be an array");
+        }
+        containArticles.forEach(component ->
+            components.add(new Product.Component(getInt(component, "art_id"), getInt(component, "amount_of"))));
+        List<Product.SubAssembly> subAssemblies = new ArrayList<>();
+        JsonNode containProducts = record.path("contain_products");
+        if (!containProducts.isMissingNode() && !containProducts.isArray()) {
+            throw new InvalidRecordException("'contain_products' must be an array");
+        }
+        containProducts.forEach(subAssembly ->
+            subAssemblies.add(new Product.SubAssembly(getText(subAssembly, "name"), getInt(subAssembly, "amount_of"))));
+        return new Product(getText(record, "name"), components, subAssemblies);
+    }
+
+    private int getInt(JsonNode record, String field) {
+        JsonNode value = record.path(field);
+        if (value.canConvertToInt() && value.isIntegralNumber()) {
+            return value.intValue();
+        }
+        if (value.isTextual()) {
+            try {
+                return Integer.parseInt(value.textValue().trim());
+            } catch (NumberFormatException exception) {
+                throw new InvalidRecordException(String.format("'%s' must be an integer", field));
+            }
+        }
+        throw new InvalidRecordException(String.format("'%s' must be an integer", field));
+    }
+
+    private String getText(JsonNode record, String field) {
+        JsonNode value = record.path(field);
+        if (!value.isTextual()) {
+            throw new InvalidRecordException(String.format("'%s' must be a string", field));
+        }
+        return value.textValue();
+    }
+
+    private String getOptionalText(JsonNode record, String field) {
+        JsonNode value = record.path(field);
+        return value.isMissingNode() || value.isNull() ? null : getText(record, field);
+    }
+}
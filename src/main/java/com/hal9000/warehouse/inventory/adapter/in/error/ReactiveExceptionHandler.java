@@ -0,0 +1,54 @@
+package com.hal9000.warehouse.inventory.adapter.in.error;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.ResponseEntity.status;
+
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase.BackorderException;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.InventoryException;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductCatalogueException;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ReservationException;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
+
+@ControllerAdvice
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveExceptionHandler {
+
+    static final String OVERLOADED = "OVERLOADED";
+
+    @ExceptionHandler(InventoryException.class)
+    public ResponseEntity<ErrorResponse> handleInventoryException (InventoryException exception) {
+        return status(CONFLICT).body(new ErrorResponse(exception.getErrorType().toString(), exception.getMessage()));
+    }
+
+    @ExceptionHandler(ProductCatalogueException.class)
+    public ResponseEntity<ErrorResponse> handleProductCatalogueException (ProductCatalogueException exception) {
+        return status(CONFLICT).body(new ErrorResponse(exception.getErrorType().toString(), exception.getMessage()));
+    }
+
+    @ExceptionHandler(ReservationException.class)
+    public ResponseEntity<ErrorResponse> handleReservationException (ReservationException exception) {
+        return status(CONFLICT).body(new ErrorResponse(exception.getErrorType().toString(), exception.getMessage()));
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatusException (ResponseStatusException exception) {
+        return status(exception.getStatus()).body(new ErrorResponse(exception.getStatus().name(), exception.getReason()));
+    }
+
+    @ExceptionHandler(BackorderException.class)
+    public ResponseEntity<ErrorResponse> handleBackorderException (BackorderException exception) {
+        return status(CONFLICT).body(new ErrorResponse(exception.getErrorType().toString(), exception.getMessage()));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecutionException (RejectedExecutionException exception) {
+        return status(SERVICE_UNAVAILABLE).body(new ErrorResponse(OVERLOADED, "Too many requests in progress"));
+    }
+}
@@ -1,16 +1,22 @@
 package com.hal9000.warehouse.inventory.adapter.in.error;
 
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.ResponseEntity.status;
 
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase.BackorderException;
 import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.InventoryException;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductCatalogueException;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ReservationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = SERVLET)
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(InventoryException.class)
@@ -23,6 +29,21 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return getResponse(exception.getErrorType().toString(), exception.getMessage());
     }
 
+    @ExceptionHandler(ReservationException.class)
+    public ResponseEntity<ErrorResponse> handleReservationException (ReservationException exception) {
+        return getResponse(exception.getErrorType().toString(), exception.getMessage());
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatusException (ResponseStatusException exception) {
+        return status(exception.getStatus()).body(new ErrorResponse(exception.getStatus().name(), exception.getReason()));
+    }
+
+    @ExceptionHandler(BackorderException.class)
+    public ResponseEntity<ErrorResponse> handleBackorderException (BackorderException exception) {
+        return getResponse(exception.getErrorType().toString(), exception.getMessage());
+    }
+
     private ResponseEntity<ErrorResponse> getResponse(String code, String message) {
         return status(CONFLICT).body(new ErrorResponse(code, message));
     }
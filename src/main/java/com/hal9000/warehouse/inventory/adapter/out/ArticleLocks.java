@@ -0,0 +1,102 @@
+package com.hal9000.warehouse.inventory.adapter.out;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Locks striped by article id. Stripes are always acquired in ascending order,
+ * so batches sharing articles cannot deadlock and disjoint batches do not contend.
+ * Only acquisitions that had to wait are timed, so the uncontended path stays a single CAS.
+ */
+class ArticleLocks {
+
+    private final ReentrantLock[] stripes;
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+
+    ArticleLocks(int stripeCount) {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    int[] stripesOf(IntStream articleIds) {
+        return articleIds
+            .map(articleId -> Math.floorMod(articleId, stripes.length))
+            .distinct()
+            .sorted()
+            .toArray();
+    }
+
+    /**
+     * Stripes of the given article ids in ascending order, sorted by insertion as a sell plan only has a
+     * few articles.
+     */
+    int[] stripesOf(int[] articleIds) {
+        int[] stripeIndexes = new int[articleIds.length];
+        int count = 0;
+        for (int articleId : articleIds) {
+            int stripeIndex = Math.floorMod(articleId, stripes.length);
+            int position = count;
+            while (position > 0 && stripeIndexes[position - 1] > stripeIndex) {
+                position--;
+            }
+            if (position > 0 && stripeIndexes[position - 1] == stripeIndex) {
+                continue;
+            }
+            System.arraycopy(stripeIndexes, position, stripeIndexes, position + 1, count - position);
+            stripeIndexes[position] = stripeIndex;
+            count++;
+        }
+        return count == stripeIndexes.length ? stripeIndexes : Arrays.copyOf(stripeIndexes, count);
+    }
+
+    void lock(int[] stripeIndexes) {
+        for (int stripeIndex : stripeIndexes) {
+            ReentrantLock stripe = stripes[stripeIndex];
+            if (!stripe.tryLock()) {
+                waitingThreads.incrementAndGet();
+                long waitStart = System.nanoTime();
+                stripe.lock();
+                waitNanos.add(System.nanoTime() - waitStart);
+                contendedAcquisitions.increment();
+                waitingThreads.decrementAndGet();
+            }
+        }
+    }
+
+    boolean tryLock(int[] stripeIndexes) {
+        for (int i = 0; i < stripeIndexes.length; i++) {
+            if (!stripes[stripeIndexes[i]].tryLock()) {
+                for (int j = i - 1; j >= 0; j--) {
+                    stripes[stripeIndexes[j]].unlock();
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getContendedAcquisitions() {
+        return contendedAcquisitions.sum();
+    }
+
+    long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    int getWaitingThreads() {
+        return waitingThreads.get();
+    }
+
+    void unlock(int[] stripeIndexes) {
+        for (int i = stripeIndexes.length - 1; i >= 0; i--) {
+            stripes[stripeIndexes[i]].unlock();
+        }
+    }
+}
@@ -1,36 +1,343 @@
 package com.hal9000.warehouse.inventory.adapter.out;
 
+import static java.util.Collections.nCopies;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingInt;
+import static java.util.stream.Collectors.toList;
+
 import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
 import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.StockChangeListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+/**
+ * Article supplies are replaced, never mutated, and every replacement gets the next version. A take checks
+ * the stock without locking and then only tries the locks of its stripes, to validate that the versions it
+ * read are still current and write. Only after repeated conflicts does it wait for the locks. A take by
+ * sell plan walks the plan's arrays and writes the replacements from the supplies it validated, so each
+ * article is looked up once under the locks. Stock change listeners are told of a change before its
+ * stripes are unlocked.
+ */
 @Component
-public class Inventory implements InventoryRepository {
+@ConditionalOnProperty(name = "inventory.store", havingValue = "map", matchIfMissing = true)
+public class Inventory implements InventoryRepository, MeterBinder {
+
+    private static final int LOCK_STRIPES = 256;
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
 
     private final Map<Integer, ArticleSupply> instance = new ConcurrentHashMap<>();
+    private final ArticleLocks articleLocks = new ArticleLocks(LOCK_STRIPES);
+    private final List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<StockChangeListener> stockChangeListeners = new CopyOnWriteArrayList<>();
+    private final LongAdder optimisticConflicts = new LongAdder();
+
+    public void addListener(InventoryListener listener) {
+        listeners.add(listener);
+    }
+
+    public void addStockChangeListener(StockChangeListener stockChangeListener) {
+        stockChangeListeners.addIfAbsent(stockChangeListener);
+    }
+
+    public void bindTo(MeterRegistry meterRegistry) {
+        FunctionTimer.builder("inventory.lock.wait", articleLocks,
+                ArticleLocks::getContendedAcquisitions, ArticleLocks::getWaitNanos, NANOSECONDS)
+            .description("Time spent waiting for contended article lock stripes")
+            .register(meterRegistry);
+        Gauge.builder("inventory.lock.waiting", articleLocks, ArticleLocks::getWaitingThreads)
+            .description("Threads currently waiting for an article lock stripe")
+            .register(meterRegistry);
+        FunctionCounter.builder("inventory.optimistic.conflicts", optimisticConflicts, LongAdder::sum)
+            .description("Optimistic takes retried because their articles changed or were locked")
+            .register(meterRegistry);
+    }
 
     public void addToInventory(AddInventoryIn addInventoryIn) {
-        addInventoryIn.getArticleSupplies()
-            .forEach(articleSupply -> instance.put(articleSupply.getArticle().getId(), articleSupply));
+        beforeChange();
+        add(addInventoryIn);
+        afterChange();
+    }
 
+    private void add(AddInventoryIn addInventoryIn) {
+        List<ArticleSupply> articleSupplies = addInventoryIn.getArticleSupplies();
+        int[] stripes = articleLocks.stripesOf(articleSupplies.stream().mapToInt(articleSupply -> articleSupply.getArticle().getId()));
+
+        articleLocks.lock(stripes);
+        try {
+            if (addInventoryIn.isIncrement()) {
+                checkRestockedQuantities(articleSupplies);
+            }
+            articleSupplies.forEach(articleSupply -> put(addInventoryIn.isIncrement() ? getRestockedArticleSupply(articleSupply) : articleSupply));
+            stockChangeListeners.forEach(stockChangeListener -> {
+                if (addInventoryIn.isIncrement()) {
+                    stockChangeListener.articlesRestocked(articleSupplies);
+                } else {
+                    stockChangeListener.articlesAdded(articleSupplies);
+                }
+            });
+        } finally {
+            articleLocks.unlock(stripes);
+        }
     }
 
     public boolean takeFromInventory(TakeFromInventoryIn takeFromInventoryIn) {
-        synchronized (instance) {
-            boolean enoughInventoryPresent = takeFromInventoryIn.getArticleBatchList().stream()
-                .allMatch(articleBatch -> instance.get(articleBatch.getArticleId()).getQuantity() >= articleBatch.getQuantity());
-            if (enoughInventoryPresent) {
-                takeFromInventoryIn.getArticleBatchList()
-                    .forEach(articleBatch -> instance.put(articleBatch.getArticleId(), getUpdatedArticleSupply(articleBatch)));
+        beforeChange();
+        boolean taken = take(takeFromInventoryIn);
+        afterChange();
+        return taken;
+    }
+
+    private boolean take(TakeFromInventoryIn takeFromInventoryIn) {
+        List<ArticleBatch> articleBatchList = takeFromInventoryIn.getArticleBatchList();
+        int[] stripes = articleLocks.stripesOf(articleBatchList.stream().mapToInt(ArticleBatch::getArticleId));
+
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            ArticleSupply[] readArticleSupplies = new ArticleSupply[articleBatchList.size()];
+            for (int i = 0; i < readArticleSupplies.length; i++) {
+                readArticleSupplies[i] = instance.get(articleBatchList.get(i).getArticleId());
+                if (readArticleSupplies[i].getQuantity() < articleBatchList.get(i).getQuantity()) {
+                    return false;
+                }
+            }
+            if (articleLocks.tryLock(stripes)) {
+                try {
+                    if (isUnchanged(articleBatchList, readArticleSupplies)) {
+                        articleBatchList.forEach(articleBatch -> put(getUpdatedArticleSupply(articleBatch)));
+                        stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesTaken(articleBatchList));
+                        return true;
+                    }
+                } finally {
+                    articleLocks.unlock(stripes);
+                }
+            }
+            optimisticConflicts.increment();
+        }
+
+        articleLocks.lock(stripes);
+        try {
+            return takeLocked(articleBatchList);
+        } finally {
+            articleLocks.unlock(stripes);
+        }
+    }
+
+    public TakeFromInventoryOut takeFromLocation(TakeFromInventoryIn takeFromInventoryIn) {
+        return new TakeFromInventoryOut(takeFromInventory(takeFromInventoryIn), null);
+    }
+
+    public boolean takeFromInventory(SellPlan sellPlan, int productQuantity) {
+        beforeChange();
+        boolean taken = take(sellPlan, productQuantity);
+        afterChange();
+        return taken;
+    }
+
+    private boolean take(SellPlan sellPlan, int productQuantity) {
+        int[] articleIds = sellPlan.getArticleIds();
+        int[] unitQuantities = sellPlan.getUnitQuantities();
+        int[] stripes = articleLocks.stripesOf(articleIds);
+        ArticleSupply[] readArticleSupplies = new ArticleSupply[articleIds.length];
+
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            if (!readEnough(articleIds, unitQuantities, productQuantity, readArticleSupplies)) {
+                return false;
+            }
+            if (articleLocks.tryLock(stripes)) {
+                try {
+                    if (isUnchanged(articleIds, readArticleSupplies)) {
+                        replace(readArticleSupplies, unitQuantities, productQuantity);
+                        stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesTaken(sellPlan, productQuantity));
+                        return true;
+                    }
+                } finally {
+                    articleLocks.unlock(stripes);
+                }
+            }
+            optimisticConflicts.increment();
+        }
+
+        articleLocks.lock(stripes);
+        try {
+            if (!readEnough(articleIds, unitQuantities, productQuantity, readArticleSupplies)) {
+                return false;
+            }
+            replace(readArticleSupplies, unitQuantities, productQuantity);
+            stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesTaken(sellPlan, productQuantity));
+            return true;
+        } finally {
+            articleLocks.unlock(stripes);
+        }
+    }
+
+    public TakeOutcome takeFromInventory(ConditionalTakeIn conditionalTakeIn) {
+        beforeChange();
+        TakeOutcome outcome = take(conditionalTakeIn);
+        afterChange();
+        return outcome;
+    }
+
+    private TakeOutcome take(ConditionalTakeIn conditionalTakeIn) {
+        List<ArticleBatch> articleBatchList = conditionalTakeIn.getArticleBatchList();
+        int[] stripes = articleLocks.stripesOf(articleBatchList.stream().mapToInt(ArticleBatch::getArticleId));
+
+        articleLocks.lock(stripes);
+        try {
+            boolean unchanged = articleBatchList.stream().allMatch(articleBatch -> {
+                Long expectedVersion = conditionalTakeIn.getExpectedVersions().get(articleBatch.getArticleId());
+                return expectedVersion == null || instance.get(articleBatch.getArticleId()).getVersion() == expectedVersion;
+            });
+            if (!unchanged) {
+                return TakeOutcome.VERSION_CONFLICT;
             }
+            return takeLocked(articleBatchList) ? TakeOutcome.TAKEN : TakeOutcome.NOT_ENOUGH_SUPPLIES;
+        } finally {
+            articleLocks.unlock(stripes);
+        }
+    }
+
+    public List<Boolean> takeFromInventory(TakeFromInventoryBatchIn takeFromInventoryBatchIn) {
+        beforeChange();
+        List<Boolean> taken = take(takeFromInventoryBatchIn);
+        afterChange();
+        return taken;
+    }
 
-            return enoughInventoryPresent;
+    private List<Boolean> take(TakeFromInventoryBatchIn takeFromInventoryBatchIn) {
+        List<TakeFromInventoryIn> takeFromInventoryInList = takeFromInventoryBatchIn.getTakeFromInventoryInList();
+        int[] stripes = articleLocks.stripesOf(takeFromInventoryInList.stream()
+            .flatMap(takeFromInventoryIn -> takeFromInventoryIn.getArticleBatchList().stream())
+            .mapToInt(ArticleBatch::getArticleId));
+
+        articleLocks.lock(stripes);
+        try {
+            if (takeFromInventoryBatchIn.isAllOrNothing()) {
+                return nCopies(takeFromInventoryInList.size(), takeLocked(mergeArticleBatches(takeFromInventoryInList)));
+            }
+            return takeFromInventoryInList.stream()
+                .map(takeFromInventoryIn -> takeLocked(takeFromInventoryIn.getArticleBatchList()))
+                .collect(toList());
+        } finally {
+            articleLocks.unlock(stripes);
         }
     }
 
+    public void returnToInventory(TakeFromInventoryIn takeFromInventoryIn) {
+        beforeChange();
+        giveBack(takeFromInventoryIn);
+        afterChange();
+    }
+
+    private void giveBack(TakeFromInventoryIn takeFromInventoryIn) {
+        List<ArticleBatch> articleBatchList = takeFromInventoryIn.getArticleBatchList();
+        int[] stripes = articleLocks.stripesOf(articleBatchList.stream().mapToInt(ArticleBatch::getArticleId));
+
+        articleLocks.lock(stripes);
+        try {
+            articleBatchList.forEach(articleBatch -> {
+                ArticleSupply currentArticleSupply = instance.get(articleBatch.getArticleId());
+                put(new ArticleSupply(currentArticleSupply.getArticle(), currentArticleSupply.getQuantity() + articleBatch.getQuantity()));
+            });
+            stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesReturned(articleBatchList));
+        } finally {
+            articleLocks.unlock(stripes);
+        }
+    }
+
+    private boolean isUnchanged(List<ArticleBatch> articleBatchList, ArticleSupply[] readArticleSupplies) {
+        for (int i = 0; i < readArticleSupplies.length; i++) {
+            if (instance.get(articleBatchList.get(i).getArticleId()).getVersion() != readArticleSupplies[i].getVersion()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readEnough(int[] articleIds, int[] unitQuantities, int productQuantity, ArticleSupply[] readArticleSupplies) {
+        for (int i = 0; i < articleIds.length; i++) {
+            readArticleSupplies[i] = instance.get(articleIds[i]);
+            if (readArticleSupplies[i].getQuantity() < unitQuantities[i] * productQuantity) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isUnchanged(int[] articleIds, ArticleSupply[] readArticleSupplies) {
+        for (int i = 0; i < articleIds.length; i++) {
+            if (instance.get(articleIds[i]).getVersion() != readArticleSupplies[i].getVersion()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void replace(ArticleSupply[] currentArticleSupplies, int[] unitQuantities, int productQuantity) {
+        for (int i = 0; i < currentArticleSupplies.length; i++) {
+            ArticleSupply currentArticleSupply = currentArticleSupplies[i];
+            ArticleSupply versionedArticleSupply = new ArticleSupply(currentArticleSupply.getArticle(),
+                currentArticleSupply.getQuantity() - unitQuantities[i] * productQuantity, currentArticleSupply.getVersion() + 1);
+            instance.put(currentArticleSupply.getArticle().getId(), versionedArticleSupply);
+            listeners.forEach(listener -> listener.articleSupplyChanged(versionedArticleSupply));
+        }
+    }
+
+    private boolean takeLocked(List<ArticleBatch> articleBatchList) {
+        boolean enoughInventoryPresent = articleBatchList.stream()
+            .allMatch(articleBatch -> instance.get(articleBatch.getArticleId()).getQuantity() >= articleBatch.getQuantity());
+        if (enoughInventoryPresent) {
+            articleBatchList
+                .forEach(articleBatch -> put(getUpdatedArticleSupply(articleBatch)));
+            stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesTaken(articleBatchList));
+        }
+
+        return enoughInventoryPresent;
+    }
+
+    private List<ArticleBatch> mergeArticleBatches(List<TakeFromInventoryIn> takeFromInventoryInList) {
+        return takeFromInventoryInList.stream()
+            .flatMap(takeFromInventoryIn -> takeFromInventoryIn.getArticleBatchList().stream())
+            .collect(groupingBy(ArticleBatch::getArticleId, summingInt(ArticleBatch::getQuantity)))
+            .entrySet().stream()
+            .map(articleQuantity -> new ArticleBatch(articleQuantity.getKey(), articleQuantity.getValue()))
+            .collect(toList());
+    }
+
+    /**
+     * Throws an {@link ArithmeticException} before any article changes if restocking would overflow the
+     * stock of one of them, counting every supply of an article listed more than once.
+     */
+    private void checkRestockedQuantities(List<ArticleSupply> articleSupplies) {
+        Map<Integer, Integer> restockedQuantities = new HashMap<>();
+        articleSupplies.forEach(articleSupply -> restockedQuantities.merge(articleSupply.getArticle().getId(), articleSupply.getQuantity(),
+            Math::addExact));
+        restockedQuantities.forEach((articleId, quantity) -> Optional.ofNullable(instance.get(articleId))
+            .ifPresent(currentArticleSupply -> Math.addExact(currentArticleSupply.getQuantity(), quantity)));
+    }
+
+    private ArticleSupply getRestockedArticleSupply(ArticleSupply articleSupply) {
+        ArticleSupply currentArticleSupply = instance.get(articleSupply.getArticle().getId());
+        return currentArticleSupply == null ?
+            articleSupply :
+            new ArticleSupply(articleSupply.getArticle(), currentArticleSupply.getQuantity() + articleSupply.getQuantity());
+    }
+
     private ArticleSupply getUpdatedArticleSupply(ArticleBatch articleBatch) {
 
         ArticleSupply currentArticleSupply = instance.get(articleBatch.getArticleId());
@@ -38,10 +345,42 @@ public class Inventory implements InventoryRepository {
 
     }
 
+    private void beforeChange() {
+        listeners.forEach(InventoryListener::beforeChange);
+    }
+
+    private void afterChange() {
+        listeners.forEach(InventoryListener::afterChange);
+    }
+
+    private void put(ArticleSupply articleSupply) {
+        ArticleSupply currentArticleSupply = instance.get(articleSupply.getArticle().getId());
+        ArticleSupply versionedArticleSupply = new ArticleSupply(articleSupply.getArticle(), articleSupply.getQuantity(),
+            currentArticleSupply == null ? 1 : currentArticleSupply.getVersion() + 1);
+        instance.put(articleSupply.getArticle().getId(), versionedArticleSupply);
+        listeners.forEach(listener -> listener.articleSupplyChanged(versionedArticleSupply));
+    }
+
     public Optional<ArticleSupply> findArticleSupplyById(int articleId) {
         return Optional.ofNullable(instance.get(articleId));
     }
 
+    public int[] findArticleIdsNotInInventory(int[] articleIds) {
+        return Arrays.stream(articleIds)
+            .filter(articleId -> !instance.containsKey(articleId))
+            .toArray();
+    }
+
+    public void forEachArticleSupply(Consumer<ArticleSupply> action) {
+        instance.values().forEach(action);
+    }
 
+    public List<String> getLocations() {
+        return List.of();
+    }
+
+    public Optional<ArticleSupply> findArticleSupplyById(String location, int articleId) {
+        return Optional.empty();
+    }
 
 }
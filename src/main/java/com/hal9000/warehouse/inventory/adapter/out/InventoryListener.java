@@ -0,0 +1,24 @@
+package com.hal9000.warehouse.inventory.adapter.out;
+
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+
+public interface InventoryListener {
+
+    /**
+     * Called before every change, without any article locked. Throwing rejects the change.
+     */
+    default void beforeChange() {
+    }
+
+    /**
+     * Called after every change, once its articles are unlocked and before it is acknowledged.
+     */
+    default void afterChange() {
+    }
+
+    /**
+     * Called with the new supply of an article while the article is still locked, so calls for the same
+     * article arrive in the order the changes were applied.
+     */
+    void articleSupplyChanged(ArticleSupply articleSupply);
+}
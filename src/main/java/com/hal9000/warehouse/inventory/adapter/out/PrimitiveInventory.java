@@ -0,0 +1,364 @@
+package com.hal9000.warehouse.inventory.adapter.out;
+
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.StockChangeListener;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inventory backed by an open-addressing int to int table. Quantities live in an atomic long array, packed
+ * with the version of the article in the high half so one CAS checks and bumps both, and takes are CAS
+ * decrements rolled back on the first article without enough stock or with another version, so selling
+ * allocates nothing. A rollback gives the quantity back without a new version, as the take never happened.
+ * Returning articles is a CAS per article as well, so the write lock is only taken to add articles, rename
+ * them, set or restock their stock, keeping the table from being resized under a sale and a set from landing
+ * between a take and its rollback. A restock checks under the write lock that no stock overflows before it
+ * changes any, which no concurrent return or rollback could invalidate. Stock change listeners are told of a change
+ * before its lock is released, so a set, holding the write lock, is never told out of order with the takes,
+ * restocks and returns of its articles.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.store", havingValue = "primitive")
+public class PrimitiveInventory implements InventoryRepository {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NOT_FOUND = -1;
+    private static final long ANY_VERSION = -1;
+    private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+
+    private static final class Table {
+        final int[] articleIds;
+        final String[] articleNames;
+        final boolean[] used;
+        final AtomicLongArray stocks;
+        final int mask;
+        int size;
+
+        Table(int capacity) {
+            articleIds = new int[capacity];
+            articleNames = new String[capacity];
+            used = new boolean[capacity];
+            stocks = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+        }
+
+        int slotOf(int articleId) {
+            int slot = hash(articleId) & mask;
+            while (used[slot]) {
+                if (articleIds[slot] == articleId) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return NOT_FOUND;
+        }
+
+        void put(int articleId, String articleName, int quantity, int version) {
+            int slot = hash(articleId) & mask;
+            while (used[slot] && articleIds[slot] != articleId) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                used[slot] = true;
+                articleIds[slot] = articleId;
+                size++;
+            }
+            articleNames[slot] = articleName;
+            stocks.set(slot, stock(version, quantity));
+        }
+
+        private static int hash(int articleId) {
+            int hash = articleId * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CopyOnWriteArrayList<StockChangeListener> stockChangeListeners = new CopyOnWriteArrayList<>();
+    private Table table = new Table(INITIAL_CAPACITY);
+
+    public void addToInventory(AddInventoryIn addInventoryIn) {
+        List<ArticleSupply> articleSupplies = addInventoryIn.getArticleSupplies();
+        lock.writeLock().lock();
+        try {
+            if (addInventoryIn.isIncrement()) {
+                checkRestockedQuantities(articleSupplies);
+            }
+            for (ArticleSupply articleSupply : articleSupplies) {
+                if ((table.size + 1) * 2 > table.articleIds.length) {
+                    resize();
+                }
+                int slot = table.slotOf(articleSupply.getArticle().getId());
+                if (slot == NOT_FOUND) {
+                    table.put(articleSupply.getArticle().getId(), articleSupply.getArticle().getName(), articleSupply.getQuantity(), 1);
+                } else {
+                    table.articleNames[slot] = articleSupply.getArticle().getName();
+                    restock(slot, articleSupply.getQuantity(), addInventoryIn.isIncrement());
+                }
+            }
+            stockChangeListeners.forEach(stockChangeListener -> {
+                if (addInventoryIn.isIncrement()) {
+                    stockChangeListener.articlesRestocked(articleSupplies);
+                } else {
+                    stockChangeListener.articlesAdded(articleSupplies);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean takeFromInventory(TakeFromInventoryIn takeFromInventoryIn) {
+        lock.readLock().lock();
+        try {
+            boolean taken = take(takeFromInventoryIn.getArticleBatchList());
+            if (taken) {
+                stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesTaken(takeFromInventoryIn.getArticleBatchList()));
+            }
+            return taken;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public TakeFromInventoryOut takeFromLocation(TakeFromInventoryIn takeFromInventoryIn) {
+        return new TakeFromInventoryOut(takeFromInventory(takeFromInventoryIn), null);
+    }
+
+    public boolean takeFromInventory(SellPlan sellPlan, int productQuantity) {
+        int[] articleIds = sellPlan.getArticleIds();
+        int[] unitQuantities = sellPlan.getUnitQuantities();
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < articleIds.length; i++) {
+                if (tryDecrement(table.slotOf(articleIds[i]), unitQuantities[i] * productQuantity, ANY_VERSION) != TakeOutcome.TAKEN) {
+                    for (int j = 0; j < i; j++) {
+                        giveBack(table.slotOf(articleIds[j]), unitQuantities[j] * productQuantity);
+                    }
+                    return false;
+                }
+            }
+            stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesTaken(sellPlan, productQuantity));
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Boolean> takeFromInventory(TakeFromInventoryBatchIn takeFromInventoryBatchIn) {
+        List<TakeFromInventoryIn> takeFromInventoryInList = takeFromInventoryBatchIn.getTakeFromInventoryInList();
+        Boolean[] taken = new Boolean[takeFromInventoryInList.size()];
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < taken.length; i++) {
+                taken[i] = take(takeFromInventoryInList.get(i).getArticleBatchList());
+                if (!taken[i] && takeFromInventoryBatchIn.isAllOrNothing()) {
+                    for (int j = 0; j < i; j++) {
+                        List<ArticleBatch> articleBatchList = takeFromInventoryInList.get(j).getArticleBatchList();
+                        rollBack(articleBatchList, articleBatchList.size());
+                    }
+                    Arrays.fill(taken, false);
+                    break;
+                }
+            }
+            for (int i = 0; i < taken.length; i++) {
+                if (taken[i]) {
+                    List<ArticleBatch> articleBatchList = takeFromInventoryInList.get(i).getArticleBatchList();
+                    stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesTaken(articleBatchList));
+                }
+            }
+            return Arrays.asList(taken);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void returnToInventory(TakeFromInventoryIn takeFromInventoryIn) {
+        List<ArticleBatch> articleBatchList = takeFromInventoryIn.getArticleBatchList();
+        lock.readLock().lock();
+        try {
+            for (ArticleBatch articleBatch : articleBatchList) {
+                restock(table.slotOf(articleBatch.getArticleId()), articleBatch.getQuantity(), true);
+            }
+            stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesReturned(articleBatchList));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public TakeOutcome takeFromInventory(ConditionalTakeIn conditionalTakeIn) {
+        List<ArticleBatch> articleBatchList = conditionalTakeIn.getArticleBatchList();
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < articleBatchList.size(); i++) {
+                ArticleBatch articleBatch = articleBatchList.get(i);
+                Long expectedVersion = conditionalTakeIn.getExpectedVersions().get(articleBatch.getArticleId());
+                TakeOutcome outcome = tryDecrement(table.slotOf(articleBatch.getArticleId()), articleBatch.getQuantity(),
+                    expectedVersion == null ? ANY_VERSION : expectedVersion);
+                if (outcome != TakeOutcome.TAKEN) {
+                    rollBack(articleBatchList, i);
+                    return outcome;
+                }
+            }
+            stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesTaken(articleBatchList));
+            return TakeOutcome.TAKEN;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean take(List<ArticleBatch> articleBatchList) {
+        for (int i = 0; i < articleBatchList.size(); i++) {
+            ArticleBatch articleBatch = articleBatchList.get(i);
+            if (tryDecrement(table.slotOf(articleBatch.getArticleId()), articleBatch.getQuantity(), ANY_VERSION) != TakeOutcome.TAKEN) {
+                rollBack(articleBatchList, i);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Optional<ArticleSupply> findArticleSupplyById(int articleId) {
+        lock.readLock().lock();
+        try {
+            int slot = table.slotOf(articleId);
+            return slot == NOT_FOUND ?
+                Optional.empty() :
+                Optional.of(articleSupply(articleId, table.articleNames[slot], table.stocks.get(slot)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] findArticleIdsNotInInventory(int[] articleIds) {
+        int[] missingArticleIds = new int[articleIds.length];
+        int missing = 0;
+        lock.readLock().lock();
+        try {
+            for (int articleId : articleIds) {
+                if (table.slotOf(articleId) == NOT_FOUND) {
+                    missingArticleIds[missing++] = articleId;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Arrays.copyOf(missingArticleIds, missing);
+    }
+
+    public void forEachArticleSupply(Consumer<ArticleSupply> action) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < table.articleIds.length; slot++) {
+                if (table.used[slot]) {
+                    action.accept(articleSupply(table.articleIds[slot], table.articleNames[slot], table.stocks.get(slot)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getLocations() {
+        return List.of();
+    }
+
+    public Optional<ArticleSupply> findArticleSupplyById(String location, int articleId) {
+        return Optional.empty();
+    }
+
+    public void addStockChangeListener(StockChangeListener stockChangeListener) {
+        stockChangeListeners.addIfAbsent(stockChangeListener);
+    }
+
+    private TakeOutcome tryDecrement(int slot, int quantity, long expectedVersion) {
+        if (slot == NOT_FOUND) {
+            return TakeOutcome.NOT_ENOUGH_SUPPLIES;
+        }
+        AtomicLongArray stocks = table.stocks;
+        while (true) {
+            long currentStock = stocks.get(slot);
+            if (expectedVersion != ANY_VERSION && (versionOf(currentStock) & UNSIGNED_INT_MASK) != expectedVersion) {
+                return TakeOutcome.VERSION_CONFLICT;
+            }
+            if (quantityOf(currentStock) < quantity) {
+                return TakeOutcome.NOT_ENOUGH_SUPPLIES;
+            }
+            if (stocks.compareAndSet(slot, currentStock, stock(versionOf(currentStock) + 1, quantityOf(currentStock) - quantity))) {
+                return TakeOutcome.TAKEN;
+            }
+        }
+    }
+
+    /**
+     * Throws an {@link ArithmeticException} before any article changes if restocking would overflow the
+     * stock of one of them, counting every supply of an article listed more than once.
+     */
+    private void checkRestockedQuantities(List<ArticleSupply> articleSupplies) {
+        Map<Integer, Integer> restockedQuantities = new HashMap<>();
+        articleSupplies.forEach(articleSupply -> restockedQuantities.merge(articleSupply.getArticle().getId(), articleSupply.getQuantity(),
+            Math::addExact));
+        restockedQuantities.forEach((articleId, quantity) -> {
+            int slot = table.slotOf(articleId);
+            if (slot != NOT_FOUND) {
+                Math.addExact(quantityOf(table.stocks.get(slot)), quantity);
+            }
+        });
+    }
+
+    private void restock(int slot, int quantity, boolean increment) {
+        table.stocks.getAndUpdate(slot, stock -> stock(versionOf(stock) + 1, increment ? quantityOf(stock) + quantity : quantity));
+    }
+
+    private void rollBack(List<ArticleBatch> articleBatchList, int takenBatches) {
+        for (int i = 0; i < takenBatches; i++) {
+            ArticleBatch articleBatch = articleBatchList.get(i);
+            giveBack(table.slotOf(articleBatch.getArticleId()), articleBatch.getQuantity());
+        }
+    }
+
+    private void giveBack(int slot, int quantity) {
+        table.stocks.getAndUpdate(slot, stock -> stock(versionOf(stock), quantityOf(stock) + quantity));
+    }
+
+    private static ArticleSupply articleSupply(int articleId, String articleName, long stock) {
+        return new ArticleSupply(new Article(articleId, articleName), quantityOf(stock), versionOf(stock) & UNSIGNED_INT_MASK);
+    }
+
+    private static long stock(int version, int quantity) {
+        return ((long) version << 32) | (quantity & UNSIGNED_INT_MASK);
+    }
+
+    private static int versionOf(long stock) {
+        return (int) (stock >>> 32);
+    }
+
+    private static int quantityOf(long stock) {
+        return (int) stock;
+    }
+
+    private void resize() {
+        Table oldTable = table;
+        Table newTable = new Table(oldTable.articleIds.length * 2);
+        for (int slot = 0; slot < oldTable.articleIds.length; slot++) {
+            if (oldTable.used[slot]) {
+                newTable.put(oldTable.articleIds[slot], oldTable.articleNames[slot],
+                    quantityOf(oldTable.stocks.get(slot)), versionOf(oldTable.stocks.get(slot)));
+            }
+        }
+        table = newTable;
+    }
+}
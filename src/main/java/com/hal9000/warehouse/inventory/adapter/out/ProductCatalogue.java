@@ -1,30 +1,186 @@
 package com.hal9000.warehouse.inventory.adapter.out;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
 import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
 import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import org.springframework.stereotype.Component;
 
+/**
+ * Keeps, next to every product, its bill of materials flattened to article requirements and compiled
+ * into a sell plan. They are recomputed for the updated products and every product containing them when
+ * the catalogue changes, so lookups never walk the sub-assemblies. Products whose sub-assemblies are not
+ * all in the catalogue yet, as while loading a snapshot, have no requirements until the missing ones
+ * arrive. Requirements are flattened before anything changes, so an update whose requirements overflow
+ * leaves the catalogue as it was.
+ */
 @Component
 public class ProductCatalogue implements ProductCatalogueRepository {
 
     private final Map<String, Product> instance = new ConcurrentHashMap<>();
+    private final Map<String, SellPlan> sellPlans = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<String>> productNamesByArticleId = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> productNamesBySubAssembly = new ConcurrentHashMap<>();
+    private final List<ProductCatalogueListener> listeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    public void addListener(ProductCatalogueListener listener) {
+        listeners.add(listener);
+    }
+
+    public void addToCatalogue(ProductCatalogueIn productCatalogueIn, Runnable check) {
+        listeners.forEach(ProductCatalogueListener::beforeChange);
+        updateLock.lock();
+        try {
+            check.run();
+            Map<String, Product> addedProducts = new HashMap<>();
+            productCatalogueIn.getProductList().forEach(product -> addedProducts.put(product.getName(), product));
+            Set<String> changedProductNames = new LinkedHashSet<>(addedProducts.keySet());
+            addedProducts.keySet().forEach(productName -> changedProductNames.addAll(findAncestorNames(productName)));
+
+            Map<String, List<Product.Component>> flattenedRequirements = new HashMap<>();
+            changedProductNames.forEach(productName ->
+                flatten(productName, addedProducts, changedProductNames, flattenedRequirements, new HashSet<>()));
+
+            productCatalogueIn.getProductList().forEach(product -> {
+                Product previousProduct = instance.put(product.getName(), product);
+                if (previousProduct != null) {
+                    previousProduct.getSubAssemblies().forEach(subAssembly -> productNamesBySubAssembly
+                        .getOrDefault(subAssembly.getProductName(), emptySet())
+                        .remove(product.getName()));
+                }
+                product.getSubAssemblies().forEach(subAssembly -> productNamesBySubAssembly
+                    .computeIfAbsent(subAssembly.getProductName(), productName -> ConcurrentHashMap.newKeySet())
+                    .add(product.getName()));
+            });
+            flattenedRequirements.forEach(this::putArticleRequirements);
+
+            productCatalogueIn.getProductList()
+                .forEach(product -> listeners.forEach(listener -> listener.productChanged(product)));
+        } finally {
+            updateLock.unlock();
+        }
+        listeners.forEach(ProductCatalogueListener::afterChange);
+    }
+
+    private List<Product.Component> flatten(String productName, Map<String, Product> addedProducts, Set<String> changedProductNames,
+                                            Map<String, List<Product.Component>> flattenedRequirements, Set<String> visiting) {
+        if (!changedProductNames.contains(productName)) {
+            SellPlan sellPlan = sellPlans.get(productName);
+            return sellPlan == null ? null : sellPlan.getArticleRequirements();
+        }
+        if (flattenedRequirements.containsKey(productName)) {
+            return flattenedRequirements.get(productName);
+        }
+        Product product = addedProducts.containsKey(productName) ? addedProducts.get(productName) : instance.get(productName);
+        if (product == null || !visiting.add(productName)) {
+            return null;
+        }
 
-    public void addToCatalogue(ProductCatalogueIn productCatalogueIn) {
-        productCatalogueIn.getProductList()
-            .forEach(product -> instance.put(product.getName(), product));
+        Map<Integer, Integer> articleQuantities = new TreeMap<>();
+        product.getComponents().forEach(component ->
+            articleQuantities.merge(component.getArticleId(), component.getQuantity(), Math::addExact));
+        boolean resolved = true;
+        for (Product.SubAssembly subAssembly : product.getSubAssemblies()) {
+            List<Product.Component> subAssemblyRequirements =
+                flatten(subAssembly.getProductName(), addedProducts, changedProductNames, flattenedRequirements, visiting);
+            if (subAssemblyRequirements == null) {
+                resolved = false;
+                break;
+            }
+            subAssemblyRequirements.forEach(component -> articleQuantities.merge(component.getArticleId(),
+                Math.multiplyExact(component.getQuantity(), subAssembly.getQuantity()), Math::addExact));
+        }
+        visiting.remove(productName);
+
+        List<Product.Component> requirements = resolved ?
+            articleQuantities.entrySet().stream()
+                .map(articleQuantity -> new Product.Component(articleQuantity.getKey(), articleQuantity.getValue()))
+                .collect(toUnmodifiableList()) :
+            null;
+        flattenedRequirements.put(productName, requirements);
+        return requirements;
+    }
 
+    private void putArticleRequirements(String productName, List<Product.Component> requirements) {
+        SellPlan previousSellPlan = requirements == null ?
+            sellPlans.remove(productName) :
+            sellPlans.put(productName, new SellPlan(requirements));
+        Optional.ofNullable(previousSellPlan).map(SellPlan::getArticleRequirements).orElse(emptyList()).forEach(component -> productNamesByArticleId
+            .getOrDefault(component.getArticleId(), emptySet())
+            .remove(productName));
+        Optional.ofNullable(requirements).orElse(emptyList()).forEach(component -> productNamesByArticleId
+            .computeIfAbsent(component.getArticleId(), articleId -> ConcurrentHashMap.newKeySet())
+            .add(productName));
+    }
+
+    private Set<String> findAncestorNames(String productName) {
+        Set<String> ancestorNames = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(productName));
+        while (!pending.isEmpty()) {
+            productNamesBySubAssembly.getOrDefault(pending.poll(), emptySet()).stream()
+                .filter(ancestorNames::add)
+                .forEach(pending::add);
+        }
+        return ancestorNames;
     }
 
     public Optional<Product> findProductByName(String productName) {
         return Optional.ofNullable(instance.get(productName));
     }
 
+    public Optional<List<Product.Component>> findArticleRequirements(String productName) {
+        return Optional.ofNullable(sellPlans.get(productName)).map(SellPlan::getArticleRequirements);
+    }
+
+    public Optional<SellPlan> findSellPlan(String productName) {
+        return Optional.ofNullable(sellPlans.get(productName));
+    }
+
     public Set<Product> findAllProducts() {
         return new HashSet<>(instance.values());
     }
+
+    public void forEachProduct(Consumer<Product> action) {
+        instance.values().forEach(action);
+    }
+
+    public Spliterator<String> productNameSpliterator() {
+        return instance.keySet().spliterator();
+    }
+
+    public Set<Product> findProductsByArticleId(int articleId) {
+        return findProductsByName(productNamesByArticleId.getOrDefault(articleId, emptySet()));
+    }
+
+    public Set<Product> findProductsBySubAssembly(String productName) {
+        return findProductsByName(findAncestorNames(productName));
+    }
+
+    private Set<Product> findProductsByName(Set<String> productNames) {
+        return productNames.stream()
+            .map(instance::get)
+            .filter(Objects::nonNull)
+            .collect(toSet());
+    }
 }
@@ -0,0 +1,20 @@
+package com.hal9000.warehouse.inventory.adapter.out;
+
+import com.hal9000.warehouse.inventory.domain.Product;
+
+public interface ProductCatalogueListener {
+
+    /**
+     * Called before every catalogue update, without the catalogue locked. Throwing rejects the update.
+     */
+    default void beforeChange() {
+    }
+
+    /**
+     * Called after every catalogue update, once the catalogue is unlocked and before it is acknowledged.
+     */
+    default void afterChange() {
+    }
+
+    void productChanged(Product product);
+}
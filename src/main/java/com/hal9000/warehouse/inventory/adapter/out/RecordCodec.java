@@ -0,0 +1,100 @@
+package com.hal9000.warehouse.inventory.adapter.out;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of article supplies and products shared by the journal and the binary snapshots. A
+ * record holds fixed width big endian ints and length prefixed UTF-8 names and is read straight from a
+ * byte buffer, so a memory mapped file is decoded without going through a stream. Truncated input makes
+ * the read methods throw {@link java.nio.BufferUnderflowException}.
+ */
+public final class RecordCodec {
+
+    public static final byte ARTICLE_SUPPLY = 1;
+    public static final byte PRODUCT = 2;
+    public static final byte ASSEMBLY = 3;
+
+    private static final int NO_NAME = -1;
+
+    private RecordCodec() {
+    }
+
+    public static void writeArticleSupply(DataOutput output, ArticleSupply articleSupply) throws IOException {
+        output.writeInt(articleSupply.getArticle().getId());
+        writeName(output, articleSupply.getArticle().getName());
+        output.writeInt(articleSupply.getQuantity());
+    }
+
+    public static ArticleSupply readArticleSupply(ByteBuffer input) {
+        int articleId = input.getInt();
+        String name = readName(input);
+        return new ArticleSupply(new Article(articleId, name), input.getInt());
+    }
+
+    public static byte productRecordType(Product product) {
+        return product.getSubAssemblies().isEmpty() ? PRODUCT : ASSEMBLY;
+    }
+
+    public static void writeProduct(DataOutput output, Product product) throws IOException {
+        writeName(output, product.getName());
+        output.writeInt(product.getComponents().size());
+        for (Product.Component component : product.getComponents()) {
+            output.writeInt(component.getArticleId());
+            output.writeInt(component.getQuantity());
+        }
+        if (productRecordType(product) == ASSEMBLY) {
+            output.writeInt(product.getSubAssemblies().size());
+            for (Product.SubAssembly subAssembly : product.getSubAssemblies()) {
+                writeName(output, subAssembly.getProductName());
+                output.writeInt(subAssembly.getQuantity());
+            }
+        }
+    }
+
+    public static Product readProduct(ByteBuffer input, byte recordType) {
+        String name = readName(input);
+        int componentCount = input.getInt();
+        List<Product.Component> components = new ArrayList<>(componentCount);
+        for (int i = 0; i < componentCount; i++) {
+            components.add(new Product.Component(input.getInt(), input.getInt()));
+        }
+        if (recordType != ASSEMBLY) {
+            return new Product(name, components);
+        }
+        int subAssemblyCount = input.getInt();
+        List<Product.SubAssembly> subAssemblies = new ArrayList<>(subAssemblyCount);
+        for (int i = 0; i < subAssemblyCount; i++) {
+            subAssemblies.add(new Product.SubAssembly(readName(input), input.getInt()));
+        }
+        return new Product(name, components, subAssemblies);
+    }
+
+    public static void writeName(DataOutput output, String name) throws IOException {
+        if (name == null) {
+            output.writeInt(NO_NAME);
+            return;
+        }
+        byte[] bytes = name.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    public static String readName(ByteBuffer input) {
+        int length = input.getInt();
+        if (length == NO_NAME) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,34 @@
+package com.hal9000.warehouse.inventory.adapter.out.audit;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@ConstructorBinding
+@ConfigurationProperties("inventory.audit")
+public class AuditProperties {
+
+    private final Path file;
+    private final int capacity;
+    private final Duration flushInterval;
+    private final DataSize maxFileSize;
+    private final int maxFiles;
+
+    public AuditProperties(@DefaultValue("audit/inventory-audit.log") String file,
+                           @DefaultValue("65536") int capacity,
+                           @DefaultValue("200ms") Duration flushInterval,
+                           @DefaultValue("10MB") DataSize maxFileSize,
+                           @DefaultValue("5") int maxFiles) {
+        this.file = Paths.get(file);
+        this.capacity = capacity;
+        this.flushInterval = flushInterval;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+    }
+}
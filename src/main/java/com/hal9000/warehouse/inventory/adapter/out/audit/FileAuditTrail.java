@@ -0,0 +1,226 @@
+package com.hal9000.warehouse.inventory.adapter.out.audit;
+
+import static com.hal9000.warehouse.inventory.adapter.JsonStrings.appendEscaped;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.hal9000.warehouse.inventory.port.out.AuditTrail;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Audit trail written as JSON lines to a file rolled by size. Recording claims the next sequence with a
+ * CAS and fills the preallocated entry of its slot, so request threads neither allocate, format nor wait;
+ * when the writer is a whole ring behind, the entry is counted as dropped instead. A writer thread drains
+ * the published entries every flush interval, formats them and writes each batch with a single write.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.audit.enabled", havingValue = "true")
+@EnableConfigurationProperties(AuditProperties.class)
+public class FileAuditTrail implements AuditTrail {
+
+    private static final int DRAIN_BATCH = 4096;
+
+    private enum EntryType {
+        PRODUCT_SOLD, ARTICLES_ADDED, CATALOGUE_UPDATED
+    }
+
+    private static final class Entry {
+        volatile long sequence = -1;
+        EntryType type;
+        long timestamp;
+        String productName;
+        long count;
+        long units;
+    }
+
+    private final AuditProperties auditProperties;
+    private final Entry[] entries;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLong drainedSequence = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final StringBuilder batch = new StringBuilder();
+    private FileChannel channel;
+    private long fileSize;
+    private ScheduledExecutorService writer;
+
+    public FileAuditTrail(AuditProperties auditProperties) {
+        if (Integer.bitCount(auditProperties.getCapacity()) != 1) {
+            throw new IllegalArgumentException("Audit capacity must be a power of two");
+        }
+        this.auditProperties = auditProperties;
+        this.entries = new Entry[auditProperties.getCapacity()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry();
+        }
+        this.mask = entries.length - 1;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path directory = auditProperties.getFile().toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        openFile();
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-audit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = auditProperties.getFlushInterval().toMillis();
+        writer.scheduleWithFixedDelay(this::drain, interval, interval, MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(10, SECONDS);
+        drain();
+        channel.close();
+    }
+
+    public void productSold(String productName, int quantity) {
+        record(EntryType.PRODUCT_SOLD, productName, quantity, 0);
+    }
+
+    public void articlesAdded(int articleCount, long units) {
+        record(EntryType.ARTICLES_ADDED, null, articleCount, units);
+    }
+
+    public void catalogueUpdated(int productCount) {
+        record(EntryType.CATALOGUE_UPDATED, null, productCount, 0);
+    }
+
+    synchronized void drain() {
+        try {
+            boolean drained;
+            do {
+                drained = drainBatch();
+            } while (!drained);
+        } catch (IOException exception) {
+            log.error("Could not write the audit trail to {}", auditProperties.getFile(), exception);
+        }
+    }
+
+    private void record(EntryType type, String productName, long count, long units) {
+        long sequence;
+        do {
+            sequence = nextSequence.get();
+            if (sequence - drainedSequence.get() >= entries.length) {
+                dropped.increment();
+                return;
+            }
+        } while (!nextSequence.compareAndSet(sequence, sequence + 1));
+
+        Entry entry = entries[(int) (sequence & mask)];
+        entry.type = type;
+        entry.timestamp = System.currentTimeMillis();
+        entry.productName = productName;
+        entry.count = count;
+        entry.units = units;
+        entry.sequence = sequence;
+    }
+
+    private boolean drainBatch() throws IOException {
+        batch.setLength(0);
+        long sequence = drainedSequence.get();
+        for (int drained = 0; drained < DRAIN_BATCH; drained++) {
+            Entry entry = entries[(int) (sequence & mask)];
+            if (entry.sequence != sequence) {
+                break;
+            }
+            append(entry);
+            entry.productName = null;
+            drainedSequence.set(++sequence);
+        }
+        long droppedEntries = dropped.sumThenReset();
+        if (droppedEntries > 0) {
+            startLine(System.currentTimeMillis(), "ENTRIES_DROPPED").append(",\"entries\":").append(droppedEntries).append("}\n");
+        }
+        if (batch.length() > 0) {
+            write(batch.toString().getBytes(UTF_8));
+        }
+        return entries[(int) (sequence & mask)].sequence != sequence;
+    }
+
+    private void append(Entry entry) {
+        startLine(entry.timestamp, entry.type.toString());
+        switch (entry.type) {
+            case PRODUCT_SOLD:
+                batch.append(",\"product\":\"");
+                appendEscaped(batch, entry.productName);
+                batch.append("\",\"quantity\":").append(entry.count);
+                break;
+            case ARTICLES_ADDED:
+                batch.append(",\"articles\":").append(entry.count).append(",\"units\":").append(entry.units);
+                break;
+            case CATALOGUE_UPDATED:
+                batch.append(",\"products\":").append(entry.count);
+                break;
+        }
+        batch.append("}\n");
+    }
+
+    private StringBuilder startLine(long timestamp, String type) {
+        return batch.append("{\"time\":\"").append(Instant.ofEpochMilli(timestamp)).append("\",\"type\":\"").append(type).append('"');
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (fileSize > 0 && fileSize + bytes.length > auditProperties.getMaxFileSize().toBytes()) {
+            roll();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        fileSize += bytes.length;
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        Path file = auditProperties.getFile();
+        for (int index = auditProperties.getMaxFiles() - 1; index >= 1; index--) {
+            Path rolled = rolledFile(index);
+            if (Files.exists(rolled)) {
+                Files.move(rolled, rolledFile(index + 1), REPLACE_EXISTING);
+            }
+        }
+        if (auditProperties.getMaxFiles() > 0) {
+            Files.move(file, rolledFile(1), REPLACE_EXISTING);
+        } else {
+            Files.delete(file);
+        }
+        openFile();
+    }
+
+    private Path rolledFile(int index) {
+        Path file = auditProperties.getFile();
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void openFile() throws IOException {
+        channel = FileChannel.open(auditProperties.getFile(), CREATE, WRITE, APPEND);
+        fileSize = channel.size();
+    }
+}
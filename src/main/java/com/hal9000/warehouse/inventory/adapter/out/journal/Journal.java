@@ -0,0 +1,579 @@
+package com.hal9000.warehouse.inventory.adapter.out.journal;
+
+import static com.hal9000.warehouse.inventory.adapter.out.RecordCodec.ARTICLE_SUPPLY;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+
+import com.hal9000.warehouse.inventory.adapter.out.Inventory;
+import com.hal9000.warehouse.inventory.adapter.out.InventoryListener;
+import com.hal9000.warehouse.inventory.adapter.out.ProductCatalogue;
+import com.hal9000.warehouse.inventory.adapter.out.ProductCatalogueListener;
+import com.hal9000.warehouse.inventory.adapter.out.RecordCodec;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.port.out.HoldJournal;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository.ProductCatalogueIn;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-ahead log of every article supply and product change. Records are appended to an in-memory
+ * buffer and written and fsynced by a background thread every sync interval, and a change is only
+ * acknowledged once the group fsync holding its records completed. Each record holds the state after
+ * the change, which makes replay idempotent: a snapshot can be written while sales go on and recovery
+ * replays every record newer than the snapshot sequence. The journal stops at its first I/O error: the
+ * records not written yet are kept, the changes waiting for them fail and every further change is
+ * rejected. Only the map store ({@code inventory.store=map}) can be journaled. The journal also records
+ * the holds of the reservations: the articles of the holds still open on recovery are returned to the
+ * inventory and a snapshot is written right away, so a crash before it returns them again from the same
+ * records rather than twice.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.journal.enabled", havingValue = "true")
+@EnableConfigurationProperties(JournalProperties.class)
+public class Journal implements InventoryListener, ProductCatalogueListener, HoldJournal {
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int SNAPSHOT_MAGIC = 0x494e5653;
+    private static final byte END_OF_SNAPSHOT = 0;
+    private static final byte HOLD = 4;
+    private static final byte HOLD_ENDED = 5;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int RECOVERY_CHUNK_SIZE = 10_000;
+
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        byte[] bytes() {
+            return buf;
+        }
+    }
+
+    private final Inventory inventory;
+    private final ProductCatalogue productCatalogue;
+    private final JournalProperties journalProperties;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock channelLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private final ThreadLocal<long[]> appendedSequence = ThreadLocal.withInitial(() -> new long[1]);
+    private final RecordBuffer recordBuffer = new RecordBuffer();
+    private final DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+    private final CRC32 crc = new CRC32();
+    private final Map<String, List<ArticleBatch>> openHolds = new LinkedHashMap<>();
+
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer writing = ByteBuffer.allocate(BUFFER_SIZE);
+    private FileChannel segment;
+    private long lastSequence;
+    private long snapshotSequence;
+    private volatile long syncedSequence;
+    private volatile IOException failure;
+    private ScheduledExecutorService scheduler;
+
+    public Journal(InventoryRepository inventoryRepository, ProductCatalogueRepository productCatalogueRepository,
+                   JournalProperties journalProperties) {
+        if (!(inventoryRepository instanceof Inventory) || !(productCatalogueRepository instanceof ProductCatalogue)) {
+            throw new IllegalStateException(String.format("inventory.journal.enabled requires inventory.store=map, but the store is %s",
+                inventoryRepository.getClass().getSimpleName()));
+        }
+        this.inventory = (Inventory) inventoryRepository;
+        this.productCatalogue = (ProductCatalogue) productCatalogueRepository;
+        this.journalProperties = journalProperties;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(journalProperties.getDirectory());
+        recover();
+        syncedSequence = lastSequence;
+        segment = openSegment(lastSequence + 1);
+
+        inventory.addListener(this);
+        productCatalogue.addListener(this);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sync,
+            journalProperties.getSyncInterval().toMillis(), journalProperties.getSyncInterval().toMillis(), MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::snapshot,
+            journalProperties.getSnapshotInterval().toMillis(), journalProperties.getSnapshotInterval().toMillis(), MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, SECONDS);
+        sync();
+        segment.close();
+    }
+
+    public void beforeChange() {
+        IOException failure = this.failure;
+        if (failure != null) {
+            throw new UncheckedIOException("The journal failed, no change is accepted anymore", failure);
+        }
+    }
+
+    /**
+     * Waits until the records appended by this thread are fsynced. A change completing after a failure
+     * fails too, as its records may have been dropped.
+     */
+    public void afterChange() {
+        beforeChange();
+        long sequence = appendedSequence.get()[0];
+        if (sequence <= syncedSequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            while (syncedSequence < sequence) {
+                beforeChange();
+                synced.await();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal to be synced", exception);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public void articleSupplyChanged(ArticleSupply articleSupply) {
+        appendLock.lock();
+        try {
+            startRecord(ARTICLE_SUPPLY);
+            RecordCodec.writeArticleSupply(recordOutput, articleSupply);
+            finishRecord();
+        } catch (IOException exception) {
+            failed(exception);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void productChanged(Product product) {
+        appendLock.lock();
+        try {
+            startRecord(RecordCodec.productRecordType(product));
+            RecordCodec.writeProduct(recordOutput, product);
+            finishRecord();
+        } catch (IOException exception) {
+            failed(exception);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void holdTaken(String reservationId, List<ArticleBatch> articleBatchList) {
+        beforeChange();
+        appendLock.lock();
+        try {
+            startRecord(HOLD);
+            writeHold(recordOutput, reservationId, articleBatchList);
+            finishRecord();
+            openHolds.put(reservationId, articleBatchList);
+        } catch (IOException exception) {
+            failed(exception);
+        } finally {
+            appendLock.unlock();
+        }
+        afterChange();
+    }
+
+    public void holdEnded(String reservationId) {
+        beforeChange();
+        appendLock.lock();
+        try {
+            startRecord(HOLD_ENDED);
+            RecordCodec.writeName(recordOutput, reservationId);
+            finishRecord();
+            openHolds.remove(reservationId);
+        } catch (IOException exception) {
+            failed(exception);
+        } finally {
+            appendLock.unlock();
+        }
+        afterChange();
+    }
+
+    void sync() {
+        if (failure != null) {
+            return;
+        }
+        ByteBuffer buffer;
+        long sequence;
+        appendLock.lock();
+        try {
+            channelLock.lock();
+            buffer = pending;
+            pending = writing;
+            writing = buffer;
+            sequence = lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            write(buffer);
+            segment.force(false);
+            synced(sequence);
+        } catch (IOException exception) {
+            failed(exception);
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    void snapshot() {
+        if (failure != null) {
+            return;
+        }
+        try {
+            long sequence;
+            Map<String, List<ArticleBatch>> holds;
+            appendLock.lock();
+            try {
+                sequence = rollSegment();
+                holds = new LinkedHashMap<>(openHolds);
+            } finally {
+                appendLock.unlock();
+            }
+            if (sequence != snapshotSequence) {
+                replaceSnapshot(sequence, holds);
+            }
+        } catch (IOException | UncheckedIOException exception) {
+            log.error("Inventory snapshot could not be written", exception);
+        }
+    }
+
+    private void replaceSnapshot(long sequence, Map<String, List<ArticleBatch>> holds) throws IOException {
+        Path snapshotTempFile = journalProperties.getDirectory().resolve(SNAPSHOT_TEMP_FILE);
+        writeSnapshot(snapshotTempFile, sequence, holds);
+        Files.move(snapshotTempFile, journalProperties.getDirectory().resolve(SNAPSHOT_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+        for (Path segmentFile : findSegments()) {
+            if (firstSequenceOf(segmentFile) <= sequence) {
+                Files.delete(segmentFile);
+            }
+        }
+        snapshotSequence = sequence;
+        log.info("Inventory snapshot written up to journal sequence {}", sequence);
+    }
+
+    private void synced(long sequence) {
+        syncLock.lock();
+        try {
+            syncedSequence = sequence;
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void failed(IOException exception) {
+        syncLock.lock();
+        try {
+            if (failure == null) {
+                failure = exception;
+                log.error("The journal failed, every further change is rejected", exception);
+            }
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void startRecord(byte recordType) throws IOException {
+        recordBuffer.reset();
+        recordOutput.writeByte(recordType);
+        recordOutput.writeLong(lastSequence + 1);
+    }
+
+    private void finishRecord() throws IOException {
+        if (failure != null) {
+            return;
+        }
+        int length = recordBuffer.size();
+        crc.reset();
+        crc.update(recordBuffer.bytes(), 0, length);
+
+        if (pending.remaining() < RECORD_HEADER_SIZE + length) {
+            writeLocked(pending);
+        }
+        if (pending.remaining() < RECORD_HEADER_SIZE + length) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+            record.putInt(length).putInt((int) crc.getValue()).put(recordBuffer.bytes(), 0, length);
+            writeLocked(record);
+        } else {
+            pending.putInt(length).putInt((int) crc.getValue()).put(recordBuffer.bytes(), 0, length);
+        }
+        lastSequence++;
+        appendedSequence.get()[0] = lastSequence;
+    }
+
+    private void writeLocked(ByteBuffer buffer) throws IOException {
+        channelLock.lock();
+        try {
+            write(buffer);
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    /**
+     * Leaves the buffer flipped if the write fails, the journal does not write anything after a failure.
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private long rollSegment() throws IOException {
+        appendLock.lock();
+        channelLock.lock();
+        try {
+            if (lastSequence != snapshotSequence) {
+                try {
+                    write(pending);
+                    segment.force(false);
+                } catch (IOException exception) {
+                    failed(exception);
+                    throw exception;
+                }
+                synced(lastSequence);
+                segment.close();
+                segment = openSegment(lastSequence + 1);
+            }
+            return lastSequence;
+        } finally {
+            channelLock.unlock();
+            appendLock.unlock();
+        }
+    }
+
+    private FileChannel openSegment(long firstSequence) throws IOException {
+        return FileChannel.open(journalProperties.getDirectory().resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX)),
+            CREATE, WRITE, TRUNCATE_EXISTING);
+    }
+
+    private List<Path> findSegments() throws IOException {
+        try (Stream<Path> files = Files.list(journalProperties.getDirectory())) {
+            return files
+                .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .collect(toList());
+        }
+    }
+
+    private long firstSequenceOf(Path segmentFile) {
+        String fileName = segmentFile.getFileName().toString();
+        return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void writeSnapshot(Path snapshotFile, long sequence, Map<String, List<ArticleBatch>> holds) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeLong(sequence);
+            inventory.forEachArticleSupply(articleSupply -> {
+                try {
+                    output.writeByte(ARTICLE_SUPPLY);
+                    RecordCodec.writeArticleSupply(output, articleSupply);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+            productCatalogue.forEachProduct(product -> {
+                try {
+                    output.writeByte(RecordCodec.productRecordType(product));
+                    RecordCodec.writeProduct(output, product);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+            for (Map.Entry<String, List<ArticleBatch>> hold : holds.entrySet()) {
+                output.writeByte(HOLD);
+                writeHold(output, hold.getKey(), hold.getValue());
+            }
+            output.writeByte(END_OF_SNAPSHOT);
+            output.flush();
+            channel.force(true);
+        }
+    }
+
+    private void recover() throws IOException {
+        Path snapshotFile = journalProperties.getDirectory().resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            lastSequence = readSnapshot(snapshotFile);
+            snapshotSequence = lastSequence;
+        }
+        for (Path segmentFile : findSegments()) {
+            replay(segmentFile);
+        }
+        log.info("Inventory recovered up to journal sequence {}", lastSequence);
+        if (!openHolds.isEmpty()) {
+            openHolds.values().forEach(articleBatchList -> inventory.returnToInventory(new TakeFromInventoryIn(articleBatchList)));
+            log.info("Articles of {} holds still open at journal sequence {} returned to the inventory", openHolds.size(), lastSequence);
+            openHolds.clear();
+            replaceSnapshot(lastSequence, Map.of());
+        }
+    }
+
+    private long readSnapshot(Path snapshotFile) throws IOException {
+        ByteBuffer input;
+        try (FileChannel channel = FileChannel.open(snapshotFile, READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(snapshotFile + " is too large to be mapped");
+            }
+            input = channel.map(READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (input.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException(snapshotFile + " is not an inventory snapshot");
+            }
+            long sequence = input.getLong();
+            List<ArticleSupply> articleSupplies = new ArrayList<>();
+            List<Product> products = new ArrayList<>();
+            for (byte recordType = input.get(); recordType != END_OF_SNAPSHOT; recordType = input.get()) {
+                if (recordType == ARTICLE_SUPPLY) {
+                    articleSupplies.add(RecordCodec.readArticleSupply(input));
+                } else if (recordType == HOLD) {
+                    readHold(input);
+                } else {
+                    products.add(RecordCodec.readProduct(input, recordType));
+                }
+                if (articleSupplies.size() + products.size() >= RECOVERY_CHUNK_SIZE) {
+                    apply(articleSupplies, products);
+                }
+            }
+            apply(articleSupplies, products);
+            return sequence;
+        } catch (BufferUnderflowException exception) {
+            throw new IOException(snapshotFile + " is truncated", exception);
+        }
+    }
+
+    private void replay(Path segmentFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmentFile), 1 << 16))) {
+            while (true) {
+                byte[] record;
+                int checksum;
+                try {
+                    int length = input.readInt();
+                    checksum = input.readInt();
+                    if (length <= 0 || length > BUFFER_SIZE * 16) {
+                        log.warn("Journal segment {} is corrupted after sequence {}", segmentFile, lastSequence);
+                        return;
+                    }
+                    record = new byte[length];
+                    input.readFully(record);
+                } catch (EOFException exception) {
+                    return;
+                }
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Journal segment {} is corrupted after sequence {}", segmentFile, lastSequence);
+                    return;
+                }
+                replayRecord(ByteBuffer.wrap(record));
+            }
+        }
+    }
+
+    private void replayRecord(ByteBuffer record) {
+        byte recordType = record.get();
+        long sequence = record.getLong();
+        if (sequence <= lastSequence) {
+            return;
+        }
+        if (recordType == ARTICLE_SUPPLY) {
+            inventory.addToInventory(new AddInventoryIn(List.of(RecordCodec.readArticleSupply(record))));
+        } else if (recordType == HOLD) {
+            readHold(record);
+        } else if (recordType == HOLD_ENDED) {
+            openHolds.remove(RecordCodec.readName(record));
+        } else {
+            productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(RecordCodec.readProduct(record, recordType))));
+        }
+        lastSequence = sequence;
+    }
+
+    private void readHold(ByteBuffer input) {
+        String reservationId = RecordCodec.readName(input);
+        int articleBatchCount = input.getInt();
+        List<ArticleBatch> articleBatchList = new ArrayList<>(articleBatchCount);
+        for (int i = 0; i < articleBatchCount; i++) {
+            articleBatchList.add(new ArticleBatch(input.getInt(), input.getInt()));
+        }
+        openHolds.put(reservationId, articleBatchList);
+    }
+
+    private static void writeHold(DataOutput output, String reservationId, List<ArticleBatch> articleBatchList) throws IOException {
+        RecordCodec.writeName(output, reservationId);
+        output.writeInt(articleBatchList.size());
+        for (ArticleBatch articleBatch : articleBatchList) {
+            output.writeInt(articleBatch.getArticleId());
+            output.writeInt(articleBatch.getQuantity());
+        }
+    }
+
+    private void apply(List<ArticleSupply> articleSupplies, List<Product> products) {
+        inventory.addToInventory(new AddInventoryIn(new ArrayList<>(articleSupplies)));
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(new ArrayList<>(products)));
+        articleSupplies.clear();
+        products.clear();
+    }
+}
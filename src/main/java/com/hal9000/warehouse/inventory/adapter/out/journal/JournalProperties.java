@@ -0,0 +1,27 @@
+package com.hal9000.warehouse.inventory.adapter.out.journal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Getter
+@ConstructorBinding
+@ConfigurationProperties("inventory.journal")
+public class JournalProperties {
+
+    private final Path directory;
+    private final Duration syncInterval;
+    private final Duration snapshotInterval;
+
+    public JournalProperties(@DefaultValue("journal") String directory,
+                             @DefaultValue("10ms") Duration syncInterval,
+                             @DefaultValue("5m") Duration snapshotInterval) {
+        this.directory = Paths.get(directory);
+        this.syncInterval = syncInterval;
+        this.snapshotInterval = snapshotInterval;
+    }
+}
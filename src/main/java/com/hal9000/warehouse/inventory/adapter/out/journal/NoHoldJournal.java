@@ -0,0 +1,18 @@
+package com.hal9000.warehouse.inventory.adapter.out.journal;
+
+import com.hal9000.warehouse.inventory.port.out.HoldJournal;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "inventory.journal.enabled", havingValue = "false", matchIfMissing = true)
+public class NoHoldJournal implements HoldJournal {
+
+    public void holdTaken(String reservationId, List<ArticleBatch> articleBatchList) {
+    }
+
+    public void holdEnded(String reservationId) {
+    }
+}
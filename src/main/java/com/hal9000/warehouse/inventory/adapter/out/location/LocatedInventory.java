@@ -0,0 +1,212 @@
+package com.hal9000.warehouse.inventory.adapter.out.location;
+
+import static java.util.Collections.nCopies;
+import static java.util.stream.Collectors.toList;
+
+import com.hal9000.warehouse.inventory.adapter.out.Inventory;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.StockChangeListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inventory kept at the locations listed in {@code inventory.location.names}, each one a map store of its
+ * own, so a take served by one location only touches the articles and lock stripes of that location. A take
+ * is served whole by the preferred location if it can, else by the first of its nearest locations that can,
+ * and then by the remaining ones in their configured order. Queries without a location add up the stock of
+ * every location, with the sum of its versions at every location as the version of an article.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.store", havingValue = "located")
+@EnableConfigurationProperties(LocationProperties.class)
+public class LocatedInventory implements InventoryRepository {
+
+    private final Map<String, Inventory> locations = new LinkedHashMap<>();
+    private final Map<Inventory, String> locationNames = new IdentityHashMap<>();
+    private final Map<String, List<Inventory>> fulfilmentOrders = new HashMap<>();
+    private final List<Inventory> configuredOrder;
+
+    public LocatedInventory(LocationProperties locationProperties) {
+        locationProperties.getNames().forEach(location -> locations.put(location, new Inventory()));
+        locations.forEach((location, inventory) -> locationNames.put(inventory, location));
+        configuredOrder = List.copyOf(locations.values());
+        for (String location : locations.keySet()) {
+            Set<String> fulfilmentOrder = new LinkedHashSet<>();
+            fulfilmentOrder.add(location);
+            fulfilmentOrder.addAll(locationProperties.getNearest().getOrDefault(location, List.of()));
+            fulfilmentOrder.addAll(locations.keySet());
+            fulfilmentOrders.put(location, fulfilmentOrder.stream().map(this::getLocation).collect(toList()));
+        }
+    }
+
+    public void addToInventory(AddInventoryIn addInventoryIn) {
+        (addInventoryIn.getLocation() == null ? configuredOrder.get(0) : getLocation(addInventoryIn.getLocation()))
+            .addToInventory(addInventoryIn);
+    }
+
+    public boolean takeFromInventory(TakeFromInventoryIn takeFromInventoryIn) {
+        return takeFromLocation(takeFromInventoryIn).isTaken();
+    }
+
+    public TakeFromInventoryOut takeFromLocation(TakeFromInventoryIn takeFromInventoryIn) {
+        int[] articleIds = getArticleIds(takeFromInventoryIn.getArticleBatchList().stream());
+        for (Inventory location : getFulfilmentOrder(takeFromInventoryIn.getPreferredLocation())) {
+            if (holdsAll(location, articleIds) && location.takeFromInventory(takeFromInventoryIn)) {
+                return new TakeFromInventoryOut(true, locationNames.get(location));
+            }
+        }
+        return new TakeFromInventoryOut(false, null);
+    }
+
+    public boolean takeFromInventory(SellPlan sellPlan, int productQuantity) {
+        return takeFromInventory(new TakeFromInventoryIn(sellPlan, productQuantity, null));
+    }
+
+    public List<Boolean> takeFromInventory(TakeFromInventoryBatchIn takeFromInventoryBatchIn) {
+        List<TakeFromInventoryIn> takeFromInventoryInList = takeFromInventoryBatchIn.getTakeFromInventoryInList();
+        if (!takeFromInventoryBatchIn.isAllOrNothing()) {
+            return takeFromInventoryInList.stream()
+                .map(this::takeFromInventory)
+                .collect(toList());
+        }
+        int[] articleIds = getArticleIds(takeFromInventoryInList.stream()
+            .flatMap(takeFromInventoryIn -> takeFromInventoryIn.getArticleBatchList().stream()));
+        for (Inventory location : configuredOrder) {
+            if (holdsAll(location, articleIds)) {
+                List<Boolean> taken = location.takeFromInventory(takeFromInventoryBatchIn);
+                if (taken.isEmpty() || taken.get(0)) {
+                    return taken;
+                }
+            }
+        }
+        return nCopies(takeFromInventoryInList.size(), false);
+    }
+
+    /**
+     * The versions span every location, so they are checked before the take rather than atomically with it.
+     */
+    public TakeOutcome takeFromInventory(ConditionalTakeIn conditionalTakeIn) {
+        boolean unchanged = conditionalTakeIn.getArticleBatchList().stream().allMatch(articleBatch -> {
+            Long expectedVersion = conditionalTakeIn.getExpectedVersions().get(articleBatch.getArticleId());
+            return expectedVersion == null || findArticleSupplyById(articleBatch.getArticleId())
+                .map(articleSupply -> articleSupply.getVersion() == expectedVersion)
+                .orElse(false);
+        });
+        if (!unchanged) {
+            return TakeOutcome.VERSION_CONFLICT;
+        }
+        return takeFromInventory(new TakeFromInventoryIn(conditionalTakeIn.getArticleBatchList())) ?
+            TakeOutcome.TAKEN : TakeOutcome.NOT_ENOUGH_SUPPLIES;
+    }
+
+    /**
+     * Returns the batches to the preferred location, the one that served their take, or else every batch to the
+     * first location holding its article in the configured order.
+     */
+    public void returnToInventory(TakeFromInventoryIn takeFromInventoryIn) {
+        if (takeFromInventoryIn.getPreferredLocation() != null) {
+            getLocation(takeFromInventoryIn.getPreferredLocation())
+                .returnToInventory(new TakeFromInventoryIn(takeFromInventoryIn.getArticleBatchList()));
+            return;
+        }
+        Map<Inventory, List<ArticleBatch>> articleBatchesByLocation = new LinkedHashMap<>();
+        for (ArticleBatch articleBatch : takeFromInventoryIn.getArticleBatchList()) {
+            configuredOrder.stream()
+                .filter(location -> location.findArticleSupplyById(articleBatch.getArticleId()).isPresent())
+                .findFirst()
+                .ifPresent(location -> articleBatchesByLocation.computeIfAbsent(location, any -> new ArrayList<>()).add(articleBatch));
+        }
+        articleBatchesByLocation.forEach((location, articleBatchList) -> location.returnToInventory(new TakeFromInventoryIn(articleBatchList)));
+    }
+
+    public Optional<ArticleSupply> findArticleSupplyById(int articleId) {
+        ArticleSupply totalArticleSupply = null;
+        for (Inventory location : configuredOrder) {
+            Optional<ArticleSupply> articleSupply = location.findArticleSupplyById(articleId);
+            if (articleSupply.isPresent()) {
+                totalArticleSupply = totalArticleSupply == null ? articleSupply.get() : add(totalArticleSupply, articleSupply.get());
+            }
+        }
+        return Optional.ofNullable(totalArticleSupply);
+    }
+
+    public int[] findArticleIdsNotInInventory(int[] articleIds) {
+        int[] missingArticleIds = articleIds;
+        for (Inventory location : configuredOrder) {
+            missingArticleIds = location.findArticleIdsNotInInventory(missingArticleIds);
+        }
+        return missingArticleIds;
+    }
+
+    public void forEachArticleSupply(Consumer<ArticleSupply> action) {
+        Map<Integer, ArticleSupply> totalArticleSupplies = new LinkedHashMap<>();
+        configuredOrder.forEach(location -> location.forEachArticleSupply(articleSupply ->
+            totalArticleSupplies.merge(articleSupply.getArticle().getId(), articleSupply, LocatedInventory::add)));
+        totalArticleSupplies.values().forEach(action);
+    }
+
+    public List<String> getLocations() {
+        return List.copyOf(locations.keySet());
+    }
+
+    public Optional<ArticleSupply> findArticleSupplyById(String location, int articleId) {
+        return Optional.ofNullable(locations.get(location))
+            .flatMap(inventory -> inventory.findArticleSupplyById(articleId));
+    }
+
+    /**
+     * Every location tells of its own changes while holding its own stripes.
+     */
+    public void addStockChangeListener(StockChangeListener stockChangeListener) {
+        configuredOrder.forEach(location -> location.addStockChangeListener(stockChangeListener));
+    }
+
+    private Inventory getLocation(String location) {
+        Inventory inventory = locations.get(location);
+        if (inventory == null) {
+            throw new IllegalArgumentException("Unknown location " + location);
+        }
+        return inventory;
+    }
+
+    private List<Inventory> getFulfilmentOrder(String preferredLocation) {
+        if (preferredLocation == null) {
+            return configuredOrder;
+        }
+        List<Inventory> fulfilmentOrder = fulfilmentOrders.get(preferredLocation);
+        if (fulfilmentOrder == null) {
+            throw new IllegalArgumentException("Unknown location " + preferredLocation);
+        }
+        return fulfilmentOrder;
+    }
+
+    private static boolean holdsAll(Inventory location, int[] articleIds) {
+        return location.findArticleIdsNotInInventory(articleIds).length == 0;
+    }
+
+    private static int[] getArticleIds(Stream<ArticleBatch> articleBatches) {
+        return articleBatches
+            .mapToInt(ArticleBatch::getArticleId)
+            .distinct()
+            .toArray();
+    }
+
+    private static ArticleSupply add(ArticleSupply articleSupply, ArticleSupply otherArticleSupply) {
+        return new ArticleSupply(articleSupply.getArticle(), articleSupply.getQuantity() + otherArticleSupply.getQuantity(),
+            articleSupply.getVersion() + otherArticleSupply.getVersion());
+    }
+}
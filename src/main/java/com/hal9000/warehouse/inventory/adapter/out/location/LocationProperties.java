@@ -0,0 +1,24 @@
+package com.hal9000.warehouse.inventory.adapter.out.location;
+
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+
+@Getter
+@ConstructorBinding
+@ConfigurationProperties("inventory.location")
+public class LocationProperties {
+
+    private final List<String> names;
+    private final Map<String, List<String>> nearest;
+
+    public LocationProperties(List<String> names, Map<String, List<String>> nearest) {
+        if (names != null && (names.isEmpty() || names.stream().anyMatch(name -> name == null || name.isBlank()))) {
+            throw new IllegalArgumentException("inventory.location.names must list at least one location and no blank ones");
+        }
+        this.names = names == null ? List.of("main") : names;
+        this.nearest = nearest == null ? Map.of() : nearest;
+    }
+}
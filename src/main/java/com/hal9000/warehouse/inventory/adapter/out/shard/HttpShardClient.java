@@ -0,0 +1,72 @@
+package com.hal9000.warehouse.inventory.adapter.out.shard;
+
+import static com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.BASE_PATH;
+import static com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.toArticleBatchDtos;
+import static com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.toArticleSupplies;
+import static com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.toArticleSupply;
+import static com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.toArticleSupplyDtos;
+import static java.util.Arrays.asList;
+
+import com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.ArticleSupplyDto;
+import com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.TakeDto;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeOutcome;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.web.client.HttpClientErrorException.NotFound;
+import org.springframework.web.client.RestTemplate;
+
+class HttpShardClient implements ShardClient {
+
+    private final RestTemplate restTemplate;
+
+    HttpShardClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    public void addToInventory(List<ArticleSupply> articleSupplies, boolean increment) {
+        restTemplate.postForLocation(BASE_PATH + "/articles?increment={increment}", toArticleSupplyDtos(articleSupplies), increment);
+    }
+
+    public TakeOutcome take(List<ArticleBatch> articleBatchList, Map<Integer, Long> expectedVersions) {
+        return restTemplate.postForObject(BASE_PATH + "/take", new TakeDto(toArticleBatchDtos(articleBatchList), expectedVersions),
+            TakeOutcome.class);
+    }
+
+    public void returnToInventory(List<ArticleBatch> articleBatchList) {
+        restTemplate.postForLocation(BASE_PATH + "/return", toArticleBatchDtos(articleBatchList));
+    }
+
+    public TakeOutcome reserve(String reservationId, List<ArticleBatch> articleBatchList, Map<Integer, Long> expectedVersions) {
+        return restTemplate.postForObject(BASE_PATH + "/reservations/{reservationId}",
+            new TakeDto(toArticleBatchDtos(articleBatchList), expectedVersions), TakeOutcome.class, reservationId);
+    }
+
+    public boolean commit(String reservationId) {
+        return Boolean.TRUE.equals(restTemplate.postForObject(BASE_PATH + "/reservations/{reservationId}/commit", null, Boolean.class,
+            reservationId));
+    }
+
+    public void release(String reservationId) {
+        restTemplate.delete(BASE_PATH + "/reservations/{reservationId}", reservationId);
+    }
+
+    public Optional<ArticleSupply> findArticleSupplyById(int articleId) {
+        try {
+            return Optional.ofNullable(restTemplate.getForObject(BASE_PATH + "/articles/{articleId}", ArticleSupplyDto.class, articleId))
+                .map(ShardProtocol::toArticleSupply);
+        } catch (NotFound exception) {
+            return Optional.empty();
+        }
+    }
+
+    public int[] findArticleIdsNotInInventory(int[] articleIds) {
+        return restTemplate.postForObject(BASE_PATH + "/articles/missing", articleIds, int[].class);
+    }
+
+    public List<ArticleSupply> findAllArticleSupplies() {
+        return toArticleSupplies(asList(restTemplate.getForObject(BASE_PATH + "/articles", ArticleSupplyDto[].class)));
+    }
+}
@@ -0,0 +1,133 @@
+package com.hal9000.warehouse.inventory.adapter.out.shard;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.hal9000.warehouse.inventory.adapter.out.Inventory;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ConditionalTakeIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeOutcome;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * The shard of the inventory owned by this node. Reservations of coordinators that never commit or
+ * release them, because they crashed or lost the connection, are released after the reservation timeout.
+ * A reservation is either committed or released, never both: a commit arriving after the reservation was
+ * released fails, and committed reservations are remembered for twice the timeout so that a commit
+ * retried by the coordinator is acknowledged again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.store", havingValue = "sharded")
+@EnableConfigurationProperties(ShardProperties.class)
+public class LocalShard implements ShardClient {
+
+    @Value
+    private static class Reservation {
+        List<ArticleBatch> articleBatchList;
+        long expiresAt;
+    }
+
+    private final Inventory inventory = new Inventory();
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final Map<String, Long> committedReservations = new ConcurrentHashMap<>();
+    private final long reservationTimeoutMillis;
+    private ScheduledExecutorService scheduler;
+
+    public LocalShard(ShardProperties shardProperties) {
+        reservationTimeoutMillis = shardProperties.getReservationTimeout().toMillis();
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-shard-reservations");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, reservationTimeoutMillis / 4);
+        scheduler.scheduleWithFixedDelay(() -> expireReservations(System.currentTimeMillis()), period, period, MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public void addToInventory(List<ArticleSupply> articleSupplies, boolean increment) {
+        inventory.addToInventory(new AddInventoryIn(articleSupplies, increment));
+    }
+
+    public TakeOutcome take(List<ArticleBatch> articleBatchList, Map<Integer, Long> expectedVersions) {
+        if (expectedVersions.isEmpty()) {
+            return inventory.takeFromInventory(new TakeFromInventoryIn(articleBatchList)) ? TakeOutcome.TAKEN : TakeOutcome.NOT_ENOUGH_SUPPLIES;
+        }
+        return inventory.takeFromInventory(new ConditionalTakeIn(articleBatchList, expectedVersions));
+    }
+
+    public void returnToInventory(List<ArticleBatch> articleBatchList) {
+        inventory.returnToInventory(new TakeFromInventoryIn(articleBatchList));
+    }
+
+    public TakeOutcome reserve(String reservationId, List<ArticleBatch> articleBatchList, Map<Integer, Long> expectedVersions) {
+        TakeOutcome outcome = take(articleBatchList, expectedVersions);
+        if (outcome == TakeOutcome.TAKEN) {
+            reservations.put(reservationId, new Reservation(articleBatchList, System.currentTimeMillis() + reservationTimeoutMillis));
+        }
+        return outcome;
+    }
+
+    public boolean commit(String reservationId) {
+        if (reservations.remove(reservationId) != null) {
+            committedReservations.put(reservationId, System.currentTimeMillis() + 2 * reservationTimeoutMillis);
+            return true;
+        }
+        return committedReservations.containsKey(reservationId);
+    }
+
+    public void release(String reservationId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation != null) {
+            returnToInventory(reservation.getArticleBatchList());
+        }
+    }
+
+    public Optional<ArticleSupply> findArticleSupplyById(int articleId) {
+        return inventory.findArticleSupplyById(articleId);
+    }
+
+    public int[] findArticleIdsNotInInventory(int[] articleIds) {
+        return inventory.findArticleIdsNotInInventory(articleIds);
+    }
+
+    public List<ArticleSupply> findAllArticleSupplies() {
+        List<ArticleSupply> articleSupplies = new ArrayList<>();
+        inventory.forEachArticleSupply(articleSupplies::add);
+        return articleSupplies;
+    }
+
+    void expireReservations(long now) {
+        reservations.forEach((reservationId, reservation) -> {
+            if (reservation.getExpiresAt() <= now) {
+                log.warn("Reservation {} expired without being committed, releasing it", reservationId);
+                release(reservationId);
+            }
+        });
+        committedReservations.values().removeIf(forgetAt -> forgetAt <= now);
+    }
+}
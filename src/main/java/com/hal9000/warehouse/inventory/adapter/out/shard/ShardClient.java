@@ -0,0 +1,37 @@
+package com.hal9000.warehouse.inventory.adapter.out.shard;
+
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeOutcome;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Operations on the inventory of one shard. A reservation takes the articles right away and keeps them
+ * aside until it is committed, released or expires, so a take spanning several shards can be undone on
+ * every shard if any of them has not enough supplies.
+ */
+interface ShardClient {
+
+    void addToInventory(List<ArticleSupply> articleSupplies, boolean increment);
+
+    TakeOutcome take(List<ArticleBatch> articleBatchList, Map<Integer, Long> expectedVersions);
+
+    void returnToInventory(List<ArticleBatch> articleBatchList);
+
+    TakeOutcome reserve(String reservationId, List<ArticleBatch> articleBatchList, Map<Integer, Long> expectedVersions);
+
+    /**
+     * Returns false if the reservation was released, or expired, before the commit arrived.
+     */
+    boolean commit(String reservationId);
+
+    void release(String reservationId);
+
+    Optional<ArticleSupply> findArticleSupplyById(int articleId);
+
+    int[] findArticleIdsNotInInventory(int[] articleIds);
+
+    List<ArticleSupply> findAllArticleSupplies();
+}
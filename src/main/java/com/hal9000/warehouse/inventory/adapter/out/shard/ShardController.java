@@ -0,0 +1,84 @@
+package com.hal9000.warehouse.inventory.adapter.out.shard;
+
+import static com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.toArticleBatches;
+import static com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.toArticleSupplies;
+import static com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.toArticleSupplyDtos;
+import static org.springframework.http.ResponseEntity.notFound;
+import static org.springframework.http.ResponseEntity.ok;
+
+import com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.ArticleBatchDto;
+import com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.ArticleSupplyDto;
+import com.hal9000.warehouse.inventory.adapter.out.shard.ShardProtocol.TakeDto;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeOutcome;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serves the shard owned by this node to the {@link HttpShardClient}s of the other nodes.
+ */
+@RestController
+@RequestMapping(ShardProtocol.BASE_PATH)
+@ConditionalOnProperty(name = "inventory.store", havingValue = "sharded")
+@RequiredArgsConstructor
+public class ShardController {
+
+    private final LocalShard localShard;
+
+    @PostMapping("articles")
+    public void addToInventory(@RequestBody List<ArticleSupplyDto> articleSupplies,
+                               @RequestParam(defaultValue = "false") boolean increment) {
+        localShard.addToInventory(toArticleSupplies(articleSupplies), increment);
+    }
+
+    @GetMapping("articles")
+    public List<ArticleSupplyDto> findAllArticleSupplies() {
+        return toArticleSupplyDtos(localShard.findAllArticleSupplies());
+    }
+
+    @GetMapping("articles/{articleId}")
+    public ResponseEntity<ArticleSupplyDto> findArticleSupplyById(@PathVariable int articleId) {
+        return localShard.findArticleSupplyById(articleId)
+            .map(articleSupply -> ok(ShardProtocol.toArticleSupplyDto(articleSupply)))
+            .orElseGet(() -> notFound().build());
+    }
+
+    @PostMapping("articles/missing")
+    public int[] findArticleIdsNotInInventory(@RequestBody int[] articleIds) {
+        return localShard.findArticleIdsNotInInventory(articleIds);
+    }
+
+    @PostMapping("take")
+    public TakeOutcome take(@RequestBody TakeDto take) {
+        return localShard.take(toArticleBatches(take.getArticleBatches()), take.getExpectedVersions());
+    }
+
+    @PostMapping("return")
+    public void returnToInventory(@RequestBody List<ArticleBatchDto> articleBatchList) {
+        localShard.returnToInventory(toArticleBatches(articleBatchList));
+    }
+
+    @PostMapping("reservations/{reservationId}")
+    public TakeOutcome reserve(@PathVariable String reservationId, @RequestBody TakeDto take) {
+        return localShard.reserve(reservationId, toArticleBatches(take.getArticleBatches()), take.getExpectedVersions());
+    }
+
+    @PostMapping("reservations/{reservationId}/commit")
+    public boolean commit(@PathVariable String reservationId) {
+        return localShard.commit(reservationId);
+    }
+
+    @DeleteMapping("reservations/{reservationId}")
+    public void release(@PathVariable String reservationId) {
+        localShard.release(reservationId);
+    }
+}
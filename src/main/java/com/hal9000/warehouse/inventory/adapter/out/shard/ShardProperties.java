@@ -0,0 +1,32 @@
+package com.hal9000.warehouse.inventory.adapter.out.shard;
+
+import java.time.Duration;
+import java.util.List;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Getter
+@ConstructorBinding
+@ConfigurationProperties("inventory.shard")
+public class ShardProperties {
+
+    private final List<String> nodes;
+    private final int self;
+    private final int virtualNodes;
+    private final Duration reservationTimeout;
+    private final Duration requestTimeout;
+
+    public ShardProperties(List<String> nodes,
+                           @DefaultValue("0") int self,
+                           @DefaultValue("128") int virtualNodes,
+                           @DefaultValue("30s") Duration reservationTimeout,
+                           @DefaultValue("2s") Duration requestTimeout) {
+        this.nodes = nodes == null ? List.of() : nodes;
+        this.self = self;
+        this.virtualNodes = virtualNodes;
+        this.reservationTimeout = reservationTimeout;
+        this.requestTimeout = requestTimeout;
+    }
+}
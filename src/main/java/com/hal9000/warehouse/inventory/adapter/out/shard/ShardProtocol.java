@@ -0,0 +1,77 @@
+package com.hal9000.warehouse.inventory.adapter.out.shard;
+
+import static java.util.stream.Collectors.toList;
+import static lombok.AccessLevel.PRIVATE;
+
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+
+final class ShardProtocol {
+
+    static final String BASE_PATH = "/internal/shard";
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class ArticleBatchDto {
+        int articleId;
+        int quantity;
+    }
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class ArticleSupplyDto {
+        int articleId;
+        String name;
+        int quantity;
+        long version;
+    }
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class TakeDto {
+        List<ArticleBatchDto> articleBatches;
+        Map<Integer, Long> expectedVersions;
+    }
+
+    private ShardProtocol() {
+    }
+
+    static List<ArticleBatchDto> toArticleBatchDtos(List<ArticleBatch> articleBatchList) {
+        return articleBatchList.stream()
+            .map(articleBatch -> new ArticleBatchDto(articleBatch.getArticleId(), articleBatch.getQuantity()))
+            .collect(toList());
+    }
+
+    static List<ArticleBatch> toArticleBatches(List<ArticleBatchDto> articleBatchDtos) {
+        return articleBatchDtos.stream()
+            .map(articleBatch -> new ArticleBatch(articleBatch.getArticleId(), articleBatch.getQuantity()))
+            .collect(toList());
+    }
+
+    static ArticleSupplyDto toArticleSupplyDto(ArticleSupply articleSupply) {
+        return new ArticleSupplyDto(articleSupply.getArticle().getId(), articleSupply.getArticle().getName(), articleSupply.getQuantity(),
+            articleSupply.getVersion());
+    }
+
+    static ArticleSupply toArticleSupply(ArticleSupplyDto articleSupply) {
+        return new ArticleSupply(new Article(articleSupply.getArticleId(), articleSupply.getName()), articleSupply.getQuantity(),
+            articleSupply.getVersion());
+    }
+
+    static List<ArticleSupplyDto> toArticleSupplyDtos(List<ArticleSupply> articleSupplies) {
+        return articleSupplies.stream().map(ShardProtocol::toArticleSupplyDto).collect(toList());
+    }
+
+    static List<ArticleSupply> toArticleSupplies(List<ArticleSupplyDto> articleSupplies) {
+        return articleSupplies.stream().map(ShardProtocol::toArticleSupply).collect(toList());
+    }
+}
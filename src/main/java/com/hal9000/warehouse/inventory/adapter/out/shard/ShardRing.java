@@ -0,0 +1,42 @@
+package com.hal9000.warehouse.inventory.adapter.out.shard;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Consistent hash ring of article ids. Every node is placed on the ring at several virtual points,
+ * so adding a node only moves the articles between its points and their predecessors.
+ */
+class ShardRing {
+
+    private final TreeMap<Integer, Integer> shardsByPoint = new TreeMap<>();
+
+    ShardRing(List<String> nodes, int virtualNodes) {
+        for (int shard = 0; shard < nodes.size(); shard++) {
+            for (int virtualNode = 0; virtualNode < virtualNodes; virtualNode++) {
+                shardsByPoint.put(hash(nodes.get(shard) + "#" + virtualNode), shard);
+            }
+        }
+    }
+
+    int shardOf(int articleId) {
+        int point = mix(articleId);
+        Map.Entry<Integer, Integer> owner = shardsByPoint.ceilingEntry(point);
+        return owner != null ? owner.getValue() : shardsByPoint.firstEntry().getValue();
+    }
+
+    private static int hash(String virtualNode) {
+        CRC32 crc = new CRC32();
+        crc.update(virtualNode.getBytes(UTF_8));
+        return mix((int) crc.getValue());
+    }
+
+    private static int mix(int value) {
+        int hash = value * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
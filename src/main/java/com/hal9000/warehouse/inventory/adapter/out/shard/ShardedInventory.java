@@ -0,0 +1,246 @@
+package com.hal9000.warehouse.inventory.adapter.out.shard;
+
+import static java.lang.String.format;
+import static java.util.Collections.nCopies;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingInt;
+import static java.util.stream.Collectors.toList;
+
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.StockChangeListener;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inventory partitioned across the nodes listed in {@code inventory.shard.nodes}. Every article lives on
+ * the shard the {@link ShardRing} assigns it to. A take touching a single shard is applied there directly;
+ * a take spanning several shards reserves the articles on each of them and commits the reservations only
+ * once all of them succeeded, releasing the ones already made otherwise. A commit that cannot reach its
+ * shard is retried until the shard answers, for at most the reservation timeout; a shard answering that
+ * the reservation expired before its commit arrived fails the take, and the articles already committed on
+ * the other shards are returned.
+ * <p>
+ * No lock spans the shards, so stock change listeners are told of a change once every shard applied it, and
+ * a set racing a take of the same article may be told in the other order than the shard applied them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.store", havingValue = "sharded")
+public class ShardedInventory implements InventoryRepository {
+
+    private static final long MIN_COMMIT_RETRY_DELAY_MILLIS = 50;
+    private static final long MAX_COMMIT_RETRY_DELAY_MILLIS = 1_000;
+
+    private final ShardRing shardRing;
+    private final List<ShardClient> shards;
+    private final long reservationTimeoutMillis;
+    private final CopyOnWriteArrayList<StockChangeListener> stockChangeListeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public ShardedInventory(ShardProperties shardProperties, LocalShard localShard,
+                            ObjectProvider<RestTemplateBuilder> restTemplateBuilderProvider) {
+        RestTemplateBuilder restTemplateBuilder = restTemplateBuilderProvider.getIfAvailable(RestTemplateBuilder::new);
+        List<String> nodes = shardProperties.getNodes().isEmpty() ? List.of("self") : shardProperties.getNodes();
+        shardRing = new ShardRing(nodes, shardProperties.getVirtualNodes());
+        shards = new ArrayList<>(nodes.size());
+        for (int shard = 0; shard < nodes.size(); shard++) {
+            shards.add(shard == shardProperties.getSelf() ? localShard : new HttpShardClient(restTemplateBuilder
+                .rootUri(nodes.get(shard))
+                .setConnectTimeout(shardProperties.getRequestTimeout())
+                .setReadTimeout(shardProperties.getRequestTimeout())
+                .build()));
+        }
+        reservationTimeoutMillis = shardProperties.getReservationTimeout().toMillis();
+    }
+
+    ShardedInventory(ShardRing shardRing, List<ShardClient> shards, Duration reservationTimeout) {
+        this.shardRing = shardRing;
+        this.shards = shards;
+        this.reservationTimeoutMillis = reservationTimeout.toMillis();
+    }
+
+    public void addToInventory(AddInventoryIn addInventoryIn) {
+        byShard(addInventoryIn.getArticleSupplies(), articleSupply -> articleSupply.getArticle().getId())
+            .forEach((shard, articleSupplies) -> shards.get(shard).addToInventory(articleSupplies, addInventoryIn.isIncrement()));
+        stockChangeListeners.forEach(stockChangeListener -> {
+            if (addInventoryIn.isIncrement()) {
+                stockChangeListener.articlesRestocked(addInventoryIn.getArticleSupplies());
+            } else {
+                stockChangeListener.articlesAdded(addInventoryIn.getArticleSupplies());
+            }
+        });
+    }
+
+    public boolean takeFromInventory(TakeFromInventoryIn takeFromInventoryIn) {
+        return take(takeFromInventoryIn.getArticleBatchList(), Map.of()) == TakeOutcome.TAKEN;
+    }
+
+    public TakeOutcome takeFromInventory(ConditionalTakeIn conditionalTakeIn) {
+        return take(conditionalTakeIn.getArticleBatchList(), conditionalTakeIn.getExpectedVersions());
+    }
+
+    public TakeFromInventoryOut takeFromLocation(TakeFromInventoryIn takeFromInventoryIn) {
+        return new TakeFromInventoryOut(takeFromInventory(takeFromInventoryIn), null);
+    }
+
+    public boolean takeFromInventory(SellPlan sellPlan, int productQuantity) {
+        return takeFromInventory(new TakeFromInventoryIn(sellPlan, productQuantity, null));
+    }
+
+    public List<Boolean> takeFromInventory(TakeFromInventoryBatchIn takeFromInventoryBatchIn) {
+        List<TakeFromInventoryIn> takeFromInventoryInList = takeFromInventoryBatchIn.getTakeFromInventoryInList();
+        if (takeFromInventoryBatchIn.isAllOrNothing()) {
+            return nCopies(takeFromInventoryInList.size(), takeFromInventory(new TakeFromInventoryIn(mergeArticleBatches(takeFromInventoryInList))));
+        }
+        return takeFromInventoryInList.stream()
+            .map(this::takeFromInventory)
+            .collect(toList());
+    }
+
+    public void returnToInventory(TakeFromInventoryIn takeFromInventoryIn) {
+        byShard(takeFromInventoryIn.getArticleBatchList(), ArticleBatch::getArticleId)
+            .forEach((shard, articleBatchList) -> shards.get(shard).returnToInventory(articleBatchList));
+        stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesReturned(takeFromInventoryIn.getArticleBatchList()));
+    }
+
+    public Optional<ArticleSupply> findArticleSupplyById(int articleId) {
+        return shards.get(shardRing.shardOf(articleId)).findArticleSupplyById(articleId);
+    }
+
+    public int[] findArticleIdsNotInInventory(int[] articleIds) {
+        Set<Integer> missingArticleIds = new HashSet<>();
+        byShard(Arrays.stream(articleIds).boxed().collect(toList()), Function.identity())
+            .forEach((shard, shardArticleIds) -> Arrays.stream(shards.get(shard)
+                    .findArticleIdsNotInInventory(shardArticleIds.stream().mapToInt(Integer::intValue).toArray()))
+                .forEach(missingArticleIds::add));
+        return Arrays.stream(articleIds)
+            .filter(missingArticleIds::contains)
+            .toArray();
+    }
+
+    public void forEachArticleSupply(Consumer<ArticleSupply> action) {
+        shards.forEach(shard -> shard.findAllArticleSupplies().forEach(action));
+    }
+
+    public List<String> getLocations() {
+        return List.of();
+    }
+
+    public Optional<ArticleSupply> findArticleSupplyById(String location, int articleId) {
+        return Optional.empty();
+    }
+
+    public void addStockChangeListener(StockChangeListener stockChangeListener) {
+        stockChangeListeners.addIfAbsent(stockChangeListener);
+    }
+
+    private TakeOutcome take(List<ArticleBatch> articleBatchList, Map<Integer, Long> expectedVersions) {
+        Map<Integer, List<ArticleBatch>> articleBatchesByShard = byShard(articleBatchList, ArticleBatch::getArticleId);
+        TakeOutcome outcome;
+        if (articleBatchesByShard.size() == 1) {
+            Map.Entry<Integer, List<ArticleBatch>> onlyShard = articleBatchesByShard.entrySet().iterator().next();
+            outcome = shards.get(onlyShard.getKey()).take(onlyShard.getValue(), expectedVersions);
+        } else {
+            outcome = reserveAndCommit(articleBatchesByShard, expectedVersions);
+        }
+        if (outcome == TakeOutcome.TAKEN) {
+            stockChangeListeners.forEach(stockChangeListener -> stockChangeListener.articlesTaken(articleBatchList));
+        }
+        return outcome;
+    }
+
+    private TakeOutcome reserveAndCommit(Map<Integer, List<ArticleBatch>> articleBatchesByShard, Map<Integer, Long> expectedVersions) {
+        String reservationId = UUID.randomUUID().toString();
+        long reservedAt = System.currentTimeMillis();
+        List<Integer> reservedShards = new ArrayList<>(articleBatchesByShard.size());
+        try {
+            for (Map.Entry<Integer, List<ArticleBatch>> shardArticleBatches : articleBatchesByShard.entrySet()) {
+                reservedShards.add(shardArticleBatches.getKey());
+                TakeOutcome outcome = shards.get(shardArticleBatches.getKey()).reserve(reservationId, shardArticleBatches.getValue(),
+                    expectedVersions);
+                if (outcome != TakeOutcome.TAKEN) {
+                    release(reservationId, reservedShards);
+                    return outcome;
+                }
+            }
+        } catch (RuntimeException exception) {
+            release(reservationId, reservedShards);
+            throw exception;
+        }
+        for (int committed = 0; committed < reservedShards.size(); committed++) {
+            if (!commit(reservationId, reservedShards.get(committed), reservedAt)) {
+                log.warn("Reservation {} expired before it was committed on shard {}, undoing the take", reservationId,
+                    reservedShards.get(committed));
+                reservedShards.subList(0, committed)
+                    .forEach(shard -> shards.get(shard).returnToInventory(articleBatchesByShard.get(shard)));
+                release(reservationId, reservedShards.subList(committed + 1, reservedShards.size()));
+                return TakeOutcome.NOT_ENOUGH_SUPPLIES;
+            }
+        }
+        return TakeOutcome.TAKEN;
+    }
+
+    private boolean commit(String reservationId, int shard, long reservedAt) {
+        long retryDelay = MIN_COMMIT_RETRY_DELAY_MILLIS;
+        while (true) {
+            try {
+                return shards.get(shard).commit(reservationId);
+            } catch (RuntimeException exception) {
+                if (System.currentTimeMillis() - reservedAt >= reservationTimeoutMillis) {
+                    log.error("Could not commit reservation {} on shard {}, the take may be applied on some shards only", reservationId, shard);
+                    throw exception;
+                }
+                log.warn("Could not commit reservation {} on shard {}, retrying in {} ms", reservationId, shard, retryDelay, exception);
+            }
+            try {
+                Thread.sleep(retryDelay);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(format("Interrupted while committing reservation %s", reservationId), exception);
+            }
+            retryDelay = Math.min(2 * retryDelay, MAX_COMMIT_RETRY_DELAY_MILLIS);
+        }
+    }
+
+    private void release(String reservationId, List<Integer> reservedShards) {
+        for (int shard : reservedShards) {
+            try {
+                shards.get(shard).release(reservationId);
+            } catch (RuntimeException exception) {
+                log.warn("Could not release reservation {}, it will be released when it expires", reservationId, exception);
+            }
+        }
+    }
+
+    private <T> Map<Integer, List<T>> byShard(List<T> items, Function<T, Integer> articleId) {
+        return items.stream().collect(groupingBy(item -> shardRing.shardOf(articleId.apply(item)), TreeMap::new, toList()));
+    }
+
+    private List<ArticleBatch> mergeArticleBatches(List<TakeFromInventoryIn> takeFromInventoryInList) {
+        return takeFromInventoryInList.stream()
+            .flatMap(takeFromInventoryIn -> takeFromInventoryIn.getArticleBatchList().stream())
+            .collect(groupingBy(ArticleBatch::getArticleId, summingInt(ArticleBatch::getQuantity)))
+            .entrySet().stream()
+            .map(articleQuantity -> new ArticleBatch(articleQuantity.getKey(), articleQuantity.getValue()))
+            .collect(toList());
+    }
+}
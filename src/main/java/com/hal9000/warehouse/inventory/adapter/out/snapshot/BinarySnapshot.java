@@ -0,0 +1,162 @@
+package com.hal9000.warehouse.inventory.adapter.out.snapshot;
+
+import static com.hal9000.warehouse.inventory.adapter.out.RecordCodec.ARTICLE_SUPPLY;
+import static com.hal9000.warehouse.inventory.adapter.out.RecordCodec.ASSEMBLY;
+import static com.hal9000.warehouse.inventory.adapter.out.RecordCodec.PRODUCT;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+
+import com.hal9000.warehouse.inventory.adapter.out.RecordCodec;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository.ProductCatalogueIn;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compact binary image of the inventory and the product catalogue. Every record is a type byte followed
+ * by a record encoded with the {@link RecordCodec} of the journal, so the loader reads it straight from a
+ * memory mapped file without any parsing. The file configured as {@code inventory.snapshot.import-file}
+ * is loaded on startup and the one configured as {@code inventory.snapshot.export-file} is written on
+ * shutdown.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(SnapshotProperties.class)
+@RequiredArgsConstructor
+public class BinarySnapshot {
+
+    static final int MAGIC = 0x494e5642;
+    static final short VERSION = 2;
+
+    private static final byte END = 0;
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductCatalogueRepository productCatalogueRepository;
+    private final SnapshotProperties snapshotProperties;
+
+    @PostConstruct
+    public void importOnStartup() throws IOException {
+        if (snapshotProperties.getImportFile().isPresent()) {
+            load(snapshotProperties.getImportFile().get());
+        }
+    }
+
+    @PreDestroy
+    public void exportOnShutdown() throws IOException {
+        if (snapshotProperties.getExportFile().isPresent()) {
+            export(snapshotProperties.getExportFile().get());
+        }
+    }
+
+    public void export(Path snapshotFile) throws IOException {
+        Path snapshotTempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (OutputStream output = Files.newOutputStream(snapshotTempFile)) {
+            export(output);
+        }
+        Files.move(snapshotTempFile, snapshotFile, ATOMIC_MOVE, REPLACE_EXISTING);
+        log.info("Inventory snapshot exported to {}", snapshotFile);
+    }
+
+    public void export(OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        try {
+            inventoryRepository.forEachArticleSupply(articleSupply -> write(output, articleSupply));
+            productCatalogueRepository.forEachProduct(product -> write(output, product));
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+        output.writeByte(END);
+        output.flush();
+    }
+
+    public void load(Path snapshotFile) throws IOException {
+        ByteBuffer snapshot;
+        try (FileChannel channel = FileChannel.open(snapshotFile, READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(snapshotFile + " is too large to be mapped");
+            }
+            snapshot = channel.map(READ_ONLY, 0, channel.size());
+        }
+        try {
+            load(snapshot);
+        } catch (BufferUnderflowException exception) {
+            throw new IOException(snapshotFile + " is truncated", exception);
+        }
+        log.info("Inventory snapshot loaded from {}", snapshotFile);
+    }
+
+    private void load(ByteBuffer snapshot) throws IOException {
+        if (snapshot.getInt() != MAGIC || snapshot.getShort() != VERSION) {
+            throw new IOException("Not an inventory snapshot of version " + VERSION);
+        }
+        List<ArticleSupply> articleSupplies = new ArrayList<>(LOAD_CHUNK_SIZE);
+        List<Product> products = new ArrayList<>(LOAD_CHUNK_SIZE);
+        for (byte recordType = snapshot.get(); recordType != END; recordType = snapshot.get()) {
+            if (recordType == ARTICLE_SUPPLY) {
+                articleSupplies.add(RecordCodec.readArticleSupply(snapshot));
+            } else if (recordType == PRODUCT || recordType == ASSEMBLY) {
+                products.add(RecordCodec.readProduct(snapshot, recordType));
+            } else {
+                throw new IOException("Unknown snapshot record type " + recordType);
+            }
+            if (articleSupplies.size() + products.size() >= LOAD_CHUNK_SIZE) {
+                apply(articleSupplies, products);
+            }
+        }
+        apply(articleSupplies, products);
+    }
+
+    private void apply(List<ArticleSupply> articleSupplies, List<Product> products) {
+        if (!articleSupplies.isEmpty()) {
+            inventoryRepository.addToInventory(new AddInventoryIn(new ArrayList<>(articleSupplies)));
+        }
+        if (!products.isEmpty()) {
+            productCatalogueRepository.addToCatalogue(new ProductCatalogueIn(new ArrayList<>(products)));
+        }
+        articleSupplies.clear();
+        products.clear();
+    }
+
+    private void write(DataOutputStream output, ArticleSupply articleSupply) {
+        try {
+            output.writeByte(ARTICLE_SUPPLY);
+            RecordCodec.writeArticleSupply(output, articleSupply);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void write(DataOutputStream output, Product product) {
+        try {
+            output.writeByte(RecordCodec.productRecordType(product));
+            RecordCodec.writeProduct(output, product);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.hal9000.warehouse.inventory.adapter.out.snapshot;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+
+@ConstructorBinding
+@ConfigurationProperties("inventory.snapshot")
+public class SnapshotProperties {
+
+    private final Path importFile;
+    private final Path exportFile;
+
+    public SnapshotProperties(String importFile, String exportFile) {
+        this.importFile = importFile == null ? null : Paths.get(importFile);
+        this.exportFile = exportFile == null ? null : Paths.get(exportFile);
+    }
+
+    public Optional<Path> getImportFile() {
+        return Optional.ofNullable(importFile);
+    }
+
+    public Optional<Path> getExportFile() {
+        return Optional.ofNullable(exportFile);
+    }
+}
@@ -0,0 +1,293 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static java.util.Comparator.comparingInt;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProduct;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortBy;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortDirection;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import lombok.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Materialized view of the products that can currently be built. Only the products depending on changed
+ * articles are recomputed; each recomputation holds the lock stripe of its product, so the last writer
+ * always reads the latest stock. Everything is recomputed once the context is up, which picks up state the
+ * repositories recovered on startup. Every change of a product's quantity is published while its stripe is
+ * held, so its availability events are sequenced in the order they were computed.
+ * <p>
+ * Every change also claims the next availability version, and a product that runs out is kept with no
+ * quantity, so pollers can ask only for what changed after the version they last saw. The claimed versions
+ * whose change is not stored yet are tracked, and the version handed out stops right below the lowest of
+ * them, so every change up to it is already stored and no change ever waits for another one. The versions
+ * of every boot start from a random epoch held in their high bits, so a version handed out before a restart
+ * is never mistaken for one of the current boot, and asking for the changes since it lists every product.
+ * <p>
+ * A full recomputation, on startup or when a bulk update changed more articles than it is worth finding
+ * the products of, splits the catalogue's own product names among the workers of a fork-join pool; the
+ * per-product recomputations stay as they are, so they need no more coordination than concurrent sales.
+ * The one triggered by a bulk update runs in the background, and bulk updates arriving while one is
+ * still waiting to start share it.
+ */
+@Component
+@EnableConfigurationProperties(AvailabilityProperties.class)
+public class AvailabilityIndex {
+
+    private final ProductCatalogueRepository productCatalogueRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StockEventBus stockEventBus;
+    private final AvailabilityProperties availabilityProperties;
+    private final ForkJoinPool recomputePool;
+
+    @Value
+    private static class Availability {
+        int quantity;
+        long version;
+    }
+
+    private static final int REFRESH_LOCK_STRIPES = 256;
+    private static final int EPOCH_SHIFT = 40;
+    private static final long COUNTER_MASK = (1L << EPOCH_SHIFT) - 1;
+    private static final Comparator<AvailableProduct> BY_QUANTITY = comparingInt(AvailableProduct::getQuantity)
+        .thenComparing(AvailableProduct::getProductName);
+
+    private final Map<String, Availability> availabilities = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Integer> availableByName = new ConcurrentSkipListMap<>();
+    private final NavigableSet<AvailableProduct> availableByQuantity = new ConcurrentSkipListSet<>(BY_QUANTITY);
+    private final Object[] refreshLocks = new Object[REFRESH_LOCK_STRIPES];
+    private final NavigableSet<Long> unstoredVersions = new TreeSet<>();
+    private final long epoch = (long) ThreadLocalRandom.current().nextInt(1, 1 << (Long.SIZE - 1 - EPOCH_SHIFT)) << EPOCH_SHIFT;
+    private long version = epoch;
+    private final AtomicBoolean fullRecomputePending = new AtomicBoolean();
+
+    private class RecomputeTask extends RecursiveAction {
+
+        private final Spliterator<String> productNames;
+
+        RecomputeTask(Spliterator<String> productNames) {
+            this.productNames = productNames;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecomputeTask> forked = new ArrayList<>();
+            Spliterator<String> split;
+            while (productNames.estimateSize() > availabilityProperties.getRecomputeBatchSize() && (split = productNames.trySplit()) != null) {
+                RecomputeTask task = new RecomputeTask(split);
+                task.fork();
+                forked.add(task);
+            }
+            productNames.forEachRemaining(AvailabilityIndex.this::refresh);
+            forked.forEach(ForkJoinTask::join);
+        }
+    }
+
+    public AvailabilityIndex(ProductCatalogueRepository productCatalogueRepository, InventoryRepository inventoryRepository,
+                             StockEventBus stockEventBus, AvailabilityProperties availabilityProperties) {
+        this.productCatalogueRepository = productCatalogueRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.stockEventBus = stockEventBus;
+        this.availabilityProperties = availabilityProperties;
+        Arrays.setAll(refreshLocks, stripe -> new Object());
+        this.recomputePool = new ForkJoinPool(availabilityProperties.getParallelism(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("inventory-availability-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void stop() {
+        recomputePool.shutdownNow();
+    }
+
+    public void articlesChanged(Collection<Integer> articleIds) {
+        if (articleIds.size() > availabilityProperties.getFullRecomputeArticles()) {
+            recomputeAllInBackground();
+            return;
+        }
+        articleIds.stream()
+            .flatMap(articleId -> productCatalogueRepository.findProductsByArticleId(articleId).stream())
+            .map(Product::getName)
+            .distinct()
+            .forEach(this::refresh);
+    }
+
+    public void productsChanged(Collection<Product> products) {
+        products.stream()
+            .flatMap(product -> Stream.concat(Stream.of(product),
+                productCatalogueRepository.findProductsBySubAssembly(product.getName()).stream()))
+            .map(Product::getName)
+            .distinct()
+            .forEach(this::refresh);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void recomputeAll() {
+        recomputePool.invoke(new RecomputeTask(productCatalogueRepository.productNameSpliterator()));
+    }
+
+    /**
+     * Waits for the recomputations running in the background to finish.
+     */
+    public void drain() {
+        recomputePool.awaitQuiescence(1, MINUTES);
+    }
+
+    public Set<AvailableProduct> getAvailableProducts() {
+        return availableByName.entrySet().stream()
+            .map(availableProduct -> new AvailableProduct(availableProduct.getValue(), availableProduct.getKey()))
+            .collect(toSet());
+    }
+
+    /**
+     * Up to {@code limit} available products in the given order after the {@code after} product, which
+     * must itself match the filters.
+     */
+    public List<AvailableProduct> findAvailableProducts(String namePrefix, int minQuantity, SortBy sortBy, SortDirection sortDirection,
+                                                        AvailableProduct after, int limit) {
+        Stream<AvailableProduct> availableProducts = sortBy == SortBy.NAME ?
+            findByName(namePrefix, sortDirection, after) :
+            findByQuantity(minQuantity, sortDirection, after);
+        return availableProducts
+            .filter(availableProduct -> availableProduct.getQuantity() >= minQuantity && availableProduct.getProductName().startsWith(namePrefix))
+            .limit(limit)
+            .collect(toList());
+    }
+
+    /**
+     * Products whose available quantity changed after the given version, including the ones that are
+     * no longer available, with no quantity. A version of another boot gets every product.
+     */
+    public Set<AvailableProduct> getAvailableProductsChangedSince(long sinceVersion) {
+        long since = (sinceVersion & ~COUNTER_MASK) == epoch ? sinceVersion : epoch;
+        return availabilities.entrySet().stream()
+            .filter(availability -> availability.getValue().getVersion() > since)
+            .map(availability -> new AvailableProduct(availability.getValue().getQuantity(), availability.getKey()))
+            .collect(toSet());
+    }
+
+    public long getVersion() {
+        synchronized (unstoredVersions) {
+            return unstoredVersions.isEmpty() ? version : unstoredVersions.first() - 1;
+        }
+    }
+
+    private void recomputeAllInBackground() {
+        if (fullRecomputePending.compareAndSet(false, true)) {
+            recomputePool.execute(() -> {
+                fullRecomputePending.set(false);
+                recomputeAll();
+            });
+        }
+    }
+
+    private Stream<AvailableProduct> findByName(String namePrefix, SortDirection sortDirection, AvailableProduct after) {
+        NavigableMap<String, Integer> availableProducts = namePrefix.isEmpty() ?
+            availableByName :
+            availableByName.subMap(namePrefix, true, namePrefix + Character.MAX_VALUE, true);
+        if (sortDirection == SortDirection.DESC) {
+            availableProducts = availableProducts.descendingMap();
+        }
+        if (after != null) {
+            availableProducts = availableProducts.tailMap(after.getProductName(), false);
+        }
+        return availableProducts.entrySet().stream()
+            .map(availableProduct -> new AvailableProduct(availableProduct.getValue(), availableProduct.getKey()));
+    }
+
+    private Stream<AvailableProduct> findByQuantity(int minQuantity, SortDirection sortDirection, AvailableProduct after) {
+        NavigableSet<AvailableProduct> availableProducts = availableByQuantity.tailSet(new AvailableProduct(minQuantity, ""), true);
+        if (sortDirection == SortDirection.DESC) {
+            availableProducts = availableProducts.descendingSet();
+        }
+        if (after != null) {
+            availableProducts = availableProducts.tailSet(after, false);
+        }
+        return availableProducts.stream();
+    }
+
+    private void refresh(String productName) {
+        synchronized (refreshLocks[Math.floorMod(productName.hashCode(), REFRESH_LOCK_STRIPES)]) {
+            Availability previous = availabilities.get(productName);
+            int availableQuantity = productCatalogueRepository.findArticleRequirements(productName)
+                .map(this::findAvailableQuantity)
+                .filter(quantity -> quantity > 0)
+                .orElse(0);
+            if (availableQuantity == (previous == null ? 0 : previous.getQuantity())) {
+                return;
+            }
+            long claimedVersion = claimVersion();
+            availabilities.put(productName, new Availability(availableQuantity, claimedVersion));
+            stockEventBus.availabilityChanged(productName, availableQuantity);
+            if (previous != null && previous.getQuantity() > 0) {
+                availableByQuantity.remove(new AvailableProduct(previous.getQuantity(), productName));
+            }
+            if (availableQuantity > 0) {
+                availableByName.put(productName, availableQuantity);
+                availableByQuantity.add(new AvailableProduct(availableQuantity, productName));
+            } else {
+                availableByName.remove(productName);
+            }
+            stored(claimedVersion);
+        }
+    }
+
+    private long claimVersion() {
+        synchronized (unstoredVersions) {
+            unstoredVersions.add(++version);
+            return version;
+        }
+    }
+
+    private void stored(long claimedVersion) {
+        synchronized (unstoredVersions) {
+            unstoredVersions.remove(claimedVersion);
+        }
+    }
+
+    private int findAvailableQuantity(List<Product.Component> articleRequirements) {
+        return articleRequirements.stream()
+            .mapToInt(this::availableComponentUnits)
+            .min()
+            .orElse(0);
+    }
+
+    private int availableComponentUnits(Product.Component component) {
+        Integer articleUnitsInInventory = inventoryRepository.findArticleSupplyById(component.getArticleId())
+            .map(ArticleSupply::getQuantity)
+            .orElse(0);
+        return articleUnitsInInventory / component.getQuantity();
+    }
+}
@@ -0,0 +1,24 @@
+package com.hal9000.warehouse.inventory.application;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Getter
+@ConstructorBinding
+@ConfigurationProperties("inventory.availability")
+public class AvailabilityProperties {
+
+    private final int parallelism;
+    private final int recomputeBatchSize;
+    private final int fullRecomputeArticles;
+
+    public AvailabilityProperties(@DefaultValue("0") int parallelism,
+                                  @DefaultValue("1024") int recomputeBatchSize,
+                                  @DefaultValue("1024") int fullRecomputeArticles) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.recomputeBatchSize = recomputeBatchSize;
+        this.fullRecomputeArticles = fullRecomputeArticles;
+    }
+}
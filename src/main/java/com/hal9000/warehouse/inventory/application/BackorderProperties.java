@@ -0,0 +1,18 @@
+package com.hal9000.warehouse.inventory.application;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Getter
+@ConstructorBinding
+@ConfigurationProperties("inventory.backorder")
+public class BackorderProperties {
+
+    private final int maxPendingPerProduct;
+
+    public BackorderProperties(@DefaultValue("1000") int maxPendingPerProduct) {
+        this.maxPendingPerProduct = maxPendingPerProduct;
+    }
+}
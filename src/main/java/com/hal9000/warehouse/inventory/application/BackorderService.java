@@ -0,0 +1,268 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static com.hal9000.warehouse.inventory.port.in.BackorderUseCase.ErrorType.BACKORDERS_FULL;
+import static com.hal9000.warehouse.inventory.port.in.BackorderUseCase.ErrorType.INVALID_QUANTITY;
+import static com.hal9000.warehouse.inventory.port.in.BackorderUseCase.ErrorType.NON_EXISTENT_BACKORDER;
+import static com.hal9000.warehouse.inventory.port.in.BackorderUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.ArticleQuantity;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.StockEvent;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.Subscription;
+import com.hal9000.warehouse.inventory.port.out.AuditTrail;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sales that cannot be served yet wait in a FIFO queue of their product instead of being retried by
+ * their clients. The service follows the stock events, and articles added, restocked or returned wake
+ * a fulfiller thread that serves the queues of the products depending on them, oldest backorder first;
+ * a queue stops at the first backorder it cannot serve, so a later and smaller one never overtakes it.
+ * Every queue is served and cancelled under its own lock, so a backorder is either sold or cancelled,
+ * never both, and a queue is dropped under that lock once it is drained. A backorder is also served
+ * right after it is queued, in case its articles arrived between its failed take and its queuing.
+ * Backorders live in memory only and do not survive a restart.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(BackorderProperties.class)
+public class BackorderService implements BackorderUseCase {
+
+    @Value
+    private static class PendingBackorder {
+        Backorder backorder;
+        List<ArticleBatch> articleBatchList;
+    }
+
+    private final ProductCatalogueRepository productCatalogueRepository;
+    private final InventoryRepository inventoryRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final StockEventBus stockEventBus;
+    private final AuditTrail auditTrail;
+    private final UseCaseMetrics useCaseMetrics;
+    private final BackorderProperties backorderProperties;
+
+    private final Map<String, Deque<PendingBackorder>> queues = new ConcurrentHashMap<>();
+    private final Map<String, PendingBackorder> pendingBackorders = new ConcurrentHashMap<>();
+    private ExecutorService fulfiller;
+    private Subscription subscription;
+
+    public BackorderService(ProductCatalogueRepository productCatalogueRepository, InventoryRepository inventoryRepository,
+                            AvailabilityIndex availabilityIndex, StockEventBus stockEventBus, AuditTrail auditTrail,
+                            UseCaseMetrics useCaseMetrics, BackorderProperties backorderProperties) {
+        this.productCatalogueRepository = productCatalogueRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.stockEventBus = stockEventBus;
+        this.auditTrail = auditTrail;
+        this.useCaseMetrics = useCaseMetrics;
+        this.backorderProperties = backorderProperties;
+    }
+
+    @PostConstruct
+    public void start() {
+        fulfiller = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-backorders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        subscription = stockEventBus.subscribe(stockEventBus.getLastSequence(), this::stockChanged);
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscription.cancel();
+        fulfiller.shutdownNow();
+    }
+
+    public Backorder backorderProduct(BackorderProductIn backorderProductIn) {
+        return useCaseMetrics.backorderProduct.record(() -> backorder(backorderProductIn));
+    }
+
+    private Backorder backorder(BackorderProductIn backorderProductIn) {
+
+        if (backorderProductIn.getQuantity() <= 0) {
+            throw backorderException(INVALID_QUANTITY, "Product quantity must be > 0");
+        }
+
+        List<Product.Component> articleRequirements = productCatalogueRepository.findArticleRequirements(backorderProductIn.getProductName())
+            .orElseThrow(() -> backorderException(NON_EXISTENT_PRODUCT,
+                format("Product with name %s does not exist in catalogue", backorderProductIn.getProductName())));
+
+        List<ArticleBatch> articleBatchList;
+        try {
+            articleBatchList = ProductCatalogueService.getArticleBatchList(articleRequirements, backorderProductIn.getQuantity());
+        } catch (ArithmeticException exception) {
+            throw backorderException(INVALID_QUANTITY, format("Article quantities of %d units of product %s must be <= %d",
+                backorderProductIn.getQuantity(), backorderProductIn.getProductName(), Integer.MAX_VALUE));
+        }
+        Backorder backorder;
+        do {
+            backorder = tryToBackorder(backorderProductIn, articleBatchList);
+        } while (backorder == null);
+        if (backorder.getStatus() == BackorderStatus.FULFILLED) {
+            sold(backorder, articleBatchList);
+            return backorder;
+        }
+        log.debug("{} units of product '{}' were backordered by {}", backorder.getQuantity(), backorder.getProductName(),
+            backorder.getBackorderId());
+        fulfil(backorder.getProductName());
+        return pendingBackorders.containsKey(backorder.getBackorderId()) ?
+            backorder :
+            new Backorder(backorder.getBackorderId(), backorder.getProductName(), backorder.getQuantity(), BackorderStatus.FULFILLED);
+
+    }
+
+    /**
+     * Returns no backorder if the queue of the product was drained and dropped before it could be locked.
+     */
+    private Backorder tryToBackorder(BackorderProductIn backorderProductIn, List<ArticleBatch> articleBatchList) {
+        String productName = backorderProductIn.getProductName();
+        Deque<PendingBackorder> queue = queues.computeIfAbsent(productName, name -> new ArrayDeque<>());
+        synchronized (queue) {
+            if (queues.get(productName) != queue) {
+                return null;
+            }
+            if (queue.isEmpty() && inventoryRepository.takeFromInventory(new TakeFromInventoryIn(articleBatchList))) {
+                queues.remove(productName, queue);
+                return new Backorder(UUID.randomUUID().toString(), productName, backorderProductIn.getQuantity(), BackorderStatus.FULFILLED);
+            }
+            if (queue.size() >= backorderProperties.getMaxPendingPerProduct()) {
+                throw backorderException(BACKORDERS_FULL, format("Product %s has already %d pending backorders", productName, queue.size()));
+            }
+            Backorder backorder = new Backorder(UUID.randomUUID().toString(), productName, backorderProductIn.getQuantity(),
+                BackorderStatus.PENDING);
+            PendingBackorder pendingBackorder = new PendingBackorder(backorder, articleBatchList);
+            queue.add(pendingBackorder);
+            pendingBackorders.put(backorder.getBackorderId(), pendingBackorder);
+            return backorder;
+        }
+    }
+
+    public void cancelBackorder(String backorderId) {
+        PendingBackorder pendingBackorder = pendingBackorders.get(backorderId);
+        Deque<PendingBackorder> queue = pendingBackorder == null ? null : queues.get(pendingBackorder.getBackorder().getProductName());
+        if (queue != null) {
+            String productName = pendingBackorder.getBackorder().getProductName();
+            boolean cancelled;
+            boolean head;
+            synchronized (queue) {
+                cancelled = pendingBackorders.remove(backorderId, pendingBackorder);
+                head = queue.peek() == pendingBackorder;
+                queue.remove(pendingBackorder);
+                if (queue.isEmpty()) {
+                    queues.remove(productName, queue);
+                }
+            }
+            if (cancelled) {
+                log.debug("Backorder {} was cancelled", backorderId);
+                if (head) {
+                    fulfil(productName);
+                }
+                return;
+            }
+        }
+        throw backorderException(NON_EXISTENT_BACKORDER, format("Backorder %s does not exist, or was already fulfilled or cancelled", backorderId));
+    }
+
+    /**
+     * Serves the queues of the products depending on the given articles, or of every product when no
+     * articles are given.
+     */
+    void fulfil(Collection<Integer> articleIds) {
+        List<String> productNames = articleIds.isEmpty() ?
+            new ArrayList<>(queues.keySet()) :
+            articleIds.stream()
+                .flatMap(articleId -> productCatalogueRepository.findProductsByArticleId(articleId).stream())
+                .map(Product::getName)
+                .distinct()
+                .filter(queues::containsKey)
+                .collect(toList());
+        productNames.forEach(this::fulfil);
+    }
+
+    private void fulfil(String productName) {
+        Deque<PendingBackorder> queue = queues.get(productName);
+        if (queue == null) {
+            return;
+        }
+        List<PendingBackorder> fulfilled = new ArrayList<>();
+        synchronized (queue) {
+            PendingBackorder pendingBackorder;
+            while ((pendingBackorder = queue.peek()) != null
+                && inventoryRepository.takeFromInventory(new TakeFromInventoryIn(pendingBackorder.getArticleBatchList()))) {
+                queue.poll();
+                pendingBackorders.remove(pendingBackorder.getBackorder().getBackorderId());
+                fulfilled.add(pendingBackorder);
+            }
+            if (queue.isEmpty()) {
+                queues.remove(productName, queue);
+            }
+        }
+        for (PendingBackorder pendingBackorder : fulfilled) {
+            Backorder backorder = pendingBackorder.getBackorder();
+            sold(backorder, pendingBackorder.getArticleBatchList());
+            stockEventBus.backorderFulfilled(backorder.getBackorderId(), productName, backorder.getQuantity());
+            log.debug("Backorder {} of {} units of product '{}' was fulfilled", backorder.getBackorderId(), backorder.getQuantity(), productName);
+        }
+    }
+
+    private void stockChanged(StockEvent stockEvent) {
+        if (pendingBackorders.isEmpty()) {
+            return;
+        }
+        switch (stockEvent.getType()) {
+            case ARTICLES_ADDED:
+            case ARTICLES_RESTOCKED:
+            case ARTICLES_RETURNED:
+            case EVENTS_LOST:
+                List<Integer> articleIds = stockEvent.getArticles().stream()
+                    .map(ArticleQuantity::getArticleId)
+                    .collect(toList());
+                fulfiller.execute(() -> {
+                    try {
+                        fulfil(articleIds);
+                    } catch (RuntimeException exception) {
+                        log.error("Backorders could not be fulfilled after {} event {}", stockEvent.getType(), stockEvent.getSequence(), exception);
+                    }
+                });
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void sold(Backorder backorder, List<ArticleBatch> articleBatchList) {
+        availabilityIndex.articlesChanged(articleBatchList.stream()
+            .map(ArticleBatch::getArticleId)
+            .collect(toList()));
+        useCaseMetrics.productSold();
+        auditTrail.productSold(backorder.getProductName(), backorder.getQuantity());
+    }
+
+    private BackorderException backorderException(ErrorType errorType, String message) {
+        log.error("{}: {}", BackorderException.class.getSimpleName(), message);
+        return new BackorderException(errorType, message);
+    }
+}
@@ -0,0 +1,60 @@
+package com.hal9000.warehouse.inventory.application;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of ints that also keeps them in insertion order, so distinct ids are gathered
+ * without boxing and handed on as a plain array.
+ */
+class IntHashSet {
+
+    private int[] slots;
+    private boolean[] used;
+    private int[] elements;
+    private int size;
+
+    IntHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        slots = new int[capacity];
+        used = new boolean[capacity];
+        elements = new int[capacity / 2];
+    }
+
+    boolean add(int value) {
+        int mask = slots.length - 1;
+        int slot = hash(value) & mask;
+        while (used[slot]) {
+            if (slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        slots[slot] = value;
+        elements[size++] = value;
+        if (size == elements.length) {
+            grow();
+        }
+        return true;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    private void grow() {
+        int[] values = elements;
+        slots = new int[slots.length * 2];
+        used = new boolean[slots.length];
+        elements = new int[slots.length / 2];
+        size = 0;
+        for (int value : values) {
+            add(value);
+        }
+    }
+
+    private static int hash(int value) {
+        int hash = value * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,14 +1,19 @@
 package com.hal9000.warehouse.inventory.application;
 
 import static com.hal9000.warehouse.inventory.port.in.InventoryUseCase.ErrorType.INVALID_QUANTITY;
-import static org.springframework.util.StringUtils.arrayToCommaDelimitedString;
+import static com.hal9000.warehouse.inventory.port.in.InventoryUseCase.ErrorType.NON_EXISTENT_LOCATION;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
 
 import com.hal9000.warehouse.inventory.domain.ArticleSupply;
 import com.hal9000.warehouse.inventory.port.in.InventoryUseCase;
+import com.hal9000.warehouse.inventory.port.out.AuditTrail;
 import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -17,30 +22,61 @@ import org.springframework.stereotype.Component;
 public class InventoryService implements InventoryUseCase {
 
     private final InventoryRepository inventoryRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final StockEventBus stockEventBus;
+    private final AuditTrail auditTrail;
+    private final UseCaseMetrics useCaseMetrics;
 
     public void addToInventory(AddInventoryIn addInventoryIn) {
+        useCaseMetrics.addToInventory.record(() -> addArticles(addInventoryIn));
+    }
+
+    private void addArticles(AddInventoryIn addInventoryIn) {
 
         if (invalidQuantitiesFound(addInventoryIn)) {
-            raiseError("All article quantities must be >= 0");
+            raiseError(INVALID_QUANTITY, addInventoryIn.getRestockMode() == RestockMode.ADD ?
+                "All article quantities added must be > 0" : "All article quantities must be >= 0");
+        }
+        if (addInventoryIn.getLocation() != null && !inventoryRepository.getLocations().contains(addInventoryIn.getLocation())) {
+            raiseError(NON_EXISTENT_LOCATION, format("Location %s does not exist", addInventoryIn.getLocation()));
         }
 
-        inventoryRepository.addToInventory(new InventoryRepository.AddInventoryIn(addInventoryIn.getArticleSupplies()));
-        log.info("Articles '{}' were added to inventory", getArticleNames(addInventoryIn.getArticleSupplies()));
+        boolean increment = addInventoryIn.getRestockMode() == RestockMode.ADD;
+        try {
+            inventoryRepository.addToInventory(new InventoryRepository.AddInventoryIn(addInventoryIn.getArticleSupplies(), increment,
+                addInventoryIn.getLocation()));
+        } catch (ArithmeticException exception) {
+            raiseError(INVALID_QUANTITY, format("The stock of every article restocked must stay <= %d", Integer.MAX_VALUE));
+        }
+        availabilityIndex.articlesChanged(addInventoryIn.getArticleSupplies().stream()
+            .map(articleSupply -> articleSupply.getArticle().getId())
+            .collect(toList()));
+        auditTrail.articlesAdded(addInventoryIn.getArticleSupplies().size(), addInventoryIn.getArticleSupplies().stream()
+            .mapToLong(ArticleSupply::getQuantity)
+            .sum());
+        log.info("{} articles were added to inventory", addInventoryIn.getArticleSupplies().size());
     }
 
     private boolean invalidQuantitiesFound(AddInventoryIn addInventoryIn) {
+        int minQuantity = addInventoryIn.getRestockMode() == RestockMode.ADD ? 1 : 0;
         return addInventoryIn.getArticleSupplies().stream()
-            .anyMatch(articleSupply -> articleSupply.getQuantity() <= 0);
+            .anyMatch(articleSupply -> articleSupply.getQuantity() < minQuantity);
+    }
+
+    /**
+     * Publishes the changes of the stock from inside the repository, once it recovered its state on startup.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void publishStockChanges() {
+        inventoryRepository.addStockChangeListener(stockEventBus);
     }
 
-    private String getArticleNames(List<ArticleSupply> articleSupplies) {
-        return arrayToCommaDelimitedString(articleSupplies.stream()
-            .map(articleSupply -> articleSupply.getArticle().getName())
-            .toArray());
+    public List<String> getLocations() {
+        return inventoryRepository.getLocations();
     }
 
-    private void raiseError(String message) {
+    private void raiseError(ErrorType errorType, String message) {
         log.error("{}: {}", InventoryException.class.getSimpleName(), message);
-        throw new InventoryException(INVALID_QUANTITY, message);
+        throw new InventoryException(errorType, message);
     }
 }
@@ -1,21 +1,46 @@
 package com.hal9000.warehouse.inventory.application;
 
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.BATCH_ABORTED;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.CYCLIC_SUB_ASSEMBLIES;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.INVALID_PAGE;
 import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.INVALID_QUANTITY;
 import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_ARTICLES;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_LOCATION;
 import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NOT_ENOUGH_SUPPLIES;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.VERSION_CONFLICT;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SellMode.BEST_EFFORT;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.nCopies;
+import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Collectors.toMap;
 import static org.springframework.util.StringUtils.arrayToCommaDelimitedString;
 
-import com.hal9000.warehouse.inventory.domain.ArticleSupply;
 import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase;
+import com.hal9000.warehouse.inventory.port.out.AuditTrail;
 import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
 import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ConditionalTakeIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryBatchIn;
 import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeOutcome;
 import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -25,86 +50,371 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class ProductCatalogueService implements ProductCatalogueUseCase {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ProductCatalogueRepository productCatalogueRepository;
     private final InventoryRepository inventoryRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final StockEventBus stockEventBus;
+    private final AuditTrail auditTrail;
+    private final UseCaseMetrics useCaseMetrics;
 
 
     public void addToCatalogue(ProductCatalogueIn productCatalogueIn) {
+        useCaseMetrics.addToCatalogue.record(() -> addProducts(productCatalogueIn));
+    }
 
-        List<Product.Component> componentList = productCatalogueIn.getProductList().stream()
-            .flatMap(product -> product.getComponents().stream()).collect(toList());
+    private void addProducts(ProductCatalogueIn productCatalogueIn) {
 
-        if (componentList.stream().anyMatch(component -> component.getQuantity() <= 0)) {
-            throw productCatalogueException(INVALID_QUANTITY, "Article quantities must be > 0");
+        IntHashSet articleIds = new IntHashSet(productCatalogueIn.getProductList().size());
+        for (Product product : productCatalogueIn.getProductList()) {
+            for (Product.Component component : product.getComponents()) {
+                if (component.getQuantity() <= 0) {
+                    throw productCatalogueException(INVALID_QUANTITY, "Article quantities must be > 0");
+                }
+                articleIds.add(component.getArticleId());
+            }
+            for (Product.SubAssembly subAssembly : product.getSubAssemblies()) {
+                if (subAssembly.getQuantity() <= 0) {
+                    throw productCatalogueException(INVALID_QUANTITY, "Sub-assembly quantities must be > 0");
+                }
+            }
         }
 
-        List<Integer> articleIdsNotInInventory = getArticleIdsNotInInventory(componentList);
+        int[] articleIdsNotInInventory = inventoryRepository.findArticleIdsNotInInventory(articleIds.toArray());
 
-        if (!articleIdsNotInInventory.isEmpty())
+        if (articleIdsNotInInventory.length > 0)
             throw productCatalogueException(NON_EXISTENT_ARTICLES, format("Articles with IDs %s are not in inventory",
-                arrayToCommaDelimitedString(articleIdsNotInInventory.toArray())));
+                arrayToCommaDelimitedString(Arrays.stream(articleIdsNotInInventory).boxed().toArray())));
+
+        Map<String, Product> addedProducts = productCatalogueIn.getProductList().stream()
+            .collect(toMap(Product::getName, identity(), (previousProduct, product) -> product));
+
+        List<String> subAssembliesNotInCatalogue = productCatalogueIn.getProductList().stream()
+            .flatMap(product -> product.getSubAssemblies().stream())
+            .map(Product.SubAssembly::getProductName)
+            .filter(productName -> findProduct(productName, addedProducts).isEmpty())
+            .distinct()
+            .collect(toList());
 
-        productCatalogueRepository.addToCatalogue(new ProductCatalogueRepository.ProductCatalogueIn(productCatalogueIn.getProductList()));
-        log.info ("Products '{}' where added to product catalogue", getProductNames(productCatalogueIn.getProductList()));
+        if (!subAssembliesNotInCatalogue.isEmpty())
+            throw productCatalogueException(NON_EXISTENT_PRODUCT, format("Sub-assemblies %s are not in catalogue",
+                arrayToCommaDelimitedString(subAssembliesNotInCatalogue.toArray())));
+
+        try {
+            productCatalogueRepository.addToCatalogue(new ProductCatalogueRepository.ProductCatalogueIn(productCatalogueIn.getProductList()),
+                () -> {
+                    Optional<List<String>> cycle = findCycle(addedProducts);
+                    if (cycle.isPresent())
+                        throw productCatalogueException(CYCLIC_SUB_ASSEMBLIES, format("Product %s contains itself through %s",
+                            cycle.get().get(0), String.join(" > ", cycle.get())));
+                });
+        } catch (ArithmeticException exception) {
+            throw productCatalogueException(INVALID_QUANTITY,
+                format("Article quantities of a product, its sub-assemblies included, must be <= %d", Integer.MAX_VALUE));
+        }
+        stockEventBus.catalogueUpdated(productCatalogueIn.getProductList());
+        availabilityIndex.productsChanged(productCatalogueIn.getProductList());
+        auditTrail.catalogueUpdated(productCatalogueIn.getProductList().size());
+        log.info("{} products were added to product catalogue", productCatalogueIn.getProductList().size());
 
     }
 
-    private String getProductNames(List<Product> productList) {
-        return arrayToCommaDelimitedString(productList.stream()
-            .map(Product::getName)
-            .toArray());
+
+    private Optional<List<String>> findCycle(Map<String, Product> addedProducts) {
+        Set<String> acyclicProductNames = new HashSet<>();
+        for (String productName : addedProducts.keySet()) {
+            Deque<String> path = new ArrayDeque<>();
+            if (containsCycle(productName, addedProducts, path, acyclicProductNames)) {
+                List<String> cyclicPath = new ArrayList<>(path);
+                return Optional.of(cyclicPath.subList(cyclicPath.indexOf(path.getLast()), cyclicPath.size()));
+            }
+        }
+        return Optional.empty();
     }
 
+    private boolean containsCycle(String productName, Map<String, Product> addedProducts, Deque<String> path,
+                                  Set<String> acyclicProductNames) {
+        if (acyclicProductNames.contains(productName)) {
+            return false;
+        }
+        boolean revisited = path.contains(productName);
+        path.addLast(productName);
+        if (revisited) {
+            return true;
+        }
+        for (Product.SubAssembly subAssembly : findProduct(productName, addedProducts).map(Product::getSubAssemblies).orElse(emptyList())) {
+            if (containsCycle(subAssembly.getProductName(), addedProducts, path, acyclicProductNames)) {
+                return true;
+            }
+        }
+        path.removeLast();
+        acyclicProductNames.add(productName);
+        return false;
+    }
 
-    private List<Integer> getArticleIdsNotInInventory(List<Product.Component> componentList) {
-        return componentList.stream()
-            .map(Product.Component::getArticleId)
-            .filter(articleId -> inventoryRepository.findArticleSupplyById(articleId).isEmpty())
-            .collect(toList());
+    private Optional<Product> findProduct(String productName, Map<String, Product> addedProducts) {
+        return Optional.ofNullable(addedProducts.get(productName))
+            .or(() -> productCatalogueRepository.findProductByName(productName));
     }
 
     public boolean sellProduct(String productName, int productQuantity) {
+        return sellProduct(productName, productQuantity, Map.of());
+    }
+
+    public boolean sellProduct(String productName, int productQuantity, Map<Integer, Long> articleVersions) {
+        return useCaseMetrics.sellProduct.record(() -> sell(productName, productQuantity, articleVersions, null));
+    }
+
+    public boolean sellProductNear(String productName, int productQuantity, String location) {
+        return useCaseMetrics.sellProduct.record(() -> {
+            if (!inventoryRepository.getLocations().contains(location)) {
+                useCaseMetrics.productRejected(NON_EXISTENT_LOCATION);
+                throw productCatalogueException(NON_EXISTENT_LOCATION, format("Location %s does not exist", location));
+            }
+            return sell(productName, productQuantity, Map.of(), location);
+        });
+    }
 
-        if (productQuantity <= 0)
+    private boolean sell(String productName, int productQuantity, Map<Integer, Long> articleVersions, String location) {
+
+        if (productQuantity <= 0) {
+            useCaseMetrics.productRejected(INVALID_QUANTITY);
             throw productCatalogueException(INVALID_QUANTITY, "Product quantity must be > 0");
+        }
 
-        return productCatalogueRepository.findProductByName(productName)
-            .map(Product::getComponents)
-            .map(componentList -> tryToTakeFromInventory(productName, productQuantity, componentList))
-            .orElseThrow(() -> productCatalogueException(NON_EXISTENT_PRODUCT, format("Product with name %s does not exist in catalogue", productName)));
+        Optional<SellPlan> sellPlan = productCatalogueRepository.findSellPlan(productName);
+        if (sellPlan.isEmpty()) {
+            useCaseMetrics.productRejected(NON_EXISTENT_PRODUCT);
+            throw productCatalogueException(NON_EXISTENT_PRODUCT, format("Product with name %s does not exist in catalogue", productName));
+        }
+        try {
+            Math.multiplyExact(sellPlan.get().getMaxUnitQuantity(), productQuantity);
+        } catch (ArithmeticException exception) {
+            useCaseMetrics.productRejected(INVALID_QUANTITY);
+            throw productCatalogueException(INVALID_QUANTITY, format("Article quantities of %d units of product %s must be <= %d",
+                productQuantity, productName, Integer.MAX_VALUE));
+        }
+        return tryToTakeFromInventory(productName, productQuantity, sellPlan.get(), articleVersions, location);
 
     }
 
-    private boolean tryToTakeFromInventory(String productName, int productQuantity, List<Product.Component> componentList) {
-        boolean success = inventoryRepository.takeFromInventory(
-            new TakeFromInventoryIn(componentList.stream()
-                .map(component -> new ArticleBatch(component.getArticleId(), component.getQuantity() * productQuantity))
-                .collect(toList())));
-        log.info ("{} units of product '{}' " + (success ? "were sold" : "could not be sold"), productQuantity, productName);
+    private boolean tryToTakeFromInventory(String productName, int productQuantity, SellPlan sellPlan,
+                                           Map<Integer, Long> articleVersions, String location) {
+        TakeOutcome outcome = takeFromInventory(productQuantity, sellPlan, articleVersions, location);
+        if (outcome == TakeOutcome.VERSION_CONFLICT) {
+            useCaseMetrics.productRejected(VERSION_CONFLICT);
+            throw productCatalogueException(VERSION_CONFLICT, format("Stock of product %s changed since it was read", productName));
+        }
+        boolean success = outcome == TakeOutcome.TAKEN;
+        if (success) {
+            availabilityIndex.articlesChanged(sellPlan.getArticleIdList());
+            useCaseMetrics.productSold();
+            auditTrail.productSold(productName, productQuantity);
+        } else {
+            useCaseMetrics.productRejected(NOT_ENOUGH_SUPPLIES);
+            log.debug("{} units of product '{}' could not be sold", productQuantity, productName);
+        }
         return success;
     }
 
-    public AvailableProducts getAvailableProducts() {
-        log.info("Requested available products");
-        return new AvailableProducts(
-            productCatalogueRepository.findAllProducts().stream()
-            .map(product -> new AvailableProduct(findAvailableQuantity(product), product.getName()))
-            .filter(availableProduct -> availableProduct.getQuantity() > 0)
-            .collect(toSet()));
+    /**
+     * Plain sales take by the sell plan itself; only conditional sales and sales near a location build
+     * article batches from it.
+     */
+    private TakeOutcome takeFromInventory(int productQuantity, SellPlan sellPlan, Map<Integer, Long> articleVersions, String location) {
+        if (!articleVersions.isEmpty()) {
+            return inventoryRepository.takeFromInventory(new ConditionalTakeIn(
+                new TakeFromInventoryIn(sellPlan, productQuantity, location).getArticleBatchList(), articleVersions));
+        }
+        boolean taken = location == null ?
+            inventoryRepository.takeFromInventory(sellPlan, productQuantity) :
+            inventoryRepository.takeFromInventory(new TakeFromInventoryIn(sellPlan, productQuantity, location));
+        return taken ? TakeOutcome.TAKEN : TakeOutcome.NOT_ENOUGH_SUPPLIES;
     }
 
-    private int findAvailableQuantity(Product product) {
-        return product.getComponents().stream()
-            .mapToInt(this::availableComponentUnits)
+    public SoldProducts sellProducts(SellProductsIn sellProductsIn) {
+        return useCaseMetrics.sellProducts.record(() -> sell(sellProductsIn));
+    }
+
+    private SoldProducts sell(SellProductsIn sellProductsIn) {
+
+        List<SellProductIn> sellProductList = sellProductsIn.getSellProductList();
+        boolean allOrNothing = sellProductsIn.getSellMode() != BEST_EFFORT;
+
+        ErrorType[] errorTypes = new ErrorType[sellProductList.size()];
+        TakeFromInventoryIn[] takeFromInventoryIns = new TakeFromInventoryIn[sellProductList.size()];
+        for (int i = 0; i < sellProductList.size(); i++) {
+            SellProductIn sellProductIn = sellProductList.get(i);
+            Optional<List<Product.Component>> articleRequirements =
+                productCatalogueRepository.findArticleRequirements(sellProductIn.getProductName());
+            if (sellProductIn.getQuantity() <= 0) {
+                errorTypes[i] = INVALID_QUANTITY;
+            } else if (articleRequirements.isEmpty()) {
+                errorTypes[i] = NON_EXISTENT_PRODUCT;
+            } else {
+                try {
+                    takeFromInventoryIns[i] = new TakeFromInventoryIn(getArticleBatchList(articleRequirements.get(), sellProductIn.getQuantity()));
+                } catch (ArithmeticException exception) {
+                    errorTypes[i] = INVALID_QUANTITY;
+                }
+            }
+        }
+
+        List<Integer> validLines = IntStream.range(0, sellProductList.size())
+            .filter(line -> errorTypes[line] == null)
+            .boxed()
+            .collect(toList());
+
+        List<Boolean> taken = allOrNothing && validLines.size() < sellProductList.size() ?
+            nCopies(validLines.size(), false) :
+            inventoryRepository.takeFromInventory(new TakeFromInventoryBatchIn(
+                validLines.stream()
+                    .map(line -> takeFromInventoryIns[line])
+                    .collect(toList()),
+                allOrNothing));
+
+        boolean[] sold = new boolean[sellProductList.size()];
+        for (int i = 0; i < validLines.size(); i++) {
+            int line = validLines.get(i);
+            sold[line] = taken.get(i);
+            if (!sold[line]) {
+                errorTypes[line] = !allOrNothing || validLines.size() == sellProductList.size() ? NOT_ENOUGH_SUPPLIES : BATCH_ABORTED;
+            }
+        }
+
+        availabilityIndex.articlesChanged(IntStream.range(0, sellProductList.size())
+            .filter(line -> sold[line])
+            .boxed()
+            .flatMap(line -> takeFromInventoryIns[line].getArticleBatchList().stream())
+            .map(ArticleBatch::getArticleId)
+            .distinct()
+            .collect(toList()));
+        for (int line = 0; line < sellProductList.size(); line++) {
+            if (sold[line]) {
+                useCaseMetrics.productSold();
+                auditTrail.productSold(sellProductList.get(line).getProductName(), sellProductList.get(line).getQuantity());
+            } else if (errorTypes[line] != null) {
+                useCaseMetrics.productRejected(errorTypes[line]);
+            }
+        }
+        log.debug("{} of {} product lines were sold", validLines.stream().filter(line -> sold[line]).count(), sellProductList.size());
+
+        return new SoldProducts(IntStream.range(0, sellProductList.size())
+            .mapToObj(line -> new SoldProduct(sellProductList.get(line).getProductName(), sellProductList.get(line).getQuantity(),
+                sold[line], errorTypes[line]))
+            .collect(toList()));
+    }
+
+    /**
+     * Throws an {@link ArithmeticException} if the quantity of an article does not fit in an int.
+     */
+    static List<ArticleBatch> getArticleBatchList(List<Product.Component> articleRequirements, int productQuantity) {
+        return articleRequirements.stream()
+            .map(component -> new ArticleBatch(component.getArticleId(), Math.multiplyExact(component.getQuantity(), productQuantity)))
+            .collect(toList());
+    }
+
+    public ProductStock getProductStock(String productName) {
+        List<Product.Component> articleRequirements = productCatalogueRepository.findArticleRequirements(productName)
+            .orElseThrow(() -> productCatalogueException(NON_EXISTENT_PRODUCT, format("Product with name %s does not exist in catalogue", productName)));
+
+        List<ArticleStock> articleStockList = articleRequirements.stream()
+            .map(component -> inventoryRepository.findArticleSupplyById(component.getArticleId())
+                .map(articleSupply -> new ArticleStock(component.getArticleId(), articleSupply.getQuantity(), articleSupply.getVersion()))
+                .orElse(new ArticleStock(component.getArticleId(), 0, 0)))
+            .collect(toList());
+        int quantity = IntStream.range(0, articleRequirements.size())
+            .map(i -> articleStockList.get(i).getQuantity() / articleRequirements.get(i).getQuantity())
             .min()
             .orElse(0);
+        return new ProductStock(productName, quantity, articleStockList);
     }
 
-    private int availableComponentUnits(Product.Component component) {
-        Integer articleUnitsInInventory = inventoryRepository.findArticleSupplyById(component.getArticleId())
-            .map(ArticleSupply::getQuantity)
-            .orElse(0);
-        return articleUnitsInInventory / component.getQuantity();
+    public AvailableProducts getAvailableProducts() {
+        return useCaseMetrics.getAvailableProducts.record(() -> new AvailableProducts(availabilityIndex.getAvailableProducts()));
+    }
+
+    public AvailableProducts getAvailableProducts(long sinceVersion) {
+        return useCaseMetrics.getAvailableProducts.record(() -> new AvailableProducts(availabilityIndex.getAvailableProductsChangedSince(sinceVersion)));
+    }
+
+    /**
+     * Computed from the stock of the location on every call, as the availability index only follows the
+     * stock of all the locations together.
+     */
+    public AvailableProducts getAvailableProductsAt(String location) {
+        return useCaseMetrics.getAvailableProducts.record(() -> findAvailableProductsAt(location));
+    }
+
+    private AvailableProducts findAvailableProductsAt(String location) {
+        if (!inventoryRepository.getLocations().contains(location)) {
+            throw productCatalogueException(NON_EXISTENT_LOCATION, format("Location %s does not exist", location));
+        }
+        Set<AvailableProduct> availableProducts = new HashSet<>();
+        productCatalogueRepository.forEachProduct(product -> productCatalogueRepository.findArticleRequirements(product.getName())
+            .ifPresent(componentList -> {
+                int quantity = componentList.stream()
+                    .mapToInt(component -> inventoryRepository.findArticleSupplyById(location, component.getArticleId())
+                        .map(articleSupply -> articleSupply.getQuantity() / component.getQuantity())
+                        .orElse(0))
+                    .min()
+                    .orElse(0);
+                if (quantity > 0) {
+                    availableProducts.add(new AvailableProduct(quantity, product.getName()));
+                }
+            }));
+        return new AvailableProducts(availableProducts);
+    }
+
+    /**
+     * The cursor of a page is its last product, so the next page continues after it however the products
+     * before it changed in between.
+     */
+    public AvailableProductsPage getAvailableProducts(AvailableProductsQuery availableProductsQuery) {
+        return useCaseMetrics.getAvailableProducts.record(() -> findAvailableProducts(availableProductsQuery));
+    }
+
+    private AvailableProductsPage findAvailableProducts(AvailableProductsQuery query) {
+        if (query.getLimit() <= 0 || query.getLimit() > MAX_PAGE_SIZE) {
+            throw productCatalogueException(INVALID_PAGE, format("Page size must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        String namePrefix = Optional.ofNullable(query.getNamePrefix()).orElse("");
+        AvailableProduct after = Optional.ofNullable(query.getCursor())
+            .map(cursor -> getCursorProduct(cursor, query.getSortBy()))
+            .orElse(null);
+        if (after != null && (!after.getProductName().startsWith(namePrefix) || after.getQuantity() < query.getMinQuantity())) {
+            throw productCatalogueException(INVALID_PAGE, "Cursor does not belong to this query");
+        }
+
+        List<AvailableProduct> availableProducts = availabilityIndex.findAvailableProducts(namePrefix, query.getMinQuantity(),
+            query.getSortBy(), query.getSortDirection(), after, query.getLimit() + 1);
+        if (availableProducts.size() <= query.getLimit()) {
+            return new AvailableProductsPage(availableProducts, null);
+        }
+        List<AvailableProduct> page = availableProducts.subList(0, query.getLimit());
+        return new AvailableProductsPage(page, getCursor(page.get(page.size() - 1), query.getSortBy()));
+    }
+
+    private static String getCursor(AvailableProduct availableProduct, SortBy sortBy) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(format("%s:%d:%s", sortBy, availableProduct.getQuantity(), availableProduct.getProductName()).getBytes(UTF_8));
+    }
+
+    private AvailableProduct getCursorProduct(String cursor, SortBy sortBy) {
+        try {
+            String[] fields = new String(Base64.getUrlDecoder().decode(cursor), UTF_8).split(":", 3);
+            if (fields.length == 3 && fields[0].equals(sortBy.toString())) {
+                return new AvailableProduct(Integer.parseInt(fields[1]), fields[2]);
+            }
+        } catch (IllegalArgumentException exception) {
+            log.debug("Malformed cursor {}", cursor, exception);
+        }
+        throw productCatalogueException(INVALID_PAGE, format("Invalid cursor %s", cursor));
+    }
+
+    public long getAvailabilityVersion() {
+        return availabilityIndex.getVersion();
     }
 
     private ProductCatalogueException productCatalogueException(ErrorType errorType, String message) {
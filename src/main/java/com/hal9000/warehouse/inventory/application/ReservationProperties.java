@@ -0,0 +1,25 @@
+package com.hal9000.warehouse.inventory.application;
+
+import java.time.Duration;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Getter
+@ConstructorBinding
+@ConfigurationProperties("inventory.reservation")
+public class ReservationProperties {
+
+    private final Duration timeToLive;
+    private final Duration maxTimeToLive;
+    private final Duration tick;
+
+    public ReservationProperties(@DefaultValue("15m") Duration timeToLive,
+                                 @DefaultValue("1h") Duration maxTimeToLive,
+                                 @DefaultValue("1s") Duration tick) {
+        this.timeToLive = timeToLive;
+        this.maxTimeToLive = maxTimeToLive;
+        this.tick = tick;
+    }
+}
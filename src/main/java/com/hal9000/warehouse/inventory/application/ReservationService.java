@@ -0,0 +1,204 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ErrorType.INVALID_QUANTITY;
+import static com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ErrorType.INVALID_TIME_TO_LIVE;
+import static com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ErrorType.NON_EXISTENT_RESERVATION;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase;
+import com.hal9000.warehouse.inventory.port.out.AuditTrail;
+import com.hal9000.warehouse.inventory.port.out.HoldJournal;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryOut;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds take their articles from the inventory right away, so the available products never count held
+ * stock and a confirmation cannot fail for lack of supplies; a release or an expiry returns them. The
+ * expiries are kept in a timer wheel advanced every tick, so holds are expired at most one tick late
+ * without scanning the active ones. A hold remembers the location that served its take, so its articles go
+ * back to that location. Every hold is recorded in the hold journal before its reservation is handed out
+ * and its end before its articles are returned, so a crash in between can at worst lose the articles of
+ * that hold, never return them twice; the articles of the holds still open when the service stopped are
+ * returned on the next startup.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(ReservationProperties.class)
+public class ReservationService implements ReservationUseCase {
+
+    private static final int WHEEL_SLOTS = 1024;
+
+    @Value
+    private static class Hold {
+        Reservation reservation;
+        List<ArticleBatch> articleBatchList;
+        String location;
+    }
+
+    private final ProductCatalogueRepository productCatalogueRepository;
+    private final InventoryRepository inventoryRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final AuditTrail auditTrail;
+    private final HoldJournal holdJournal;
+    private final UseCaseMetrics useCaseMetrics;
+    private final ReservationProperties reservationProperties;
+
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final TimerWheel<Hold> expiries;
+    private ScheduledExecutorService scheduler;
+
+    public ReservationService(ProductCatalogueRepository productCatalogueRepository, InventoryRepository inventoryRepository,
+                              AvailabilityIndex availabilityIndex, AuditTrail auditTrail,
+                              HoldJournal holdJournal, UseCaseMetrics useCaseMetrics, ReservationProperties reservationProperties) {
+        this.productCatalogueRepository = productCatalogueRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.auditTrail = auditTrail;
+        this.holdJournal = holdJournal;
+        this.useCaseMetrics = useCaseMetrics;
+        this.reservationProperties = reservationProperties;
+        this.expiries = new TimerWheel<>(reservationProperties.getTick().toMillis(), WHEEL_SLOTS, System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-reservations");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = reservationProperties.getTick().toMillis();
+        scheduler.scheduleAtFixedRate(() -> expireHolds(System.currentTimeMillis()), tick, tick, MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public Optional<Reservation> holdProduct(HoldProductIn holdProductIn) {
+        return useCaseMetrics.holdProduct.record(() -> hold(holdProductIn));
+    }
+
+    private Optional<Reservation> hold(HoldProductIn holdProductIn) {
+
+        if (holdProductIn.getQuantity() <= 0) {
+            throw reservationException(INVALID_QUANTITY, "Product quantity must be > 0");
+        }
+
+        Duration timeToLive = Optional.ofNullable(holdProductIn.getTimeToLive()).orElse(reservationProperties.getTimeToLive());
+        if (timeToLive.isNegative() || timeToLive.isZero() || timeToLive.compareTo(reservationProperties.getMaxTimeToLive()) > 0) {
+            throw reservationException(INVALID_TIME_TO_LIVE, format("Time to live must be > 0 and <= %s", reservationProperties.getMaxTimeToLive()));
+        }
+
+        List<Product.Component> articleRequirements = productCatalogueRepository.findArticleRequirements(holdProductIn.getProductName())
+            .orElseThrow(() -> reservationException(NON_EXISTENT_PRODUCT,
+                format("Product with name %s does not exist in catalogue", holdProductIn.getProductName())));
+
+        List<ArticleBatch> articleBatchList;
+        try {
+            articleBatchList = ProductCatalogueService.getArticleBatchList(articleRequirements, holdProductIn.getQuantity());
+        } catch (ArithmeticException exception) {
+            throw reservationException(INVALID_QUANTITY, format("Article quantities of %d units of product %s must be <= %d",
+                holdProductIn.getQuantity(), holdProductIn.getProductName(), Integer.MAX_VALUE));
+        }
+        TakeFromInventoryOut takeFromInventoryOut = inventoryRepository.takeFromLocation(new TakeFromInventoryIn(articleBatchList));
+        if (!takeFromInventoryOut.isTaken()) {
+            log.debug("{} units of product '{}' could not be held", holdProductIn.getQuantity(), holdProductIn.getProductName());
+            return Optional.empty();
+        }
+        availabilityIndex.articlesChanged(getArticleIds(articleBatchList));
+
+        long expiresAt = System.currentTimeMillis() + timeToLive.toMillis();
+        Hold hold = new Hold(new Reservation(UUID.randomUUID().toString(), holdProductIn.getProductName(), holdProductIn.getQuantity(),
+            Instant.ofEpochMilli(expiresAt)), articleBatchList, takeFromInventoryOut.getLocation());
+        try {
+            holdJournal.holdTaken(hold.getReservation().getReservationId(), articleBatchList);
+        } catch (RuntimeException exception) {
+            // No hold would ever give the units back, so they go back to inventory before failing
+            returnToInventory(hold);
+            throw exception;
+        }
+        holds.put(hold.getReservation().getReservationId(), hold);
+        expiries.schedule(hold, expiresAt);
+        log.debug("{} units of product '{}' were held by reservation {}", holdProductIn.getQuantity(), holdProductIn.getProductName(),
+            hold.getReservation().getReservationId());
+        return Optional.of(hold.getReservation());
+
+    }
+
+    public void confirmReservation(String reservationId) {
+        Hold hold = removeHold(reservationId);
+        useCaseMetrics.productSold();
+        auditTrail.productSold(hold.getReservation().getProductName(), hold.getReservation().getQuantity());
+        log.debug("Reservation {} of {} units of product '{}' was confirmed", reservationId, hold.getReservation().getQuantity(),
+            hold.getReservation().getProductName());
+    }
+
+    public void releaseReservation(String reservationId) {
+        returnToInventory(removeHold(reservationId));
+        log.debug("Reservation {} was released", reservationId);
+    }
+
+    void expireHolds(long now) {
+        expiries.advance(now, hold -> {
+            if (holds.remove(hold.getReservation().getReservationId(), hold)) {
+                try {
+                    holdJournal.holdEnded(hold.getReservation().getReservationId());
+                    returnToInventory(hold);
+                    log.debug("Reservation {} expired", hold.getReservation().getReservationId());
+                } catch (RuntimeException exception) {
+                    log.error("Expired reservation {} could not be returned to inventory", hold.getReservation().getReservationId(), exception);
+                }
+            }
+        });
+    }
+
+    private Hold removeHold(String reservationId) {
+        Hold hold = holds.remove(reservationId);
+        if (hold == null) {
+            throw reservationException(NON_EXISTENT_RESERVATION,
+                format("Reservation %s does not exist, or was already confirmed, released or expired", reservationId));
+        }
+        holdJournal.holdEnded(reservationId);
+        return hold;
+    }
+
+    private void returnToInventory(Hold hold) {
+        inventoryRepository.returnToInventory(new TakeFromInventoryIn(hold.getArticleBatchList(), hold.getLocation()));
+        availabilityIndex.articlesChanged(getArticleIds(hold.getArticleBatchList()));
+    }
+
+    private List<Integer> getArticleIds(List<ArticleBatch> articleBatchList) {
+        return articleBatchList.stream()
+            .map(ArticleBatch::getArticleId)
+            .collect(toList());
+    }
+
+    private ReservationException reservationException(ErrorType errorType, String message) {
+        log.error("{}: {}", ReservationException.class.getSimpleName(), message);
+        return new ReservationException(errorType, message);
+    }
+}
@@ -0,0 +1,220 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.StockChangeListener;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded ring of the latest stock events. Publishing claims the next sequence with a single atomic
+ * increment and stores the event in the slot of its sequence, so publishers never lock or wait for
+ * subscribers. A dispatcher thread hands every subscription with a delivery not running yet to a delivery
+ * pool, which walks the cursor of the subscription over the ring, so a slow subscriber only holds back
+ * its own events and the ring bounds how far it may fall behind. A slot holding an older sequence is not
+ * published yet, a slot holding a newer one was overwritten, in which case the subscriber is told that it
+ * lost events and continues from the oldest buffered one. The article events are published by the
+ * inventory repository while it still holds the changed articles, so they are sequenced in the order the
+ * changes were applied.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(StockEventProperties.class)
+public class StockEventBus implements StockEventsUseCase, StockChangeListener {
+
+    private static final int DISPATCH_BATCH = 1024;
+
+    private class StockEventSubscription implements Subscription {
+
+        private final Consumer<StockEvent> subscriber;
+        private final AtomicBoolean delivering = new AtomicBoolean();
+        private long cursor;
+        private volatile boolean cancelled;
+
+        StockEventSubscription(Consumer<StockEvent> subscriber, long cursor) {
+            this.subscriber = subscriber;
+            this.cursor = cursor;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        void deliverOn(Executor executor) {
+            if (!cancelled && delivering.compareAndSet(false, true)) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            try {
+                deliverBatch();
+            } catch (RuntimeException exception) {
+                log.debug("Stock event subscriber failed, cancelling its subscription", exception);
+                cancel();
+            } finally {
+                delivering.set(false);
+            }
+        }
+
+        private void deliverBatch() {
+            if (cursor > lastSequence.get()) {
+                lost(lastSequence.get());
+            }
+            for (int delivered = 0; delivered < DISPATCH_BATCH && !cancelled; delivered++) {
+                long next = cursor + 1;
+                StockEvent event = events.get(index(next));
+                if (event == null || event.getSequence() < next) {
+                    return;
+                }
+                if (event.getSequence() > next) {
+                    lost(lastSequence.get() - events.length());
+                } else {
+                    subscriber.accept(event);
+                    cursor = next;
+                }
+            }
+        }
+
+        private void lost(long sequence) {
+            subscriber.accept(new StockEvent(sequence, EventType.EVENTS_LOST, List.of(), List.of(), 0, null));
+            cursor = sequence;
+        }
+    }
+
+    private final StockEventProperties stockEventProperties;
+    private final AtomicReferenceArray<StockEvent> events;
+    private final int mask;
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final List<StockEventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService deliveryPool;
+
+    public StockEventBus(StockEventProperties stockEventProperties) {
+        if (Integer.bitCount(stockEventProperties.getCapacity()) != 1) {
+            throw new IllegalArgumentException("Stock event capacity must be a power of two");
+        }
+        this.stockEventProperties = stockEventProperties;
+        this.events = new AtomicReferenceArray<>(stockEventProperties.getCapacity());
+        this.mask = stockEventProperties.getCapacity() - 1;
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-stock-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        deliveryPool = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-stock-event-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = stockEventProperties.getDispatchInterval().toMillis();
+        dispatcher.scheduleWithFixedDelay(() -> dispatch(deliveryPool), interval, interval, MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+        deliveryPool.shutdownNow();
+    }
+
+    public void articlesAdded(List<ArticleSupply> articleSupplies) {
+        publish(EventType.ARTICLES_ADDED, getSuppliedQuantities(articleSupplies), List.of(), 0);
+    }
+
+    public void articlesRestocked(List<ArticleSupply> articleSupplies) {
+        publish(EventType.ARTICLES_RESTOCKED, getSuppliedQuantities(articleSupplies), List.of(), 0);
+    }
+
+    public void articlesTaken(List<ArticleBatch> articleBatchList) {
+        publish(EventType.ARTICLES_TAKEN, getArticleQuantities(articleBatchList), List.of(), 0);
+    }
+
+    public void articlesTaken(SellPlan sellPlan, int productQuantity) {
+        ArticleQuantity[] articles = new ArticleQuantity[sellPlan.size()];
+        for (int i = 0; i < articles.length; i++) {
+            articles[i] = new ArticleQuantity(sellPlan.getArticleIds()[i], sellPlan.getUnitQuantities()[i] * productQuantity);
+        }
+        publish(EventType.ARTICLES_TAKEN, List.of(articles), List.of(), 0);
+    }
+
+    public void articlesReturned(List<ArticleBatch> articleBatchList) {
+        publish(EventType.ARTICLES_RETURNED, getArticleQuantities(articleBatchList), List.of(), 0);
+    }
+
+    public void catalogueUpdated(List<Product> products) {
+        publish(EventType.CATALOGUE_UPDATED, List.of(), products.stream().map(Product::getName).collect(toList()), 0);
+    }
+
+    void availabilityChanged(String productName, int quantity) {
+        publish(EventType.AVAILABILITY_CHANGED, List.of(), List.of(productName), quantity);
+    }
+
+    void backorderFulfilled(String backorderId, String productName, int quantity) {
+        publish(EventType.BACKORDER_FULFILLED, List.of(), List.of(productName), quantity, backorderId);
+    }
+
+    public Subscription subscribe(long lastSequence, Consumer<StockEvent> subscriber) {
+        StockEventSubscription subscription = new StockEventSubscription(subscriber, lastSequence);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public long getLastSequence() {
+        return lastSequence.get();
+    }
+
+    void dispatch(Executor deliveryExecutor) {
+        for (StockEventSubscription subscription : subscriptions) {
+            subscription.deliverOn(deliveryExecutor);
+        }
+    }
+
+    private void publish(EventType type, List<ArticleQuantity> articles, List<String> productNames, int quantity) {
+        publish(type, articles, productNames, quantity, null);
+    }
+
+    private void publish(EventType type, List<ArticleQuantity> articles, List<String> productNames, int quantity, String backorderId) {
+        long sequence = lastSequence.incrementAndGet();
+        events.set(index(sequence), new StockEvent(sequence, type, articles, productNames, quantity, backorderId));
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private List<ArticleQuantity> getArticleQuantities(List<ArticleBatch> articleBatchList) {
+        return articleBatchList.stream()
+            .map(articleBatch -> new ArticleQuantity(articleBatch.getArticleId(), articleBatch.getQuantity()))
+            .collect(toList());
+    }
+
+    private List<ArticleQuantity> getSuppliedQuantities(List<ArticleSupply> articleSupplies) {
+        return articleSupplies.stream()
+            .map(articleSupply -> new ArticleQuantity(articleSupply.getArticle().getId(), articleSupply.getQuantity()))
+            .collect(toList());
+    }
+}
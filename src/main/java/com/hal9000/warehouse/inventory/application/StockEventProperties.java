@@ -0,0 +1,22 @@
+package com.hal9000.warehouse.inventory.application;
+
+import java.time.Duration;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Getter
+@ConstructorBinding
+@ConfigurationProperties("inventory.events")
+public class StockEventProperties {
+
+    private final int capacity;
+    private final Duration dispatchInterval;
+
+    public StockEventProperties(@DefaultValue("65536") int capacity,
+                                @DefaultValue("50ms") Duration dispatchInterval) {
+        this.capacity = capacity;
+        this.dispatchInterval = dispatchInterval;
+    }
+}
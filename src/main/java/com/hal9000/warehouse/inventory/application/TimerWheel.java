@@ -0,0 +1,80 @@
+package com.hal9000.warehouse.inventory.application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Hashed timer wheel. Scheduling appends to a lock-free queue from any thread and costs O(1); a single
+ * thread advances the wheel, moves the scheduled values into the slot of their deadline tick and only
+ * looks at the slot of each tick it passes, so expiring does not scan every scheduled value. Values
+ * whose deadline is more than a revolution away stay in their slot until the wheel reaches their round.
+ * Values are never cancelled: the consumer of an expired value has to check whether it is still live.
+ */
+class TimerWheel<T> {
+
+    @RequiredArgsConstructor
+    private static class Timeout<T> {
+        final T value;
+        final long deadlineTick;
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<List<Timeout<T>>> slots;
+    private final int mask;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private long tick;
+
+    TimerWheel(long tickMillis, int slotCount, long startMillis) {
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("Slot count must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            slots.add(new ArrayList<>());
+        }
+        this.mask = slotCount - 1;
+    }
+
+    void schedule(T value, long deadlineMillis) {
+        scheduled.add(new Timeout<>(value, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis)));
+    }
+
+    /**
+     * Passes every tick up to the given time and hands the values whose deadline is reached to the
+     * consumer. Must always be called from the same thread.
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long nowTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (tick < nowTick) {
+            tick++;
+            transferScheduled();
+            expire(slots.get((int) (tick & mask)), expired);
+        }
+    }
+
+    private void transferScheduled() {
+        for (Timeout<T> timeout = scheduled.poll(); timeout != null; timeout = scheduled.poll()) {
+            slots.get((int) (Math.max(timeout.deadlineTick, tick) & mask)).add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout<T>> slot, Consumer<T> expired) {
+        int kept = 0;
+        for (int index = 0; index < slot.size(); index++) {
+            Timeout<T> timeout = slot.get(index);
+            if (timeout.deadlineTick <= tick) {
+                expired.accept(timeout.value);
+            } else {
+                slot.set(kept++, timeout);
+            }
+        }
+        slot.subList(kept, slot.size()).clear();
+    }
+}
@@ -0,0 +1,69 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.BATCH_ABORTED;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.INVALID_QUANTITY;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_LOCATION;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NOT_ENOUGH_SUPPLIES;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.VERSION_CONFLICT;
+
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UseCaseMetrics {
+
+    private static final String SOLD = "sold";
+
+    final Timer addToInventory;
+    final Timer addToCatalogue;
+    final Timer sellProduct;
+    final Timer sellProducts;
+    final Timer getAvailableProducts;
+    final Timer holdProduct;
+    final Timer backorderProduct;
+
+    private final Counter soldProducts;
+    private final Map<ErrorType, Counter> rejectedProducts = new EnumMap<>(ErrorType.class);
+
+    public UseCaseMetrics(MeterRegistry meterRegistry) {
+        addToInventory = timer(meterRegistry, "inventory.add");
+        addToCatalogue = timer(meterRegistry, "catalogue.add");
+        sellProduct = timer(meterRegistry, "products.sell");
+        sellProducts = timer(meterRegistry, "products.sell.batch");
+        getAvailableProducts = timer(meterRegistry, "products.available");
+        holdProduct = timer(meterRegistry, "reservations.hold");
+        backorderProduct = timer(meterRegistry, "backorders.place");
+        soldProducts = saleCounter(meterRegistry, SOLD);
+        for (ErrorType errorType : EnumSet.of(INVALID_QUANTITY, NON_EXISTENT_PRODUCT, NON_EXISTENT_LOCATION, NOT_ENOUGH_SUPPLIES, VERSION_CONFLICT,
+            BATCH_ABORTED)) {
+            rejectedProducts.put(errorType, saleCounter(meterRegistry, errorType.name().toLowerCase()));
+        }
+    }
+
+    void productSold() {
+        soldProducts.increment();
+    }
+
+    void productRejected(ErrorType errorType) {
+        rejectedProducts.get(errorType).increment();
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String name) {
+        return Timer.builder(name)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private static Counter saleCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("products.sales")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
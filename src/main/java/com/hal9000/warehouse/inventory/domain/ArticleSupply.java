@@ -1,10 +1,23 @@
 package com.hal9000.warehouse.inventory.domain;
 
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Value;
 
 @Value
+@AllArgsConstructor
 public class ArticleSupply {
     Article article;
     int quantity;
 
+    /**
+     * Assigned by the inventory on every change of the supply, so clients can sell conditionally on the
+     * stock they read. Not part of the value of the supply.
+     */
+    @EqualsAndHashCode.Exclude
+    long version;
+
+    public ArticleSupply(Article article, int quantity) {
+        this(article, quantity, 0);
+    }
 }
@@ -1,9 +1,11 @@
 package com.hal9000.warehouse.inventory.domain;
 
 import java.util.List;
+import lombok.AllArgsConstructor;
 import lombok.Value;
 
 @Value
+@AllArgsConstructor
 public class Product {
 
     @Value
@@ -12,6 +14,17 @@ public class Product {
         int quantity;
     }
 
+    @Value
+    public static class SubAssembly {
+        String productName;
+        int quantity;
+    }
+
     String name;
     List<Component> components;
+    List<SubAssembly> subAssemblies;
+
+    public Product(String name, List<Component> components) {
+        this(name, components, List.of());
+    }
 }
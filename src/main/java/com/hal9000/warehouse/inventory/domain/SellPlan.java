@@ -0,0 +1,42 @@
+package com.hal9000.warehouse.inventory.domain;
+
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import java.util.Arrays;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Article requirements of a product compiled for selling it: the article ids and the units of each one
+ * needed per product unit, as parallel arrays. Built once whenever the requirements change, so a sale
+ * walks two arrays instead of building article batches. The arrays are shared and must not be modified.
+ * The largest unit quantity is kept too, so a single multiplication tells whether the article quantities
+ * of a sale fit in an int.
+ */
+@Value
+public class SellPlan {
+
+    List<Product.Component> articleRequirements;
+    List<Integer> articleIdList;
+    int[] articleIds;
+    int[] unitQuantities;
+    int maxUnitQuantity;
+
+    public SellPlan(List<Product.Component> articleRequirements) {
+        this.articleRequirements = List.copyOf(articleRequirements);
+        this.articleIdList = articleRequirements.stream()
+            .map(Product.Component::getArticleId)
+            .collect(toUnmodifiableList());
+        this.articleIds = new int[articleRequirements.size()];
+        this.unitQuantities = new int[articleRequirements.size()];
+        for (int i = 0; i < articleIds.length; i++) {
+            articleIds[i] = articleRequirements.get(i).getArticleId();
+            unitQuantities[i] = articleRequirements.get(i).getQuantity();
+        }
+        this.maxUnitQuantity = Arrays.stream(unitQuantities).max().orElse(0);
+    }
+
+    public int size() {
+        return articleIds.length;
+    }
+}
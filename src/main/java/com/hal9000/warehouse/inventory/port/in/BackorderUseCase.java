@@ -0,0 +1,51 @@
+package com.hal9000.warehouse.inventory.port.in;
+
+import lombok.Getter;
+import lombok.Value;
+
+public interface BackorderUseCase {
+
+    enum ErrorType {
+        INVALID_QUANTITY, NON_EXISTENT_PRODUCT, BACKORDERS_FULL, NON_EXISTENT_BACKORDER
+    }
+
+    enum BackorderStatus {
+        FULFILLED, PENDING
+    }
+
+    @Getter
+    class BackorderException extends RuntimeException {
+        private final ErrorType errorType;
+        public BackorderException(ErrorType errorType, String message) {
+            super(message);
+            this.errorType = errorType;
+        }
+    }
+
+    @Value
+    class BackorderProductIn {
+        String productName;
+        int quantity;
+    }
+
+    @Value
+    class Backorder {
+        String backorderId;
+        String productName;
+        int quantity;
+        BackorderStatus status;
+    }
+
+    /**
+     * Sells the product right away if no earlier backorder of it is pending and there are enough supplies,
+     * else queues the sale behind the pending ones. Queued sales are fulfilled in order as articles of the
+     * product arrive, each announced with a {@code BACKORDER_FULFILLED} stock event.
+     */
+    Backorder backorderProduct (BackorderProductIn backorderProductIn) throws BackorderException;
+
+    /**
+     * Raises a {@code NON_EXISTENT_BACKORDER} if the backorder was already fulfilled or cancelled.
+     */
+    void cancelBackorder (String backorderId) throws BackorderException;
+
+}
@@ -2,13 +2,14 @@ package com.hal9000.warehouse.inventory.port.in;
 
 import com.hal9000.warehouse.inventory.domain.ArticleSupply;
 import java.util.List;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Value;
 
 public interface InventoryUseCase {
 
     enum ErrorType {
-        INVALID_QUANTITY
+        INVALID_QUANTITY, NON_EXISTENT_LOCATION
     }
 
     @Getter
@@ -20,10 +21,29 @@ public interface InventoryUseCase {
         }
     }
 
+    enum RestockMode {
+        SET, ADD
+    }
+
+    /**
+     * Stock of the location, or of the first location when none is given.
+     */
     @Value
+    @AllArgsConstructor
     class AddInventoryIn {
         List<ArticleSupply> articleSupplies;
+        RestockMode restockMode;
+        String location;
+
+        public AddInventoryIn(List<ArticleSupply> articleSupplies, RestockMode restockMode) {
+            this(articleSupplies, restockMode, null);
+        }
     }
 
     void addToInventory(AddInventoryIn addInventoryIn) throws InventoryException;
+
+    /**
+     * Locations the stock is kept at; none when the inventory store does not track locations.
+     */
+    List<String> getLocations();
 }
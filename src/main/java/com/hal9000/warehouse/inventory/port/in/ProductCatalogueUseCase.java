@@ -2,6 +2,7 @@ package com.hal9000.warehouse.inventory.port.in;
 
 import com.hal9000.warehouse.inventory.domain.Product;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import lombok.Getter;
 import lombok.Value;
@@ -9,7 +10,8 @@ import lombok.Value;
 public interface ProductCatalogueUseCase {
 
     enum ErrorType {
-        NON_EXISTENT_ARTICLES, NON_EXISTENT_PRODUCT, INVALID_QUANTITY, NOT_ENOUGH_SUPPLIES
+        NON_EXISTENT_ARTICLES, NON_EXISTENT_PRODUCT, INVALID_QUANTITY, NOT_ENOUGH_SUPPLIES, CYCLIC_SUB_ASSEMBLIES, VERSION_CONFLICT, INVALID_PAGE, NON_EXISTENT_LOCATION,
+        BATCH_ABORTED
     }
 
     @Getter
@@ -26,6 +28,49 @@ public interface ProductCatalogueUseCase {
         List<Product> productList;
     }
 
+    enum SellMode {
+        ALL_OR_NOTHING, BEST_EFFORT
+    }
+
+    @Value
+    class SellProductIn {
+        String productName;
+        int quantity;
+    }
+
+    @Value
+    class SellProductsIn {
+        List<SellProductIn> sellProductList;
+        SellMode sellMode;
+    }
+
+    @Value
+    class SoldProduct {
+        String productName;
+        int quantity;
+        boolean sold;
+        ErrorType errorType;
+    }
+
+    @Value
+    class SoldProducts {
+        List<SoldProduct> soldProductList;
+    }
+
+    @Value
+    class ArticleStock {
+        int articleId;
+        int quantity;
+        long version;
+    }
+
+    @Value
+    class ProductStock {
+        String productName;
+        int quantity;
+        List<ArticleStock> articleStockList;
+    }
+
     @Value
     class AvailableProducts {
         Set<AvailableProduct> availableProductList;
@@ -37,11 +82,69 @@ public interface ProductCatalogueUseCase {
         String productName;
     }
 
+    enum SortBy {
+        NAME, QUANTITY
+    }
+
+    enum SortDirection {
+        ASC, DESC
+    }
+
+    /**
+     * Page of the available products whose name starts with the prefix and whose quantity is at least the
+     * minimum, continuing after the cursor of the previous page when there is one.
+     */
+    @Value
+    class AvailableProductsQuery {
+        String namePrefix;
+        int minQuantity;
+        SortBy sortBy;
+        SortDirection sortDirection;
+        String cursor;
+        int limit;
+    }
+
+    @Value
+    class AvailableProductsPage {
+        List<AvailableProduct> availableProductList;
+        String nextCursor;
+    }
+
     void addToCatalogue(ProductCatalogueIn productCatalogueIn) throws ProductCatalogueException;
 
     boolean sellProduct (String productName, int quantity) throws ProductCatalogueException;
 
+    /**
+     * Sells the product only if none of the articles listed in the versions changed since they were read
+     * with {@link #getProductStock}; raises a {@code VERSION_CONFLICT} otherwise.
+     */
+    boolean sellProduct (String productName, int quantity, Map<Integer, Long> articleVersions) throws ProductCatalogueException;
+
+    /**
+     * Sells the product from the location if it has enough supplies, or else from the nearest location that has.
+     */
+    boolean sellProductNear (String productName, int quantity, String location) throws ProductCatalogueException;
+
+    ProductStock getProductStock (String productName) throws ProductCatalogueException;
+
+    SoldProducts sellProducts (SellProductsIn sellProductsIn);
+
     AvailableProducts getAvailableProducts ();
 
+    /**
+     * Products whose available quantity changed after the given {@link #getAvailabilityVersion version};
+     * the ones that are no longer available are listed with no quantity.
+     */
+    AvailableProducts getAvailableProducts (long sinceVersion);
+
+    AvailableProductsPage getAvailableProducts (AvailableProductsQuery availableProductsQuery) throws ProductCatalogueException;
+
+    /**
+     * Products that can be built from the stock of the location alone.
+     */
+    AvailableProducts getAvailableProductsAt (String location) throws ProductCatalogueException;
+
+    long getAvailabilityVersion ();
+
 
 }
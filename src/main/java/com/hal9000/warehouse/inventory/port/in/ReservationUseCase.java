@@ -0,0 +1,54 @@
+package com.hal9000.warehouse.inventory.port.in;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.Getter;
+import lombok.Value;
+
+public interface ReservationUseCase {
+
+    enum ErrorType {
+        INVALID_QUANTITY, INVALID_TIME_TO_LIVE, NON_EXISTENT_PRODUCT, NON_EXISTENT_RESERVATION
+    }
+
+    @Getter
+    class ReservationException extends RuntimeException {
+        private final ErrorType errorType;
+        public ReservationException(ErrorType errorType, String message) {
+            super(message);
+            this.errorType = errorType;
+        }
+    }
+
+    @Value
+    class HoldProductIn {
+        String productName;
+        int quantity;
+        Duration timeToLive;
+    }
+
+    @Value
+    class Reservation {
+        String reservationId;
+        String productName;
+        int quantity;
+        Instant expiresAt;
+    }
+
+    /**
+     * Takes the articles of the product out of the available stock until the reservation is confirmed,
+     * released or expires. A missing time to live means the configured default. Returns empty if there
+     * are not enough supplies.
+     */
+    Optional<Reservation> holdProduct (HoldProductIn holdProductIn) throws ReservationException;
+
+    /**
+     * Turns the reservation into a sale; raises a {@code NON_EXISTENT_RESERVATION} if it was already
+     * confirmed, released or expired.
+     */
+    void confirmReservation (String reservationId) throws ReservationException;
+
+    void releaseReservation (String reservationId) throws ReservationException;
+
+}
@@ -0,0 +1,52 @@
+package com.hal9000.warehouse.inventory.port.in;
+
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.Value;
+
+public interface StockEventsUseCase {
+
+    enum EventType {
+        ARTICLES_ADDED, ARTICLES_RESTOCKED, ARTICLES_TAKEN, ARTICLES_RETURNED, CATALOGUE_UPDATED, AVAILABILITY_CHANGED, BACKORDER_FULFILLED,
+        EVENTS_LOST
+    }
+
+    @Value
+    class ArticleQuantity {
+        int articleId;
+        int quantity;
+    }
+
+    /**
+     * Articles hold the stock after the change for {@code ARTICLES_ADDED} and the moved quantity for
+     * {@code ARTICLES_RESTOCKED}, {@code ARTICLES_TAKEN} and {@code ARTICLES_RETURNED}. {@code AVAILABILITY_CHANGED} holds the quantity
+     * of the product that can be built now; the events of a product are sequenced in the order its
+     * availability was computed, so the last one is current. {@code BACKORDER_FULFILLED} holds the sold
+     * quantity of the product and the id of the backorder. {@code EVENTS_LOST} tells a subscriber that
+     * the events up to its sequence are no longer buffered and that it has to read the available products
+     * again.
+     */
+    @Value
+    class StockEvent {
+        long sequence;
+        EventType type;
+        List<ArticleQuantity> articles;
+        List<String> productNames;
+        int quantity;
+        String backorderId;
+    }
+
+    interface Subscription {
+        void cancel();
+    }
+
+    /**
+     * Delivers every event after the given sequence and then every new one until the subscription is
+     * cancelled or the subscriber throws. Deliveries may run on different threads, but never two at once
+     * for the same subscription, and always in sequence order.
+     */
+    Subscription subscribe (long lastSequence, Consumer<StockEvent> subscriber);
+
+    long getLastSequence ();
+
+}
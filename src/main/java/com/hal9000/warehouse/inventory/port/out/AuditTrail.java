@@ -0,0 +1,14 @@
+package com.hal9000.warehouse.inventory.port.out;
+
+/**
+ * Trail of the sales, restocks and catalogue updates. Recording an entry neither formats nor writes
+ * anything on the calling thread.
+ */
+public interface AuditTrail {
+
+    void productSold(String productName, int quantity);
+
+    void articlesAdded(int articleCount, long units);
+
+    void catalogueUpdated(int productCount);
+}
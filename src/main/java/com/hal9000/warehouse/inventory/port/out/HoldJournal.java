@@ -0,0 +1,16 @@
+package com.hal9000.warehouse.inventory.port.out;
+
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import java.util.List;
+
+/**
+ * Durable trail of the holds whose articles are taken from the inventory. Both calls return once the
+ * hold is recorded, and the articles of the holds still open when the service stopped are returned to
+ * the inventory on the next startup.
+ */
+public interface HoldJournal {
+
+    void holdTaken(String reservationId, List<ArticleBatch> articleBatchList);
+
+    void holdEnded(String reservationId);
+}
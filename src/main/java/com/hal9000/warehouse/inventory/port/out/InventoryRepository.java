@@ -1,15 +1,36 @@
 package com.hal9000.warehouse.inventory.port.out;
 
 import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import lombok.AllArgsConstructor;
 import lombok.Value;
 
 public interface InventoryRepository {
 
+    /**
+     * Sets the stock of every article to its quantity, or adds the quantity to the current stock when
+     * incrementing. Articles not in inventory yet are added with their quantity either way. The stock is
+     * kept at the location when the store tracks locations, or at its first location when none is given.
+     */
     @Value
+    @AllArgsConstructor
     class AddInventoryIn {
         List<ArticleSupply> articleSupplies;
+        boolean increment;
+        String location;
+
+        public AddInventoryIn(List<ArticleSupply> articleSupplies) {
+            this(articleSupplies, false, null);
+        }
+
+        public AddInventoryIn(List<ArticleSupply> articleSupplies, boolean increment) {
+            this(articleSupplies, increment, null);
+        }
     }
 
     @Value
@@ -18,15 +39,114 @@ public interface InventoryRepository {
         int quantity;
     }
 
+    /**
+     * Stores tracking locations take all the batches from a single location, trying the preferred one
+     * first and then the nearest ones; without a preferred location they try them in their configured order.
+     */
     @Value
+    @AllArgsConstructor
     class TakeFromInventoryIn {
         List<ArticleBatch> articleBatchList;
+        String preferredLocation;
+
+        public TakeFromInventoryIn(List<ArticleBatch> articleBatchList) {
+            this(articleBatchList, null);
+        }
+
+        public TakeFromInventoryIn(SellPlan sellPlan, int productQuantity, String preferredLocation) {
+            this(getArticleBatchList(sellPlan, productQuantity), preferredLocation);
+        }
+
+        private static List<ArticleBatch> getArticleBatchList(SellPlan sellPlan, int productQuantity) {
+            List<ArticleBatch> articleBatchList = new ArrayList<>(sellPlan.size());
+            for (int i = 0; i < sellPlan.size(); i++) {
+                articleBatchList.add(new ArticleBatch(sellPlan.getArticleIds()[i], sellPlan.getUnitQuantities()[i] * productQuantity));
+            }
+            return articleBatchList;
+        }
+    }
+
+    /**
+     * Whether the batches were taken and the location that served them, null when the store does not track
+     * locations.
+     */
+    @Value
+    class TakeFromInventoryOut {
+        boolean taken;
+        String location;
+    }
+
+    @Value
+    class ConditionalTakeIn {
+        List<ArticleBatch> articleBatchList;
+        Map<Integer, Long> expectedVersions;
+    }
+
+    enum TakeOutcome {
+        TAKEN, NOT_ENOUGH_SUPPLIES, VERSION_CONFLICT
     }
 
+    @Value
+    class TakeFromInventoryBatchIn {
+        List<TakeFromInventoryIn> takeFromInventoryInList;
+        boolean allOrNothing;
+    }
+
+    /**
+     * Throws an {@link ArithmeticException}, leaving the stock as it was, if incrementing would overflow the
+     * stock of an article.
+     */
     void addToInventory(AddInventoryIn addInventoryIn);
 
     boolean takeFromInventory(TakeFromInventoryIn articleSupplies);
 
+    /**
+     * Takes the batches like {@link #takeFromInventory(TakeFromInventoryIn)} and tells which location served
+     * them, so that they can be returned to it later with that location as the preferred one.
+     */
+    TakeFromInventoryOut takeFromLocation(TakeFromInventoryIn takeFromInventoryIn);
+
+    /**
+     * Takes the articles of the sell plan for the given product quantity, all or nothing, as the same
+     * batches without a preferred location would be taken.
+     */
+    boolean takeFromInventory(SellPlan sellPlan, int productQuantity);
+
+    List<Boolean> takeFromInventory(TakeFromInventoryBatchIn takeFromInventoryBatchIn);
+
+    /**
+     * Takes the article batches only if every article listed in the expected versions has not changed
+     * since it was read with that version. Articles missing from the expected versions are not checked.
+     */
+    TakeOutcome takeFromInventory(ConditionalTakeIn conditionalTakeIn);
+
+    /**
+     * Stores tracking locations return the batches to the preferred location, which should be the one that
+     * served their take; without a preferred location every batch goes to the first location holding its article.
+     */
+    void returnToInventory(TakeFromInventoryIn takeFromInventoryIn);
+
     Optional<ArticleSupply> findArticleSupplyById (int articleId);
 
+    /**
+     * The given distinct article ids that are not in inventory, in the order they were given.
+     */
+    int[] findArticleIdsNotInInventory (int[] articleIds);
+
+    void forEachArticleSupply (Consumer<ArticleSupply> action);
+
+    /**
+     * Locations the stock is kept at, in their configured order; none when the store does not track them.
+     * The other queries of the repository aggregate the stock of every location.
+     */
+    List<String> getLocations ();
+
+    Optional<ArticleSupply> findArticleSupplyById (String location, int articleId);
+
+    /**
+     * Tells the listener of every later change of the stock, while the changed articles are still locked.
+     * Adding the same listener again has no effect.
+     */
+    void addStockChangeListener (StockChangeListener stockChangeListener);
+
 }
@@ -1,9 +1,12 @@
 package com.hal9000.warehouse.inventory.port.out;
 
 import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 import lombok.Value;
 
 public interface ProductCatalogueRepository {
@@ -13,9 +16,49 @@ public interface ProductCatalogueRepository {
         List<Product> productList;
     }
 
-    void addToCatalogue(ProductCatalogueIn productCatalogueIn);
+    default void addToCatalogue(ProductCatalogueIn productCatalogueIn) {
+        addToCatalogue(productCatalogueIn, () -> { });
+    }
+
+    /**
+     * Adds the products once the check passed. The check runs under the lock of the catalogue updates, before
+     * anything changes, so what it read from the catalogue still holds when the products are added, and
+     * rejects them by throwing. Throws an {@link ArithmeticException}, leaving the catalogue as it was, if the
+     * article requirements of a product overflow.
+     */
+    void addToCatalogue(ProductCatalogueIn productCatalogueIn, Runnable check);
 
     Optional<Product> findProductByName(String productName);
 
+    /**
+     * Articles needed to build one unit of the product, its sub-assemblies included, with one component per
+     * article. Empty if the product or any of its sub-assemblies is not in the catalogue.
+     */
+    Optional<List<Product.Component>> findArticleRequirements(String productName);
+
+    /**
+     * The article requirements of the product compiled for selling it. Empty whenever its article
+     * requirements are.
+     */
+    Optional<SellPlan> findSellPlan(String productName);
+
     Set<Product> findAllProducts ();
+
+    /**
+     * Products needing the article, directly or through their sub-assemblies.
+     */
+    Set<Product> findProductsByArticleId (int articleId);
+
+    /**
+     * Products containing the product as a sub-assembly, directly or through other sub-assemblies.
+     */
+    Set<Product> findProductsBySubAssembly (String productName);
+
+    void forEachProduct (Consumer<Product> action);
+
+    /**
+     * Names of the products in the catalogue, split straight over its storage so they can be walked in
+     * parallel without being copied.
+     */
+    Spliterator<String> productNameSpliterator ();
 }
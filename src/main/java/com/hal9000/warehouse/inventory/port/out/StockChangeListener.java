@@ -0,0 +1,29 @@
+package com.hal9000.warehouse.inventory.port.out;
+
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import java.util.List;
+
+/**
+ * Told of every change of the stock by the repository while the changed articles are still locked, so a
+ * set of an article is never told before or after a take, restock or return of it that was applied on the
+ * other side of it. Takes, restocks and returns of the same article may be told in any order among
+ * themselves, as the quantities they move add up the same either way. Only the changes that happened are
+ * told, a take without enough supplies is not.
+ */
+public interface StockChangeListener {
+
+    /**
+     * The stock of every article after it was set.
+     */
+    void articlesAdded(List<ArticleSupply> articleSupplies);
+
+    void articlesRestocked(List<ArticleSupply> articleSupplies);
+
+    void articlesTaken(List<ArticleBatch> articleBatchList);
+
+    void articlesTaken(SellPlan sellPlan, int productQuantity);
+
+    void articlesReturned(List<ArticleBatch> articleBatchList);
+}
@@ -0,0 +1,36 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static lombok.AccessLevel.PRIVATE;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+
+/**
+ * Body of {@code GET /products/available}, which {@link JsonResponses} writes without a DTO.
+ */
+@Value
+@NoArgsConstructor(force = true, access = PRIVATE)
+@AllArgsConstructor
+class AvailableProductsOut {
+
+    @Value
+    @NoArgsConstructor(force = true, access = PRIVATE)
+    @AllArgsConstructor
+    static class AvailableProduct {
+        String name;
+
+        @JsonProperty("amount_of")
+        int amountOf;
+    }
+
+    List<AvailableProduct> products;
+
+    @JsonProperty("next_cursor")
+    @JsonInclude(NON_NULL)
+    String nextCursor;
+}
@@ -2,36 +2,63 @@ package com.hal9000.warehouse.inventory.adapter.in;
 
 import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_PRODUCT;
 import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NOT_ENOUGH_SUPPLIES;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.VERSION_CONFLICT;
+import static java.util.stream.Collectors.toMap;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.OK;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hal9000.warehouse.inventory.adapter.in.BackorderController.BackorderIn;
+import com.hal9000.warehouse.inventory.adapter.in.BackorderController.BackorderOut;
+import com.hal9000.warehouse.inventory.adapter.in.ImportOut.RecordError;
 import com.hal9000.warehouse.inventory.adapter.in.InventoryController.AddInventoryIn;
 import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.AddProductsIn;
-import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.AvailableProductsOut;
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.ProductStockOut;
 import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.SellProductIn;
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.SellProductsIn;
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.SoldProductsOut;
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.SoldProductsOut.SoldProduct;
+import com.hal9000.warehouse.inventory.adapter.in.ReservationController.HoldIn;
+import com.hal9000.warehouse.inventory.adapter.in.ReservationController.ReservationOut;
+import com.hal9000.warehouse.inventory.adapter.in.StockEventController.StockEventOut;
 import com.hal9000.warehouse.inventory.adapter.in.error.ErrorResponse;
 import com.hal9000.warehouse.inventory.port.in.InventoryUseCase;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.RestockMode;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT)
+@AutoConfigureMetrics
 class InventoryApplicationIT {
 
     private static final String TEST_FILES_FOLDER = "test-files";
@@ -77,6 +104,134 @@ class InventoryApplicationIT {
 
     }
 
+    @Test
+    @DisplayName ("When selling a product with the article versions read from its stock, it should fail once the stock has changed")
+    void sellProductWithArticleVersions() {
+        ProductStockOut productStockOut = restTemplate.getForObject("/products/Dining Chair/stock", ProductStockOut.class);
+        Map<Integer, Long> articleVersions = productStockOut.getArticles().stream()
+            .collect(toMap(ProductStockOut.ArticleStock::getArticleId, ProductStockOut.ArticleStock::getVersion));
+
+        ResponseEntity<ErrorResponse> responseEntity = restTemplate
+            .postForEntity("/products/sell", new SellProductIn("Dining Chair", 1, articleVersions, null), ErrorResponse.class);
+        assertEquals(OK, responseEntity.getStatusCode());
+
+        HttpClientErrorException httpException = assertThrows(HttpClientErrorException.class,
+            () -> restTemplate.postForLocation("/products/sell", new SellProductIn("Dining Chair", 1, articleVersions, null)));
+
+        assertEquals(CONFLICT, httpException.getStatusCode());
+        assertEquals(VERSION_CONFLICT, ProductCatalogueUseCase.ErrorType.valueOf(getErrorResponse(httpException).getCode()));
+        assertEquals(productStockOut.getAmountOf() - 1,
+            restTemplate.getForObject("/products/Dining Chair/stock", ProductStockOut.class).getAmountOf());
+
+    }
+
+    @Test
+    @DisplayName ("When selling a product from a location with article versions, it should reject the request without selling")
+    void sellProductFromLocationWithArticleVersions() {
+        ProductStockOut productStockOut = restTemplate.getForObject("/products/Dining Chair/stock", ProductStockOut.class);
+
+        HttpClientErrorException httpException = assertThrows(HttpClientErrorException.class,
+            () -> restTemplate.postForLocation("/products/sell", new SellProductIn("Dining Chair", 1, Map.of(1, 0L), "Warehouse A")));
+
+        assertEquals(BAD_REQUEST, httpException.getStatusCode());
+        assertEquals(BAD_REQUEST.name(), getErrorResponse(httpException).getCode());
+        assertEquals(productStockOut.getAmountOf(),
+            restTemplate.getForObject("/products/Dining Chair/stock", ProductStockOut.class).getAmountOf());
+    }
+
+    @Test
+    @DisplayName ("When holding a product, its stock should not be available until the reservation is released")
+    void holdAndReleaseProduct() {
+        int amount = restTemplate.getForObject("/products/Dining Chair/stock", ProductStockOut.class).getAmountOf();
+
+        ReservationOut reservationOut = restTemplate.postForObject("/reservations",
+            new HoldIn("Dining Chair", 1, Duration.ofMinutes(5)), ReservationOut.class);
+        assertEquals(amount - 1, restTemplate.getForObject("/products/Dining Chair/stock", ProductStockOut.class).getAmountOf());
+
+        restTemplate.delete("/reservations/" + reservationOut.getReservationId());
+        assertEquals(amount, restTemplate.getForObject("/products/Dining Chair/stock", ProductStockOut.class).getAmountOf());
+
+        HttpClientErrorException httpException = assertThrows(HttpClientErrorException.class,
+            () -> restTemplate.postForLocation("/reservations/" + reservationOut.getReservationId() + "/confirm", null));
+
+        assertEquals(CONFLICT, httpException.getStatusCode());
+        assertEquals(ReservationUseCase.ErrorType.NON_EXISTENT_RESERVATION,
+            ReservationUseCase.ErrorType.valueOf(getErrorResponse(httpException).getCode()));
+
+    }
+
+    @Test
+    @DisplayName ("When backordering a product without enough supplies, it should be sold and announced once its articles are restocked")
+    void backorderProduct() {
+        BackorderOut backorderOut = restTemplate.postForObject("/backorders", new BackorderIn("Dining Chair", 3), BackorderOut.class);
+        assertEquals("PENDING", backorderOut.getStatus());
+
+        restTemplate.postForLocation("/inventory/update", new AddInventoryIn(List.of(new AddInventoryIn.Article(2, "screw", 7),
+            new AddInventoryIn.Article(3, "seat", 1)), RestockMode.ADD, null));
+
+        ServerSentEvent<StockEventOut> backorderFulfilled = WebClient.create("http://localhost:" + port).get().uri("/events?since=0")
+            .retrieve()
+            .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<StockEventOut>>() {})
+            .filter(event -> "BACKORDER_FULFILLED".equals(event.event()) && backorderOut.getBackorderId().equals(event.data().getBackorderId()))
+            .blockFirst(Duration.ofSeconds(10));
+
+        assertEquals(3, backorderFulfilled.data().getAmountOf());
+        assertEquals(0, restTemplate.getForObject("/products/Dining Chair/stock", ProductStockOut.class).getAmountOf());
+
+    }
+
+    @Test
+    @DisplayName ("When a product is sold, its stock movement should be streamed to subscribers as a server-sent event")
+    void streamStockEvents() {
+        restTemplate.postForEntity("/products/sell", getPayload("sell-product.json", SellProductIn.class), ErrorResponse.class);
+        List<StockEventOut.ArticleQuantity> soldArticles = List.of(new StockEventOut.ArticleQuantity(1, 8),
+            new StockEventOut.ArticleQuantity(2, 16), new StockEventOut.ArticleQuantity(3, 2));
+
+        ServerSentEvent<StockEventOut> articlesTaken = WebClient.create("http://localhost:" + port).get().uri("/events?since=0")
+            .retrieve()
+            .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<StockEventOut>>() {})
+            .filter(event -> "ARTICLES_TAKEN".equals(event.event()) && soldArticles.equals(event.data().getArticles()))
+            .blockFirst(Duration.ofSeconds(10));
+
+        assertEquals(Long.toString(articlesTaken.data().getSequence()), articlesTaken.id());
+
+    }
+
+    @Test
+    @DisplayName ("When selling a batch in best effort mode, it should sell every line with enough supplies")
+    void sellProductsBestEffort() {
+
+        ResponseEntity<SoldProductsOut> responseEntity = restTemplate.postForEntity("/products/sell/batch",
+            getPayload("sell-products-batch.json", SellProductsIn.class), SoldProductsOut.class);
+
+        assertEquals(OK, responseEntity.getStatusCode());
+        assertEquals(new SoldProductsOut(List.of(
+                new SoldProduct("Dining Chair", 2, true, null),
+                new SoldProduct("Dinning Table", 1, false, NOT_ENOUGH_SUPPLIES.toString()),
+                new SoldProduct("Not existing", 1, false, NON_EXISTENT_PRODUCT.toString()))),
+            responseEntity.getBody());
+
+    }
+
+    @Test
+    @DisplayName ("When selling a batch in all or nothing mode without enough supplies for all lines, it should sell nothing")
+    void sellProductsAllOrNothing() {
+
+        HttpClientErrorException httpException = assertThrows(HttpClientErrorException.class,
+            () -> restTemplate.postForLocation("/products/sell/batch",
+                getPayload("sell-products-batch-no-supplies.json", SellProductsIn.class)));
+
+        assertEquals(CONFLICT, httpException.getStatusCode());
+        assertEquals(new SoldProductsOut(List.of(
+                new SoldProduct("Dining Chair", 2, false, NOT_ENOUGH_SUPPLIES.toString()),
+                new SoldProduct("Dinning Table", 1, false, NOT_ENOUGH_SUPPLIES.toString()))),
+            getPayload(httpException, SoldProductsOut.class));
+
+        ResponseEntity<AvailableProductsOut> responseEntity = restTemplate.getForEntity("/products/available", AvailableProductsOut.class);
+        assertEquals(getPayload("available-products.json", AvailableProductsOut.class), responseEntity.getBody());
+
+    }
+
     @Test
     @DisplayName ("It should list all available products")
     void listAvailableProducts () {
@@ -89,6 +244,38 @@ class InventoryApplicationIT {
 
     }
 
+    @Test
+    @DisplayName ("When paging the available products, the next cursor should lead to the following page until the last one")
+    void pageAvailableProducts () {
+        AvailableProductsOut firstPage = restTemplate.getForObject("/products/available?limit=1", AvailableProductsOut.class);
+        AvailableProductsOut lastPage = restTemplate.getForObject("/products/available?limit=1&cursor={cursor}", AvailableProductsOut.class,
+            firstPage.getNextCursor());
+
+        assertEquals(getPayload("available-products.json", AvailableProductsOut.class).getProducts(),
+            List.of(firstPage.getProducts().get(0), lastPage.getProducts().get(0)));
+        assertEquals(null, lastPage.getNextCursor());
+    }
+
+    @Test
+    @DisplayName ("When polling the available products, it should answer not modified until they change and then only list the changed ones")
+    void pollAvailableProducts () {
+        String eTag = restTemplate.getForEntity("/products/available", AvailableProductsOut.class).getHeaders().getETag();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        ResponseEntity<AvailableProductsOut> unchanged = restTemplate.exchange("/products/available", GET, new HttpEntity<>(headers), AvailableProductsOut.class);
+        assertEquals(NOT_MODIFIED, unchanged.getStatusCode());
+
+        restTemplate.postForLocation("/products/sell", new SellProductIn("Dining Chair", 1, null, null));
+        ResponseEntity<AvailableProductsOut> changed = restTemplate.exchange("/products/available?since={since}", GET, new HttpEntity<>(headers),
+            AvailableProductsOut.class, eTag.replace("\"", ""));
+
+        assertEquals(OK, changed.getStatusCode());
+        assertTrue(changed.getBody().getProducts().stream().anyMatch(product -> product.getName().equals("Dining Chair")));
+        assertEquals(List.of(), restTemplate.getForObject("/products/available?since={since}", AvailableProductsOut.class,
+            changed.getHeaders().getETag().replace("\"", "")).getProducts());
+    }
+
     @Test
     @DisplayName ("It should show errors loading articles with wrong parameters")
     void errorsLoadingArticles () {
@@ -118,6 +305,30 @@ class InventoryApplicationIT {
             ProductCatalogueUseCase.ErrorType.valueOf(getErrorResponse(httpException).getCode()));
     }
 
+    @Test
+    @DisplayName ("When importing an inventory file, it should import the valid records and report the invalid ones")
+    void importInventory () {
+        ResponseEntity<ImportOut> responseEntity = restTemplate.postForEntity("/inventory/import",
+            getFileContent("invalid-inventory.json"), ImportOut.class);
+
+        assertEquals(OK, responseEntity.getStatusCode());
+        assertEquals(3, responseEntity.getBody().getImported());
+        assertEquals(1, responseEntity.getBody().getRejected());
+        RecordError recordError = responseEntity.getBody().getErrors().get(0);
+        assertEquals(0, recordError.getRecord());
+        assertEquals(InventoryUseCase.ErrorType.INVALID_QUANTITY.toString(), recordError.getCode());
+    }
+
+    @Test
+    @DisplayName ("When importing a products file, it should import every product")
+    void importProducts () {
+        ResponseEntity<ImportOut> responseEntity = restTemplate.postForEntity("/products/import",
+            getFileContent("products.json"), ImportOut.class);
+
+        assertEquals(OK, responseEntity.getStatusCode());
+        assertEquals(new ImportOut(2, 0, List.of()), responseEntity.getBody());
+    }
+
     @Test
     @DisplayName ("It should show errors trying to sell a not existing product")
     void errorsSellingNotExistingProduct () {
@@ -129,15 +340,35 @@ class InventoryApplicationIT {
 
     }
 
+    @Test
+    @DisplayName ("It should expose sale metrics in Prometheus format")
+    void prometheusMetrics () {
+        restTemplate.postForEntity("/products/sell", getPayload("sell-product.json", SellProductIn.class), ErrorResponse.class);
+
+        String metrics = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertTrue(metrics.contains("products_sales_total{outcome=\"sold\",}"));
+        assertTrue(metrics.contains("products_sell_seconds_bucket"));
+        assertTrue(metrics.contains("inventory_lock_wait_seconds_count"));
+    }
+
     @SneakyThrows
     private <T> T getPayload(String jsonFile, Class<T> type) {
-        String jsonContent = Files.readString(Paths.get(TEST_FILES_FOLDER + "/" + jsonFile));
-        return objectMapper.readValue(jsonContent, type);
+        return objectMapper.readValue(getFileContent(jsonFile), type);
     }
 
     @SneakyThrows
+    private String getFileContent(String jsonFile) {
+        return Files.readString(Paths.get(TEST_FILES_FOLDER + "/" + jsonFile));
+    }
+
     private ErrorResponse getErrorResponse(HttpClientErrorException httpException) {
-        return objectMapper.readValue(httpException.getResponseBodyAsString(), ErrorResponse.class);
+        return getPayload(httpException, ErrorResponse.class);
+    }
+
+    @SneakyThrows
+    private <T> T getPayload(HttpClientErrorException httpException, Class<T> type) {
+        return objectMapper.readValue(httpException.getResponseBodyAsString(), type);
     }
 
 }
@@ -0,0 +1,53 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hal9000.warehouse.inventory.adapter.in.error.ErrorResponse;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProduct;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class JsonResponsesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonResponses jsonResponses = new JsonResponses();
+
+    @Test
+    @DisplayName("The available products should be written as Jackson writes them, escaping their names")
+    void writingAvailableProducts() {
+        List<AvailableProduct> availableProducts = List.of(
+            new AvailableProduct(0, "Dining Chair"),
+            new AvailableProduct(1234567890, "Tabouret \"Gömböc\" \\ 1\n"));
+
+        assertEquals(
+            new AvailableProductsOut(List.of(
+                new AvailableProductsOut.AvailableProduct("Dining Chair", 0),
+                new AvailableProductsOut.AvailableProduct("Tabouret \"Gömböc\" \\ 1\n", 1234567890)),
+                "UTF4OjE6RGluaW5n"),
+            read(jsonResponses.availableProducts(availableProducts, "UTF4OjE6RGluaW5n"), AvailableProductsOut.class));
+        assertEquals(writeAsString(new AvailableProductsOut(List.of(), null)), new String(jsonResponses.availableProducts(List.of(), null)));
+        assertEquals(
+            writeAsString(new AvailableProductsOut(List.of(new AvailableProductsOut.AvailableProduct("Dining Chair", 0)), null)),
+            new String(jsonResponses.availableProducts(availableProducts.subList(0, 1), null)));
+    }
+
+    @Test
+    @DisplayName("The body of a product that cannot be sold should be the error response of not enough supplies")
+    void writingProductCannotBeSold() {
+        assertEquals(writeAsString(new ErrorResponse("NOT_ENOUGH_SUPPLIES", "Product cannot be sold")),
+            new String(JsonResponses.PRODUCT_CANNOT_BE_SOLD));
+    }
+
+    @SneakyThrows
+    private <T> T read(byte[] body, Class<T> type) {
+        return objectMapper.readValue(body, type);
+    }
+
+    @SneakyThrows
+    private String writeAsString(Object value) {
+        return objectMapper.writeValueAsString(value);
+    }
+}
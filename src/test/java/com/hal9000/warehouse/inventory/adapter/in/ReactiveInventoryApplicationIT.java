@@ -0,0 +1,98 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NOT_ENOUGH_SUPPLIES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpStatus.CONFLICT;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hal9000.warehouse.inventory.adapter.in.InventoryController.AddInventoryIn;
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.AddProductsIn;
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.SellProductIn;
+import com.hal9000.warehouse.inventory.adapter.in.error.ErrorResponse;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveInventoryApplicationIT {
+
+    private static final String TEST_FILES_FOLDER = "test-files";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setUp () {
+        webTestClient.post().uri("/inventory/update").bodyValue(getPayload("inventory.json", AddInventoryIn.class))
+            .exchange().expectStatus().isOk();
+        webTestClient.post().uri("/products/update").bodyValue(getPayload("products.json", AddProductsIn.class))
+            .exchange().expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName ("When trying to sell a product that has enough supplies, it should return OK")
+    void sellProduct () {
+        webTestClient.post().uri("/products/sell").bodyValue(getPayload("sell-product.json", SellProductIn.class))
+            .exchange().expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName ("When trying to sell a product that has not enough supplies, it should show an error")
+    void sellProductNotEnoughSupplies () {
+        ErrorResponse errorResponse = webTestClient.post().uri("/products/sell")
+            .bodyValue(getPayload("sell-product-no-supplies.json", SellProductIn.class))
+            .exchange().expectStatus().isEqualTo(CONFLICT)
+            .expectBody(ErrorResponse.class).returnResult().getResponseBody();
+
+        assertEquals(NOT_ENOUGH_SUPPLIES.toString(), errorResponse.getCode());
+    }
+
+    @Test
+    @DisplayName ("It should show errors trying to sell a not existing product")
+    void errorsSellingNotExistingProduct () {
+        ErrorResponse errorResponse = webTestClient.post().uri("/products/sell")
+            .bodyValue(getPayload("sell-product-not-existing.json", SellProductIn.class))
+            .exchange().expectStatus().isEqualTo(CONFLICT)
+            .expectBody(ErrorResponse.class).returnResult().getResponseBody();
+
+        assertEquals(NON_EXISTENT_PRODUCT.toString(), errorResponse.getCode());
+    }
+
+    @Test
+    @DisplayName ("It should show errors loading articles with wrong parameters")
+    void errorsLoadingArticles () {
+        ErrorResponse errorResponse = webTestClient.post().uri("/inventory/update")
+            .bodyValue(getPayload("invalid-inventory.json", AddInventoryIn.class))
+            .exchange().expectStatus().isEqualTo(CONFLICT)
+            .expectBody(ErrorResponse.class).returnResult().getResponseBody();
+
+        assertEquals(InventoryUseCase.ErrorType.INVALID_QUANTITY.toString(), errorResponse.getCode());
+    }
+
+    @Test
+    @DisplayName ("It should list all available products")
+    void listAvailableProducts () {
+        webTestClient.get().uri("/products/available")
+            .exchange().expectStatus().isOk()
+            .expectBody(AvailableProductsOut.class).isEqualTo(getPayload("available-products.json", AvailableProductsOut.class));
+    }
+
+    @SneakyThrows
+    private <T> T getPayload(String jsonFile, Class<T> type) {
+        return objectMapper.readValue(Files.readString(Paths.get(TEST_FILES_FOLDER + "/" + jsonFile)), type);
+    }
+}
@@ -0,0 +1,82 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+import com.hal9000.warehouse.inventory.InventoryApplication;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Restarts the application on the same journal, as a poller of the available products sees it.
+ */
+class RestartIT {
+
+    private static final String TEST_FILES_FOLDER = "test-files";
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    @DisplayName ("When polling the available products across a restart, the old version should get the full list and no 304")
+    void pollAvailableProductsAcrossRestart () {
+        String eTag;
+        try (ConfigurableApplicationContext context = start()) {
+            RestTemplate restTemplate = restTemplate(context);
+            restTemplate.postForLocation("/inventory/update", json(getFileContent("inventory.json")));
+            restTemplate.postForLocation("/products/update", json(getFileContent("products.json")));
+            restTemplate.postForLocation("/products/sell", json("{\"productName\": \"Dining Chair\", \"productQuantity\": 1}"));
+            eTag = restTemplate.getForEntity("/products/available", AvailableProductsOut.class).getHeaders().getETag();
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            RestTemplate restTemplate = restTemplate(context);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setIfNoneMatch(eTag);
+            ResponseEntity<AvailableProductsOut> revalidated = restTemplate.exchange("/products/available", GET, new HttpEntity<>(headers),
+                AvailableProductsOut.class);
+            AvailableProductsOut changedSince = restTemplate.getForObject("/products/available?since={since}", AvailableProductsOut.class,
+                eTag.replace("\"", ""));
+
+            assertEquals(OK, revalidated.getStatusCode());
+            assertFalse(changedSince.getProducts().isEmpty());
+            assertEquals(revalidated.getBody().getProducts().size(), changedSince.getProducts().size());
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(InventoryApplication.class)
+            .properties("server.port=0", "inventory.journal.enabled=true", "inventory.journal.directory=" + journalDirectory)
+            .run();
+    }
+
+    private static RestTemplate restTemplate(ConfigurableApplicationContext context) {
+        return new RestTemplateBuilder().rootUri("http://localhost:" + context.getEnvironment().getProperty("local.server.port")).build();
+    }
+
+    private static HttpEntity<String> json(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+
+    @SneakyThrows
+    private static String getFileContent(String jsonFile) {
+        return Files.readString(Paths.get(TEST_FILES_FOLDER + "/" + jsonFile));
+    }
+}
@@ -0,0 +1,63 @@
+package com.hal9000.warehouse.inventory.adapter.in;
+
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpStatus.OK;
+
+import com.hal9000.warehouse.inventory.adapter.in.ImportOut.RecordError;
+import com.hal9000.warehouse.inventory.adapter.in.ProductCatalogueController.SellProductIn;
+import com.hal9000.warehouse.inventory.adapter.in.error.ErrorResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Imports files spanning several chunks of two records.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "inventory.import.chunk-size=2")
+class StreamingImportIT {
+
+    private static final String TEST_FILES_FOLDER = "test-files";
+
+    @LocalServerPort
+    private int port;
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    public void setUp () {
+        restTemplate = new RestTemplateBuilder().rootUri("http://localhost:" + port).build();
+
+        restTemplate.postForEntity("/inventory/import", getFileContent("inventory.json"), ImportOut.class);
+    }
+
+    @Test
+    @DisplayName ("When importing a products file with sub-assemblies in later chunks, it should import the products needing them")
+    void importProductsWithForwardReferences () {
+        ResponseEntity<ImportOut> responseEntity = restTemplate.postForEntity("/products/import",
+            getFileContent("products-forward-references.json"), ImportOut.class);
+
+        assertEquals(OK, responseEntity.getStatusCode());
+        assertEquals(4, responseEntity.getBody().getImported());
+        assertEquals(1, responseEntity.getBody().getRejected());
+        RecordError recordError = responseEntity.getBody().getErrors().get(0);
+        assertEquals(3, recordError.getRecord());
+        assertEquals(NON_EXISTENT_PRODUCT.toString(), recordError.getCode());
+        assertEquals(OK, restTemplate.postForEntity("/products/sell", new SellProductIn("Bench", 1, null, null), ErrorResponse.class)
+            .getStatusCode());
+    }
+
+    @SneakyThrows
+    private static String getFileContent(String jsonFile) {
+        return Files.readString(Paths.get(TEST_FILES_FOLDER + "/" + jsonFile));
+    }
+}
@@ -0,0 +1,264 @@
+package com.hal9000.warehouse.inventory.adapter.out;
+
+import static java.util.Optional.empty;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product.Component;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ConditionalTakeIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryBatchIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeOutcome;
+import com.hal9000.warehouse.inventory.port.out.StockChangeListener;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class PrimitiveInventoryTest {
+
+    private static final Article leg = new Article(1, "leg");
+    private static final Article screw = new Article(2, "screw");
+    private static final ArticleSupply legSupply = new ArticleSupply(leg, 2);
+    private static final ArticleSupply screwSupply = new ArticleSupply(screw, 4);
+
+    private final PrimitiveInventory inventory = new PrimitiveInventory();
+
+    @Test
+    @DisplayName("When adding or updating article supplies, they should be retrieved")
+    public void addingToInventory () {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+
+        assertEquals(Optional.of(legSupply), inventory.findArticleSupplyById(leg.getId()));
+        assertEquals(Optional.of(screwSupply), inventory.findArticleSupplyById(screw.getId()));
+
+        final ArticleSupply updatedLegSupply = new ArticleSupply(leg, 3);
+
+        inventory.addToInventory(new AddInventoryIn(List.of(updatedLegSupply)));
+
+        assertEquals(Optional.of(updatedLegSupply), inventory.findArticleSupplyById(leg.getId()));
+        assertEquals(Optional.of(screwSupply), inventory.findArticleSupplyById(screw.getId()));
+
+    }
+
+    @Test
+    @DisplayName("When restocking by increment, quantities should be added to the stock and new articles added")
+    public void restockingByIncrement () {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply)));
+
+        inventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 3), screwSupply, new ArticleSupply(leg, 1)), true));
+
+        assertEquals(6, inventory.findArticleSupplyById(leg.getId()).orElseThrow().getQuantity());
+        assertEquals(screwSupply.getQuantity(), inventory.findArticleSupplyById(screw.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("When restocking would overflow the stock of an article, nothing should be restocked")
+    public void restockingOverflow () {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, new ArticleSupply(screw, Integer.MAX_VALUE - 1))));
+
+        assertThrows(ArithmeticException.class, () -> inventory.addToInventory(
+            new AddInventoryIn(List.of(new ArticleSupply(leg, 1), new ArticleSupply(screw, 1), new ArticleSupply(screw, 1)), true)));
+
+        assertEquals(legSupply.getQuantity(), inventory.findArticleSupplyById(leg.getId()).orElseThrow().getQuantity());
+        assertEquals(Integer.MAX_VALUE - 1, inventory.findArticleSupplyById(screw.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("When checking a batch of article ids, only the ones not in inventory should be returned, in order")
+    public void findingArticlesNotInInventory () {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+
+        assertArrayEquals(new int[] {8, 3}, inventory.findArticleIdsNotInInventory(new int[] {8, leg.getId(), 3, screw.getId()}));
+    }
+
+    @Test
+    @DisplayName("When adding more articles than the initial capacity, all of them should be retrieved")
+    public void growingInventory () {
+        List<ArticleSupply> articleSupplies = IntStream.range(0, 5000)
+            .mapToObj(articleId -> new ArticleSupply(new Article(articleId * 7, "article " + articleId), articleId))
+            .collect(toList());
+
+        inventory.addToInventory(new AddInventoryIn(articleSupplies));
+
+        articleSupplies.forEach(articleSupply ->
+            assertEquals(Optional.of(articleSupply), inventory.findArticleSupplyById(articleSupply.getArticle().getId())));
+        assertEquals(empty(), inventory.findArticleSupplyById(8));
+
+    }
+
+    @Test
+    @DisplayName("When trying to take a list of article batches that have enough supply, it should return true and update the inventory")
+    public void takingFromInventoryWithEnoughSupplies() {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+
+        assertTrue(inventory.takeFromInventory(new TakeFromInventoryIn(List.of(
+            new ArticleBatch(1, 1),
+            new ArticleBatch(2, 2)))));
+
+        assertEquals(Optional.of(new ArticleSupply(leg, 1)), inventory.findArticleSupplyById(1));
+        assertEquals(Optional.of(new ArticleSupply(screw, 2)), inventory.findArticleSupplyById(2));
+
+    }
+
+    @Test
+    @DisplayName("When taking a sell plan, it should take its per unit quantities times the product quantity only if all of them are in supply")
+    public void takingSellPlanFromInventory() {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+        SellPlan sellPlan = new SellPlan(List.of(new Component(1, 1), new Component(2, 2)));
+
+        assertTrue(inventory.takeFromInventory(sellPlan, 1));
+        assertFalse(inventory.takeFromInventory(sellPlan, 2));
+        assertFalse(inventory.takeFromInventory(new SellPlan(List.of(new Component(1, 1), new Component(8, 1))), 1));
+
+        assertEquals(Optional.of(new ArticleSupply(leg, 1)), inventory.findArticleSupplyById(1));
+        assertEquals(Optional.of(new ArticleSupply(screw, 2)), inventory.findArticleSupplyById(2));
+    }
+
+    @Test
+    @DisplayName("When returning article batches, their quantities should be added back to the inventory")
+    public void returningToInventory() {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+        inventory.takeFromInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 2))));
+
+        inventory.returnToInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 2))));
+
+        assertEquals(Optional.of(legSupply), inventory.findArticleSupplyById(1));
+        assertEquals(Optional.of(screwSupply), inventory.findArticleSupplyById(2));
+    }
+
+    @Test
+    @DisplayName("When trying to take a list of article batches that have not enough supply, it should return false and not update the inventory")
+    public void takingFromInventoryWithInsufficientSupplies() {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+
+        assertFalse(inventory.takeFromInventory(new TakeFromInventoryIn(List.of(
+            new ArticleBatch(1, 1),
+            new ArticleBatch(2, 8)))));
+        assertFalse(inventory.takeFromInventory(new TakeFromInventoryIn(List.of(
+            new ArticleBatch(1, 1),
+            new ArticleBatch(8, 1)))));
+
+        assertEquals(Optional.of(legSupply), inventory.findArticleSupplyById(leg.getId()));
+        assertEquals(Optional.of(screwSupply), inventory.findArticleSupplyById(screw.getId()));
+
+    }
+
+    @Test
+    @DisplayName("When rolling back a take that had not enough supply, the quantities should be given back without a new version")
+    public void rollingBackWithoutNewVersion() {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+        long legVersion = inventory.findArticleSupplyById(leg.getId()).orElseThrow().getVersion();
+
+        assertFalse(inventory.takeFromInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 8)))));
+        assertFalse(inventory.takeFromInventory(new SellPlan(List.of(new Component(1, 1), new Component(2, 8))), 1));
+
+        assertEquals(legVersion + 2, inventory.findArticleSupplyById(leg.getId()).orElseThrow().getVersion());
+        assertEquals(Optional.of(legSupply), inventory.findArticleSupplyById(leg.getId()));
+
+        inventory.returnToInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1))));
+        assertEquals(legVersion + 3, inventory.findArticleSupplyById(leg.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("When taking a batch in best effort mode, each take should succeed or fail on its own")
+    public void takingBatchFromInventoryBestEffort() {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+
+        assertEquals(List.of(true, false, true), inventory.takeFromInventory(new TakeFromInventoryBatchIn(List.of(
+            new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 2))),
+            new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 3))),
+            new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1)))),
+            false)));
+
+        assertEquals(Optional.of(new ArticleSupply(leg, 0)), inventory.findArticleSupplyById(1));
+        assertEquals(Optional.of(new ArticleSupply(screw, 2)), inventory.findArticleSupplyById(2));
+
+    }
+
+    @Test
+    @DisplayName("When taking a batch in all or nothing mode, it should only update the inventory if every take has enough supply")
+    public void takingBatchFromInventoryAllOrNothing() {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+
+        assertEquals(List.of(false, false), inventory.takeFromInventory(new TakeFromInventoryBatchIn(List.of(
+            new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 2))),
+            new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 3)))),
+            true)));
+
+        assertEquals(Optional.of(legSupply), inventory.findArticleSupplyById(1));
+        assertEquals(Optional.of(screwSupply), inventory.findArticleSupplyById(2));
+
+        assertEquals(List.of(true, true), inventory.takeFromInventory(new TakeFromInventoryBatchIn(List.of(
+            new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 2))),
+            new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 2)))),
+            true)));
+
+        assertEquals(Optional.of(new ArticleSupply(leg, 0)), inventory.findArticleSupplyById(1));
+        assertEquals(Optional.of(new ArticleSupply(screw, 0)), inventory.findArticleSupplyById(2));
+
+    }
+
+    @Test
+    @DisplayName("When taking with expected versions, it should only take if those articles have not changed since they were read")
+    public void takingFromInventoryWithExpectedVersions() {
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+        long legVersion = inventory.findArticleSupplyById(1).orElseThrow().getVersion();
+        long screwVersion = inventory.findArticleSupplyById(2).orElseThrow().getVersion();
+
+        assertEquals(TakeOutcome.TAKEN, inventory.takeFromInventory(new ConditionalTakeIn(
+            List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 1)), Map.of(1, legVersion, 2, screwVersion))));
+        assertTrue(inventory.findArticleSupplyById(1).orElseThrow().getVersion() > legVersion);
+
+        assertEquals(TakeOutcome.VERSION_CONFLICT, inventory.takeFromInventory(new ConditionalTakeIn(
+            List.of(new ArticleBatch(1, 1)), Map.of(1, legVersion))));
+        assertEquals(Optional.of(new ArticleSupply(leg, 1)), inventory.findArticleSupplyById(1));
+
+        long currentLegVersion = inventory.findArticleSupplyById(1).orElseThrow().getVersion();
+        assertEquals(TakeOutcome.NOT_ENOUGH_SUPPLIES, inventory.takeFromInventory(new ConditionalTakeIn(
+            List.of(new ArticleBatch(1, 2)), Map.of(1, currentLegVersion))));
+        assertEquals(TakeOutcome.TAKEN, inventory.takeFromInventory(new ConditionalTakeIn(
+            List.of(new ArticleBatch(1, 1), new ArticleBatch(2, 3)), Map.of(1, currentLegVersion))));
+
+        assertEquals(Optional.of(new ArticleSupply(leg, 0)), inventory.findArticleSupplyById(1));
+        assertEquals(Optional.of(new ArticleSupply(screw, 0)), inventory.findArticleSupplyById(2));
+    }
+
+    @Test
+    @DisplayName("When the stock changes, the stock change listener should be told of every change that happened, in order")
+    public void tellingStockChanges () {
+        StockChangeListener stockChangeListener = mock(StockChangeListener.class);
+        inventory.addStockChangeListener(stockChangeListener);
+        inventory.addStockChangeListener(stockChangeListener);
+        SellPlan sellPlan = new SellPlan(List.of(new Component(leg.getId(), 1)));
+        List<ArticleBatch> screwBatches = List.of(new ArticleBatch(screw.getId(), 3));
+
+        inventory.addToInventory(new AddInventoryIn(List.of(legSupply, screwSupply)));
+        inventory.takeFromInventory(sellPlan, 2);
+        inventory.takeFromInventory(sellPlan, 1);
+        inventory.takeFromInventory(new TakeFromInventoryIn(screwBatches));
+        inventory.returnToInventory(new TakeFromInventoryIn(screwBatches));
+
+        InOrder stockChanges = inOrder(stockChangeListener);
+        stockChanges.verify(stockChangeListener).articlesAdded(List.of(legSupply, screwSupply));
+        stockChanges.verify(stockChangeListener).articlesTaken(sellPlan, 2);
+        stockChanges.verify(stockChangeListener).articlesTaken(screwBatches);
+        stockChanges.verify(stockChangeListener).articlesReturned(screwBatches);
+        verifyNoMoreInteractions(stockChangeListener);
+    }
+}
@@ -1,15 +1,21 @@
 package com.hal9000.warehouse.inventory.adapter.out;
 
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.DINING_SET;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.KALIGULA;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.NERO;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.diningSet;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaComponent2;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaTable;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.neroTable;
 import static java.util.Optional.empty;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.hal9000.warehouse.inventory.domain.Product;
 import com.hal9000.warehouse.inventory.domain.Product.Component;
+import com.hal9000.warehouse.inventory.domain.Product.SubAssembly;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
 import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository.ProductCatalogueIn;
 import java.util.List;
 import java.util.Optional;
@@ -50,4 +56,70 @@ class ProductCatalogueTest {
         productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable, neroTable)));
         assertEquals(Set.of(neroTable, kaligulaTable), productCatalogue.findAllProducts());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("It should return the products containing an article")
+    void findProductsByArticleId() {
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable, neroTable)));
+        assertEquals(Set.of(neroTable, kaligulaTable), productCatalogue.findProductsByArticleId(1));
+
+        Product modifiedKaligulaTable = new Product(KALIGULA, List.of(kaligulaComponent2));
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(modifiedKaligulaTable)));
+        assertEquals(Set.of(neroTable), productCatalogue.findProductsByArticleId(1));
+        assertEquals(Set.of(neroTable, modifiedKaligulaTable), productCatalogue.findProductsByArticleId(2));
+        assertEquals(Set.of(), productCatalogue.findProductsByArticleId(8));
+    }
+
+    @Test
+    @DisplayName("It should flatten the sub-assemblies of a product into its article requirements and keep them up to date")
+    void findArticleRequirements() {
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable, neroTable, diningSet)));
+        assertEquals(Optional.of(List.of(new Component(1, 8), new Component(2, 22))), productCatalogue.findArticleRequirements(DINING_SET));
+        assertEquals(Set.of(diningSet), productCatalogue.findProductsBySubAssembly(NERO));
+
+        Product modifiedNeroTable = new Product(NERO, List.of(new Component(3, 1)));
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(modifiedNeroTable)));
+        assertEquals(Optional.of(List.of(new Component(1, 2), new Component(2, 12), new Component(3, 2))),
+            productCatalogue.findArticleRequirements(DINING_SET));
+        assertEquals(Set.of(diningSet, modifiedNeroTable), productCatalogue.findProductsByArticleId(3));
+        SellPlan sellPlan = productCatalogue.findSellPlan(DINING_SET).orElseThrow();
+        assertArrayEquals(new int[]{1, 2, 3}, sellPlan.getArticleIds());
+        assertArrayEquals(new int[]{2, 12, 2}, sellPlan.getUnitQuantities());
+    }
+
+    @Test
+    @DisplayName("When the article requirements of an update overflow, the catalogue should be left as it was")
+    void overflowingArticleRequirements() {
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable, neroTable, diningSet)));
+        Product hugeNeroTable = new Product(NERO, List.of(new Component(1, Integer.MAX_VALUE)));
+
+        assertThrows(ArithmeticException.class, () -> productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(hugeNeroTable))));
+
+        assertEquals(Optional.of(neroTable), productCatalogue.findProductByName(NERO));
+        assertEquals(Optional.of(List.of(new Component(1, 8), new Component(2, 22))), productCatalogue.findArticleRequirements(DINING_SET));
+        assertEquals(Set.of(neroTable, kaligulaTable, diningSet), productCatalogue.findProductsByArticleId(1));
+    }
+
+    @Test
+    @DisplayName("When the check of an update fails, the catalogue should be left as it was")
+    void failingCheck() {
+        assertThrows(IllegalStateException.class, () -> productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable)), () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(empty(), productCatalogue.findProductByName(KALIGULA));
+    }
+
+    @Test
+    @DisplayName("A product added before its sub-assemblies should have no requirements until all of them are added")
+    void findArticleRequirementsOfIncompleteProduct() {
+        Product bench = new Product("Bench", List.of(), List.of(new SubAssembly("Leg kit", 2)));
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(bench)));
+        assertEquals(empty(), productCatalogue.findArticleRequirements("Bench"));
+        assertEquals(Set.of(), productCatalogue.findProductsByArticleId(1));
+
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(new Product("Leg kit", List.of(new Component(1, 4))))));
+        assertEquals(Optional.of(List.of(new Component(1, 8))), productCatalogue.findArticleRequirements("Bench"));
+        assertEquals(Set.of(bench), productCatalogue.findProductsBySubAssembly("Leg kit"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.hal9000.warehouse.inventory.adapter.out.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class FileAuditTrailTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("When draining the trail, every recorded entry should be written as a JSON line in order")
+    void writingEntries() {
+        FileAuditTrail auditTrail = openAuditTrail(16, DataSize.ofMegabytes(1), 2);
+
+        auditTrail.articlesAdded(2, 30);
+        auditTrail.catalogueUpdated(1);
+        auditTrail.productSold("Dining \"Chair\"", 2);
+        auditTrail.drain();
+
+        List<String> lines = readLines(directory.resolve("audit.log"));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).endsWith("\"type\":\"ARTICLES_ADDED\",\"articles\":2,\"units\":30}"));
+        assertTrue(lines.get(1).endsWith("\"type\":\"CATALOGUE_UPDATED\",\"products\":1}"));
+        assertTrue(lines.get(2).endsWith("\"type\":\"PRODUCT_SOLD\",\"product\":\"Dining \\\"Chair\\\"\",\"quantity\":2}"));
+        close(auditTrail);
+    }
+
+    @Test
+    @DisplayName("When the ring is full, entries should be dropped and the number dropped written instead")
+    void droppingEntries() {
+        FileAuditTrail auditTrail = openAuditTrail(2, DataSize.ofMegabytes(1), 2);
+
+        auditTrail.productSold("Chair", 1);
+        auditTrail.productSold("Chair", 2);
+        auditTrail.productSold("Chair", 3);
+        auditTrail.drain();
+        auditTrail.productSold("Chair", 4);
+        auditTrail.drain();
+
+        List<String> lines = readLines(directory.resolve("audit.log"));
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(1).endsWith("\"quantity\":2}"));
+        assertTrue(lines.get(2).endsWith("\"type\":\"ENTRIES_DROPPED\",\"entries\":1}"));
+        assertTrue(lines.get(3).endsWith("\"quantity\":4}"));
+        close(auditTrail);
+    }
+
+    @Test
+    @DisplayName("When the file grows over its maximum size, it should be rolled keeping the newest files")
+    void rollingFiles() {
+        FileAuditTrail auditTrail = openAuditTrail(16, DataSize.ofBytes(100), 2);
+
+        for (int quantity = 1; quantity <= 4; quantity++) {
+            auditTrail.productSold("Chair", quantity);
+            auditTrail.drain();
+        }
+        close(auditTrail);
+
+        assertTrue(readLines(directory.resolve("audit.log")).get(0).endsWith("\"quantity\":4}"));
+        assertTrue(readLines(directory.resolve("audit.log.1")).get(0).endsWith("\"quantity\":3}"));
+        assertTrue(readLines(directory.resolve("audit.log.2")).get(0).endsWith("\"quantity\":2}"));
+        assertFalse(Files.exists(directory.resolve("audit.log.3")));
+    }
+
+    @SneakyThrows
+    private FileAuditTrail openAuditTrail(int capacity, DataSize maxFileSize, int maxFiles) {
+        FileAuditTrail auditTrail = new FileAuditTrail(
+            new AuditProperties(directory.resolve("audit.log").toString(), capacity, Duration.ofHours(1), maxFileSize, maxFiles));
+        auditTrail.open();
+        return auditTrail;
+    }
+
+    @SneakyThrows
+    private static List<String> readLines(Path file) {
+        return Files.readAllLines(file);
+    }
+
+    @SneakyThrows
+    private static void close(FileAuditTrail auditTrail) {
+        auditTrail.close();
+    }
+}
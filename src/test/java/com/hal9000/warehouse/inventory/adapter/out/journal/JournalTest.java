@@ -0,0 +1,193 @@
+package com.hal9000.warehouse.inventory.adapter.out.journal;
+
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.diningSet;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaTable;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.neroTable;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.hal9000.warehouse.inventory.adapter.out.Inventory;
+import com.hal9000.warehouse.inventory.adapter.out.ProductCatalogue;
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository.ProductCatalogueIn;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalTest {
+
+    private static final Article leg = new Article(1, "leg");
+    private static final Article screw = new Article(2, "screw");
+
+    @TempDir
+    Path directory;
+
+    private Inventory inventory;
+    private ProductCatalogue productCatalogue;
+    private Journal journal;
+
+    @BeforeEach
+    void setUp() {
+        openJournal();
+    }
+
+    @Test
+    @DisplayName("When restarting, every change in the journal should be recovered")
+    void recoverFromJournal() {
+        inventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 10), new ArticleSupply(screw, 20))));
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable, neroTable)));
+        inventory.takeFromInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(1, 2), new ArticleBatch(2, 4))));
+
+        restart();
+
+        assertRecovered(8, 16, Set.of(kaligulaTable, neroTable));
+    }
+
+    @Test
+    @DisplayName("When restarting after a snapshot, the snapshot and the journal tail should be recovered")
+    void recoverFromSnapshotAndJournalTail() {
+        inventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 10), new ArticleSupply(screw, 20))));
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable)));
+        journal.snapshot();
+        assertEquals(1, countSegments());
+        inventory.takeFromInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(1, 2), new ArticleBatch(2, 4))));
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(neroTable, diningSet)));
+
+        restart();
+
+        assertRecovered(8, 16, Set.of(kaligulaTable, neroTable, diningSet));
+    }
+
+    @Test
+    @DisplayName("When the end of the journal was torn by a crash, every complete record should be recovered")
+    void recoverFromTornJournal() {
+        inventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 10), new ArticleSupply(screw, 20))));
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable, neroTable)));
+
+        restart();
+        appendToLastSegment(new byte[] {0, 0, 0, 40, 1, 2, 3});
+        restart();
+
+        assertRecovered(10, 20, Set.of(kaligulaTable, neroTable));
+        inventory.takeFromInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(1, 1))));
+        restart();
+        assertRecovered(9, 20, Set.of(kaligulaTable, neroTable));
+    }
+
+    @Test
+    @DisplayName("When restarting with holds still open, their articles should be returned to the inventory once")
+    void returnOpenHolds() {
+        inventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 10), new ArticleSupply(screw, 20))));
+        List<ArticleBatch> openHold = List.of(new ArticleBatch(1, 2), new ArticleBatch(2, 4));
+        inventory.takeFromInventory(new TakeFromInventoryIn(openHold));
+        journal.holdTaken("open", openHold);
+        journal.snapshot();
+        List<ArticleBatch> endedHold = List.of(new ArticleBatch(1, 3));
+        inventory.takeFromInventory(new TakeFromInventoryIn(endedHold));
+        journal.holdTaken("ended", endedHold);
+        journal.holdEnded("ended");
+
+        restart();
+        assertRecovered(7, 20, Set.of());
+        restart();
+
+        assertRecovered(7, 20, Set.of());
+    }
+
+    @Test
+    @DisplayName("When a change returns, its records should already be written to the journal")
+    void acknowledgingSyncedChanges() {
+        inventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 10))));
+
+        assertTrue(lastSegmentSize() > 0);
+    }
+
+    @Test
+    @DisplayName("When the journal cannot be written, the changes waiting for it and every further change should fail")
+    void failingJournal() throws Exception {
+        inventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 10))));
+        journal.close();
+
+        CompletableFuture<Void> waitingChange = CompletableFuture.runAsync(() ->
+            inventory.takeFromInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(1, 2)))));
+        journal.sync();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> waitingChange.get(10, SECONDS));
+        assertTrue(exception.getCause() instanceof UncheckedIOException);
+        assertThrows(UncheckedIOException.class, () -> inventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(screw, 5)))));
+        assertThrows(UncheckedIOException.class, () -> productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable))));
+    }
+
+    @Test
+    @DisplayName("When the store is not the map store, the journal should refuse to start")
+    void journalingUnsupportedStore() {
+        assertThrows(IllegalStateException.class, () -> new Journal(mock(InventoryRepository.class), productCatalogue,
+            new JournalProperties(directory.toString(), Duration.ofMillis(5), Duration.ofHours(1))));
+    }
+
+    private void assertRecovered(int legs, int screws, Set<Product> products) {
+        assertEquals(Optional.of(new ArticleSupply(leg, legs)), inventory.findArticleSupplyById(leg.getId()));
+        assertEquals(Optional.of(new ArticleSupply(screw, screws)), inventory.findArticleSupplyById(screw.getId()));
+        assertEquals(products, productCatalogue.findAllProducts());
+    }
+
+    @SneakyThrows
+    private void restart() {
+        journal.close();
+        openJournal();
+    }
+
+    @SneakyThrows
+    private void openJournal() {
+        inventory = new Inventory();
+        productCatalogue = new ProductCatalogue();
+        journal = new Journal(inventory, productCatalogue,
+            new JournalProperties(directory.toString(), Duration.ofMillis(5), Duration.ofHours(1)));
+        journal.open();
+    }
+
+    @SneakyThrows
+    private long countSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+
+    @SneakyThrows
+    private long lastSegmentSize() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return Files.size(files.filter(file -> file.getFileName().toString().endsWith(".log")).max(Path::compareTo).orElseThrow());
+        }
+    }
+
+    @SneakyThrows
+    private void appendToLastSegment(byte[] bytes) {
+        try (Stream<Path> files = Files.list(directory)) {
+            Path lastSegment = files.filter(file -> file.getFileName().toString().endsWith(".log")).max(Path::compareTo).orElseThrow();
+            assertTrue(Files.exists(lastSegment));
+            Files.write(lastSegment, bytes, APPEND);
+        }
+    }
+}
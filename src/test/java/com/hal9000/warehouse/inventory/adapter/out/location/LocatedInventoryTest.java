@@ -0,0 +1,107 @@
+package com.hal9000.warehouse.inventory.adapter.out.location;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryBatchIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryOut;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LocatedInventoryTest {
+
+    private static final Article leg = new Article(1, "leg");
+    private static final Article screw = new Article(2, "screw");
+
+    private final LocatedInventory locatedInventory = new LocatedInventory(new LocationProperties(
+        List.of("north", "south", "east"), Map.of("north", List.of("east"))));
+
+    @BeforeEach
+    void setUp() {
+        locatedInventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 2), new ArticleSupply(screw, 8)), false, "north"));
+        locatedInventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 4), new ArticleSupply(screw, 8)), false, "south"));
+        locatedInventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 6), new ArticleSupply(screw, 8)), false, "east"));
+    }
+
+    @Test
+    @DisplayName("When the preferred location has not enough supplies, the take should be served whole by its nearest location that has")
+    void takingFromNearestLocation() {
+        assertTrue(locatedInventory.takeFromInventory(new TakeFromInventoryIn(List.of(
+            new ArticleBatch(leg.getId(), 3), new ArticleBatch(screw.getId(), 1)), "north")));
+
+        assertStock("north", 2, 8);
+        assertStock("south", 4, 8);
+        assertStock("east", 3, 7);
+        assertFalse(locatedInventory.takeFromInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(leg.getId(), 5)), "south")));
+    }
+
+    @Test
+    @DisplayName("When querying without a location, the stock of every location should be added up")
+    void aggregatingLocations() {
+        locatedInventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(new Article(3, "seat"), 1)), false, "east"));
+
+        assertEquals(12, locatedInventory.findArticleSupplyById(leg.getId()).orElseThrow().getQuantity());
+        assertArrayEquals(new int[] {4}, locatedInventory.findArticleIdsNotInInventory(new int[] {leg.getId(), 3, 4}));
+        List<ArticleSupply> articleSupplies = new ArrayList<>();
+        locatedInventory.forEachArticleSupply(articleSupplies::add);
+        assertEquals(List.of(12, 24, 1), articleSupplies.stream().map(ArticleSupply::getQuantity).collect(toList()));
+        assertEquals(List.of("north", "south", "east"), locatedInventory.getLocations());
+    }
+
+    @Test
+    @DisplayName("When selling a batch all or nothing, every line should be taken from the same location")
+    void takingBatchFromOneLocation() {
+        assertEquals(List.of(true, true), locatedInventory.takeFromInventory(new TakeFromInventoryBatchIn(List.of(
+            new TakeFromInventoryIn(List.of(new ArticleBatch(leg.getId(), 2))),
+            new TakeFromInventoryIn(List.of(new ArticleBatch(leg.getId(), 2), new ArticleBatch(screw.getId(), 8)))), true)));
+
+        assertStock("north", 2, 8);
+        assertStock("south", 0, 0);
+    }
+
+    @Test
+    @DisplayName("When returning articles, they should go back to the preferred location holding them")
+    void returningToLocation() {
+        locatedInventory.returnToInventory(new TakeFromInventoryIn(List.of(new ArticleBatch(leg.getId(), 1)), "east"));
+
+        assertStock("east", 7, 8);
+        assertStock("north", 2, 8);
+    }
+
+    @Test
+    @DisplayName("When returning the articles of a take, they should go back to the location that served it")
+    void returningToServingLocation() {
+        TakeFromInventoryOut takeFromInventoryOut = locatedInventory.takeFromLocation(new TakeFromInventoryIn(List.of(
+            new ArticleBatch(leg.getId(), 3), new ArticleBatch(screw.getId(), 1)), "north"));
+
+        assertEquals(new TakeFromInventoryOut(true, "east"), takeFromInventoryOut);
+        locatedInventory.returnToInventory(new TakeFromInventoryIn(List.of(
+            new ArticleBatch(leg.getId(), 3), new ArticleBatch(screw.getId(), 1)), takeFromInventoryOut.getLocation()));
+        assertStock("north", 2, 8);
+        assertStock("east", 6, 8);
+    }
+
+    @Test
+    @DisplayName("When the location names are configured empty, the located store should not start")
+    void rejectingEmptyLocations() {
+        assertThrows(IllegalArgumentException.class, () -> new LocationProperties(List.of(), Map.of()));
+    }
+
+    private void assertStock(String location, int legs, int screws) {
+        assertEquals(legs, locatedInventory.findArticleSupplyById(location, leg.getId()).orElseThrow().getQuantity());
+        assertEquals(screws, locatedInventory.findArticleSupplyById(location, screw.getId()).orElseThrow().getQuantity());
+    }
+}
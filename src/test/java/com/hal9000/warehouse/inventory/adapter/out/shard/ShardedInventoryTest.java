@@ -0,0 +1,161 @@
+package com.hal9000.warehouse.inventory.adapter.out.shard;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryBatchIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeOutcome;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ShardedInventoryTest {
+
+    private static final List<String> nodes = List.of("http://node-a", "http://node-b", "http://node-c");
+    private static final ShardProperties shardProperties = new ShardProperties(nodes, 0, 128, Duration.ofSeconds(30), Duration.ofSeconds(2));
+
+    private final ShardRing shardRing = new ShardRing(nodes, shardProperties.getVirtualNodes());
+    private final List<LocalShard> localShards = List.of(
+        new LocalShard(shardProperties), spy(new LocalShard(shardProperties)), new LocalShard(shardProperties));
+    private final ShardedInventory shardedInventory = new ShardedInventory(shardRing, List.copyOf(localShards),
+        shardProperties.getReservationTimeout());
+
+    private final Article leg = new Article(articleOnShard(0), "leg");
+    private final Article screw = new Article(articleOnShard(1), "screw");
+
+    @Test
+    @DisplayName("When taking articles that live on different shards, it should take them from every shard")
+    void takingAcrossShards() {
+        shardedInventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 4), new ArticleSupply(screw, 8))));
+
+        assertTrue(shardedInventory.takeFromInventory(new TakeFromInventoryIn(List.of(
+            new ArticleBatch(leg.getId(), 1), new ArticleBatch(screw.getId(), 2)))));
+
+        assertEquals(Optional.of(new ArticleSupply(leg, 3)), shardedInventory.findArticleSupplyById(leg.getId()));
+        assertEquals(Optional.of(new ArticleSupply(screw, 6)), shardedInventory.findArticleSupplyById(screw.getId()));
+        assertEquals(Optional.of(new ArticleSupply(leg, 3)), localShards.get(0).findArticleSupplyById(leg.getId()));
+        assertEquals(Optional.of(new ArticleSupply(screw, 6)), localShards.get(1).findArticleSupplyById(screw.getId()));
+    }
+
+    @Test
+    @DisplayName("When one of the shards has not enough supplies, the reservations on the other shards should be released")
+    void takingAcrossShardsWithoutEnoughSupplies() {
+        shardedInventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 4), new ArticleSupply(screw, 1))));
+
+        assertFalse(shardedInventory.takeFromInventory(new TakeFromInventoryIn(List.of(
+            new ArticleBatch(leg.getId(), 1), new ArticleBatch(screw.getId(), 2)))));
+        assertEquals(List.of(false, false), shardedInventory.takeFromInventory(new TakeFromInventoryBatchIn(List.of(
+            new TakeFromInventoryIn(List.of(new ArticleBatch(leg.getId(), 1), new ArticleBatch(screw.getId(), 1))),
+            new TakeFromInventoryIn(List.of(new ArticleBatch(screw.getId(), 1)))), true)));
+
+        assertEquals(Optional.of(new ArticleSupply(leg, 4)), shardedInventory.findArticleSupplyById(leg.getId()));
+        assertEquals(Optional.of(new ArticleSupply(screw, 1)), shardedInventory.findArticleSupplyById(screw.getId()));
+    }
+
+    @Test
+    @DisplayName("When a reservation expires before its commit arrives, the take should fail and be undone on every shard")
+    void committingExpiredReservation() {
+        shardedInventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 4), new ArticleSupply(screw, 8))));
+        LocalShard screwShard = localShards.get(1);
+        doAnswer(commit -> {
+            screwShard.expireReservations(System.currentTimeMillis() + Duration.ofMinutes(1).toMillis());
+            return commit.callRealMethod();
+        }).when(screwShard).commit(anyString());
+
+        assertFalse(shardedInventory.takeFromInventory(new TakeFromInventoryIn(List.of(
+            new ArticleBatch(leg.getId(), 1), new ArticleBatch(screw.getId(), 2)))));
+
+        assertEquals(Optional.of(new ArticleSupply(leg, 4)), shardedInventory.findArticleSupplyById(leg.getId()));
+        assertEquals(Optional.of(new ArticleSupply(screw, 8)), shardedInventory.findArticleSupplyById(screw.getId()));
+    }
+
+    @Test
+    @DisplayName("When a commit is retried, it should be acknowledged again, while a commit of a released reservation should fail")
+    void committingTwice() {
+        LocalShard localShard = localShards.get(0);
+        localShard.addToInventory(List.of(new ArticleSupply(leg, 4)), false);
+
+        assertEquals(TakeOutcome.TAKEN, localShard.reserve("committed", List.of(new ArticleBatch(leg.getId(), 1)), Map.of()));
+        assertTrue(localShard.commit("committed"));
+        assertTrue(localShard.commit("committed"));
+        localShard.release("committed");
+
+        assertEquals(TakeOutcome.TAKEN, localShard.reserve("released", List.of(new ArticleBatch(leg.getId(), 1)), Map.of()));
+        localShard.release("released");
+        assertFalse(localShard.commit("released"));
+        assertEquals(Optional.of(new ArticleSupply(leg, 3)), localShard.findArticleSupplyById(leg.getId()));
+    }
+
+    @Test
+    @DisplayName("When a reservation is neither committed nor released, it should be released once it expires")
+    void expiringReservations() {
+        LocalShard localShard = localShards.get(0);
+        localShard.addToInventory(List.of(new ArticleSupply(leg, 4)), false);
+
+        assertEquals(TakeOutcome.TAKEN, localShard.reserve("abandoned", List.of(new ArticleBatch(leg.getId(), 3)), Map.of()));
+        localShard.expireReservations(System.currentTimeMillis());
+        assertEquals(Optional.of(new ArticleSupply(leg, 1)), localShard.findArticleSupplyById(leg.getId()));
+
+        localShard.expireReservations(System.currentTimeMillis() + Duration.ofMinutes(1).toMillis());
+        assertEquals(Optional.of(new ArticleSupply(leg, 4)), localShard.findArticleSupplyById(leg.getId()));
+    }
+
+    @Test
+    @DisplayName("The ring should spread the articles over every shard and keep most of them in place when a node joins")
+    void distributingArticles() {
+        long[] articlesPerShard = new long[nodes.size()];
+        IntStream.range(0, 30_000).forEach(articleId -> articlesPerShard[shardRing.shardOf(articleId)]++);
+        for (long articles : articlesPerShard) {
+            assertTrue(articles > 5_000, "unbalanced shards " + List.of(articlesPerShard[0], articlesPerShard[1], articlesPerShard[2]));
+        }
+
+        ShardRing grownShardRing = new ShardRing(List.of("http://node-a", "http://node-b", "http://node-c", "http://node-d"),
+            shardProperties.getVirtualNodes());
+        long movedArticles = IntStream.range(0, 30_000)
+            .filter(articleId -> grownShardRing.shardOf(articleId) != shardRing.shardOf(articleId))
+            .count();
+        assertTrue(movedArticles < 12_000, movedArticles + " articles moved");
+        assertNotEquals(0, movedArticles);
+    }
+
+    @Test
+    @DisplayName("When looking for articles not in the inventory, each shard should be asked once for all of its articles")
+    void findArticleIdsNotInInventory() {
+        shardedInventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(leg, 3), new ArticleSupply(screw, 6))));
+        int missingArticleId = IntStream.iterate(screw.getId() + 1, articleId -> articleId + 1)
+            .filter(articleId -> shardRing.shardOf(articleId) == 1)
+            .findFirst()
+            .getAsInt();
+
+        int[] articleIdsNotInInventory = shardedInventory.findArticleIdsNotInInventory(new int[] {leg.getId(), missingArticleId, screw.getId()});
+
+        assertArrayEquals(new int[] {missingArticleId}, articleIdsNotInInventory);
+        verify(localShards.get(1)).findArticleIdsNotInInventory(new int[] {missingArticleId, screw.getId()});
+        verify(localShards.get(1), never()).findArticleSupplyById(anyInt());
+    }
+
+    private int articleOnShard(int shard) {
+        return IntStream.iterate(1, articleId -> articleId + 1)
+            .filter(articleId -> shardRing.shardOf(articleId) == shard)
+            .findFirst()
+            .getAsInt();
+    }
+}
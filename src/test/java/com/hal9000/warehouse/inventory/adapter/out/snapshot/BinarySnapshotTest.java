@@ -0,0 +1,103 @@
+package com.hal9000.warehouse.inventory.adapter.out.snapshot;
+
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.DINING_SET;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.diningSet;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaTable;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.neroTable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.hal9000.warehouse.inventory.adapter.out.Inventory;
+import com.hal9000.warehouse.inventory.adapter.out.PrimitiveInventory;
+import com.hal9000.warehouse.inventory.adapter.out.ProductCatalogue;
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository.ProductCatalogueIn;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinarySnapshotTest {
+
+    private static final SnapshotProperties noFiles = new SnapshotProperties(null, null);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("When loading an exported snapshot, the same inventory and products should be restored")
+    void exportAndLoad() {
+        Inventory inventory = new Inventory();
+        ProductCatalogue productCatalogue = new ProductCatalogue();
+        inventory.addToInventory(new AddInventoryIn(List.of(
+            new ArticleSupply(new Article(1, "leg"), 10),
+            new ArticleSupply(new Article(2, "schräube"), 0),
+            new ArticleSupply(new Article(3, null), 7))));
+        productCatalogue.addToCatalogue(new ProductCatalogueIn(List.of(kaligulaTable, neroTable, diningSet)));
+        Path snapshotFile = directory.resolve("inventory.snapshot");
+
+        export(inventory, productCatalogue, snapshotFile);
+        Inventory loadedInventory = new Inventory();
+        ProductCatalogue loadedProductCatalogue = new ProductCatalogue();
+        load(loadedInventory, loadedProductCatalogue, snapshotFile);
+
+        assertEquals(Optional.of(new ArticleSupply(new Article(1, "leg"), 10)), loadedInventory.findArticleSupplyById(1));
+        assertEquals(Optional.of(new ArticleSupply(new Article(2, "schräube"), 0)), loadedInventory.findArticleSupplyById(2));
+        assertEquals(Optional.of(new ArticleSupply(new Article(3, null), 7)), loadedInventory.findArticleSupplyById(3));
+        assertEquals(Set.of(kaligulaTable, neroTable, diningSet), loadedProductCatalogue.findAllProducts());
+        assertEquals(productCatalogue.findArticleRequirements(DINING_SET), loadedProductCatalogue.findArticleRequirements(DINING_SET));
+    }
+
+    @Test
+    @DisplayName("When exporting the primitive store, every article supply should be exported")
+    void exportPrimitiveInventory() {
+        PrimitiveInventory primitiveInventory = new PrimitiveInventory();
+        for (int articleId = 0; articleId < 5000; articleId++) {
+            primitiveInventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(new Article(articleId, "article " + articleId), articleId))));
+        }
+        Path snapshotFile = directory.resolve("inventory.snapshot");
+
+        export(primitiveInventory, new ProductCatalogue(), snapshotFile);
+        Inventory loadedInventory = new Inventory();
+        load(loadedInventory, new ProductCatalogue(), snapshotFile);
+
+        for (int articleId = 0; articleId < 5000; articleId++) {
+            assertEquals(primitiveInventory.findArticleSupplyById(articleId), loadedInventory.findArticleSupplyById(articleId));
+        }
+    }
+
+    @Test
+    @DisplayName("When loading a truncated snapshot, it should fail")
+    void loadTruncatedSnapshot() throws IOException {
+        Inventory inventory = new Inventory();
+        inventory.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(new Article(1, "leg"), 10))));
+        Path snapshotFile = directory.resolve("inventory.snapshot");
+        export(inventory, new ProductCatalogue(), snapshotFile);
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        Files.write(snapshotFile, Arrays.copyOf(bytes, bytes.length - 4));
+
+        BinarySnapshot binarySnapshot = new BinarySnapshot(new Inventory(), new ProductCatalogue(), noFiles);
+
+        assertThrows(IOException.class, () -> binarySnapshot.load(snapshotFile));
+    }
+
+    @SneakyThrows
+    private void export(InventoryRepository inventory, ProductCatalogue productCatalogue, Path snapshotFile) {
+        new BinarySnapshot(inventory, productCatalogue, noFiles).export(snapshotFile);
+    }
+
+    @SneakyThrows
+    private void load(InventoryRepository inventory, ProductCatalogue productCatalogue, Path snapshotFile) {
+        new BinarySnapshot(inventory, productCatalogue, noFiles).load(snapshotFile);
+    }
+}
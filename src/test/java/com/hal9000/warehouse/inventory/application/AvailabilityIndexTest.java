@@ -0,0 +1,182 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.KALIGULA;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.NERO;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaTable;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.neroTable;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProduct;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortBy;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortDirection;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityIndexTest {
+
+    @Mock
+    private ProductCatalogueRepository productCatalogueRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private StockEventBus stockEventBus;
+
+    private AvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void setUp() {
+        availabilityIndex = new AvailabilityIndex(productCatalogueRepository, inventoryRepository, stockEventBus,
+            new AvailabilityProperties(2, 1, 2));
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(productCatalogueRepository.findArticleRequirements(NERO)).thenReturn(Optional.of(neroTable.getComponents()));
+    }
+
+    @Test
+    @DisplayName("Should return a list of products that can be sold")
+    void listOfProductsThatCanBeSold() {
+        givenStock(9, 12);
+
+        availabilityIndex.productsChanged(List.of(kaligulaTable, neroTable));
+
+        assertEquals(
+            Set.of(new AvailableProduct(3, KALIGULA), new AvailableProduct(2, NERO)),
+            availabilityIndex.getAvailableProducts());
+    }
+
+    @Test
+    @DisplayName("Should not include a product in the list of products that can be sold if there is not enough supplies for it")
+    void productsThatCanNotBeSold() {
+        givenStock(2, 4);
+
+        availabilityIndex.productsChanged(List.of(kaligulaTable, neroTable));
+
+        assertEquals(Set.of(new AvailableProduct(1, KALIGULA)), availabilityIndex.getAvailableProducts());
+    }
+
+    @Test
+    @DisplayName("When articles change, only the products depending on them should be recomputed")
+    void articlesChanged() {
+        givenStock(9, 12);
+        availabilityIndex.productsChanged(List.of(kaligulaTable, neroTable));
+
+        givenStock(2, 12);
+        when(productCatalogueRepository.findProductsByArticleId(1)).thenReturn(Set.of(neroTable));
+        availabilityIndex.articlesChanged(List.of(1));
+
+        assertEquals(Set.of(new AvailableProduct(3, KALIGULA)), availabilityIndex.getAvailableProducts());
+        verify(stockEventBus).availabilityChanged(NERO, 2);
+        verify(stockEventBus).availabilityChanged(NERO, 0);
+        verify(stockEventBus).availabilityChanged(KALIGULA, 3);
+    }
+
+    @Test
+    @DisplayName("When asking for the changes since a version, only the products that changed after it should be returned, including the ones no longer available")
+    void availableProductsChangedSince() {
+        long epoch = availabilityIndex.getVersion();
+        givenStock(9, 12);
+        availabilityIndex.productsChanged(List.of(kaligulaTable, neroTable));
+        long version = availabilityIndex.getVersion();
+
+        givenStock(2, 12);
+        when(productCatalogueRepository.findProductsByArticleId(1)).thenReturn(Set.of(neroTable));
+        availabilityIndex.articlesChanged(List.of(1));
+
+        assertEquals(epoch + 2, version);
+        assertEquals(epoch + 3, availabilityIndex.getVersion());
+        assertEquals(Set.of(new AvailableProduct(0, NERO)), availabilityIndex.getAvailableProductsChangedSince(version));
+        assertEquals(Set.of(new AvailableProduct(0, NERO), new AvailableProduct(3, KALIGULA)), availabilityIndex.getAvailableProductsChangedSince(epoch));
+    }
+
+    @Test
+    @DisplayName("When asking for the changes since a version of another boot, every product should be returned")
+    void availableProductsChangedSinceOtherBoot() {
+        givenStock(9, 12);
+        availabilityIndex.productsChanged(List.of(kaligulaTable, neroTable));
+        long otherBootVersion = 1_000;
+
+        assertEquals(2, availabilityIndex.getAvailableProducts().size());
+        assertEquals(availabilityIndex.getAvailableProducts(), availabilityIndex.getAvailableProductsChangedSince(otherBootVersion));
+    }
+
+    @Test
+    @DisplayName("While a change is being stored, the version should stay below it even when later changes are already stored")
+    void versionOfChangesBeingStored() throws Exception {
+        givenStock(9, 12);
+        CountDownLatch storing = new CountDownLatch(1);
+        CountDownLatch stored = new CountDownLatch(1);
+        doAnswer(availabilityChanged -> {
+            storing.countDown();
+            stored.await();
+            return null;
+        }).when(stockEventBus).availabilityChanged(KALIGULA, 3);
+
+        long epoch = availabilityIndex.getVersion();
+        CompletableFuture<Void> kaligulaChange = CompletableFuture.runAsync(() -> availabilityIndex.productsChanged(List.of(kaligulaTable)));
+        storing.await();
+        availabilityIndex.productsChanged(List.of(neroTable));
+        assertEquals(epoch, availabilityIndex.getVersion());
+
+        stored.countDown();
+        kaligulaChange.get(10, SECONDS);
+        assertEquals(epoch + 2, availabilityIndex.getVersion());
+    }
+
+    @Test
+    @DisplayName("When finding a page of products, they should be filtered and sorted, starting after the given product")
+    void findingPagesOfProducts() {
+        givenStock(9, 12);
+        availabilityIndex.productsChanged(List.of(kaligulaTable, neroTable));
+
+        assertEquals(List.of(new AvailableProduct(3, KALIGULA), new AvailableProduct(2, NERO)),
+            availabilityIndex.findAvailableProducts("", 1, SortBy.QUANTITY, SortDirection.DESC, null, 10));
+        assertEquals(List.of(new AvailableProduct(2, NERO)),
+            availabilityIndex.findAvailableProducts("", 1, SortBy.QUANTITY, SortDirection.DESC, new AvailableProduct(3, KALIGULA), 10));
+        assertEquals(List.of(new AvailableProduct(3, KALIGULA)),
+            availabilityIndex.findAvailableProducts("", 3, SortBy.NAME, SortDirection.ASC, null, 10));
+        assertEquals(List.of(new AvailableProduct(2, NERO)),
+            availabilityIndex.findAvailableProducts("N", 1, SortBy.QUANTITY, SortDirection.ASC, null, 10));
+        assertEquals(List.of(new AvailableProduct(3, KALIGULA)),
+            availabilityIndex.findAvailableProducts("", 1, SortBy.NAME, SortDirection.ASC, null, 1));
+    }
+
+    @Test
+    @DisplayName("When more articles change than it is worth finding the products of, every product should be recomputed in parallel in the background")
+    void recomputingAll() {
+        givenStock(9, 12);
+        when(productCatalogueRepository.productNameSpliterator()).thenReturn(List.of(KALIGULA, NERO).spliterator());
+
+        availabilityIndex.articlesChanged(List.of(1, 2, 3));
+        availabilityIndex.drain();
+
+        assertEquals(
+            Set.of(new AvailableProduct(3, KALIGULA), new AvailableProduct(2, NERO)),
+            availabilityIndex.getAvailableProducts());
+    }
+
+    private void givenStock(int legs, int screws) {
+        when(inventoryRepository.findArticleSupplyById(1))
+            .thenReturn(Optional.of(new ArticleSupply(new Article(1, "leg"), legs)));
+        when(inventoryRepository.findArticleSupplyById(2))
+            .thenReturn(Optional.of(new ArticleSupply(new Article(2, "screw"), screws)));
+    }
+}
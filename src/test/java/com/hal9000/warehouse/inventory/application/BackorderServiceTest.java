@@ -0,0 +1,164 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.KALIGULA;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaComponent1;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaComponent2;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaTable;
+import static com.hal9000.warehouse.inventory.port.in.BackorderUseCase.ErrorType.BACKORDERS_FULL;
+import static com.hal9000.warehouse.inventory.port.in.BackorderUseCase.ErrorType.NON_EXISTENT_BACKORDER;
+import static com.hal9000.warehouse.inventory.port.in.BackorderUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static java.util.Optional.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase.Backorder;
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase.BackorderException;
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase.BackorderProductIn;
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase.BackorderStatus;
+import com.hal9000.warehouse.inventory.port.in.BackorderUseCase.ErrorType;
+import com.hal9000.warehouse.inventory.port.out.AuditTrail;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BackorderServiceTest {
+
+    private static final List<Integer> kaligulaArticleIds = List.of(kaligulaComponent1.getArticleId(), kaligulaComponent2.getArticleId());
+
+    @Mock
+    private ProductCatalogueRepository productCatalogueRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private StockEventBus stockEventBus;
+
+    @Mock
+    private AuditTrail auditTrail;
+
+    private BackorderService backorderService;
+
+    @BeforeEach
+    public void setUp () {
+        backorderService = new BackorderService(productCatalogueRepository, inventoryRepository, availabilityIndex, stockEventBus,
+            auditTrail, new UseCaseMetrics(new SimpleMeterRegistry()), new BackorderProperties(2));
+    }
+
+    @Test
+    @DisplayName("When backordering a product with enough supplies and no pending backorders, it should be sold right away")
+    public void backorderingWithEnoughSupplies () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(inventoryRepository.takeFromInventory(kaligulaBatches(2))).thenReturn(true);
+
+        Backorder backorder = backorderService.backorderProduct(new BackorderProductIn(KALIGULA, 2));
+
+        assertEquals(BackorderStatus.FULFILLED, backorder.getStatus());
+        verify(availabilityIndex).articlesChanged(kaligulaArticleIds);
+        verify(auditTrail).productSold(KALIGULA, 2);
+        verify(stockEventBus, never()).backorderFulfilled(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("When articles arrive, pending backorders should be fulfilled in order until one cannot be served")
+    public void fulfillingInOrder () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(productCatalogueRepository.findProductsByArticleId(kaligulaComponent1.getArticleId())).thenReturn(Set.of(kaligulaTable));
+        when(inventoryRepository.takeFromInventory(any(TakeFromInventoryIn.class))).thenReturn(false);
+        Backorder first = backorderService.backorderProduct(new BackorderProductIn(KALIGULA, 2));
+        Backorder second = backorderService.backorderProduct(new BackorderProductIn(KALIGULA, 1));
+        assertEquals(BackorderStatus.PENDING, first.getStatus());
+        assertEquals(BackorderStatus.PENDING, second.getStatus());
+
+        backorderService.fulfil(List.of(kaligulaComponent1.getArticleId()));
+        verify(inventoryRepository, never()).takeFromInventory(kaligulaBatches(1));
+
+        when(inventoryRepository.takeFromInventory(kaligulaBatches(2))).thenReturn(true);
+        when(inventoryRepository.takeFromInventory(kaligulaBatches(1))).thenReturn(true);
+        backorderService.fulfil(List.of(kaligulaComponent1.getArticleId()));
+
+        InOrder fulfilment = inOrder(stockEventBus);
+        fulfilment.verify(stockEventBus).backorderFulfilled(first.getBackorderId(), KALIGULA, 2);
+        fulfilment.verify(stockEventBus).backorderFulfilled(second.getBackorderId(), KALIGULA, 1);
+        validateError(() -> backorderService.cancelBackorder(first.getBackorderId()), NON_EXISTENT_BACKORDER);
+    }
+
+    @Test
+    @DisplayName("When articles arrive between the failed take of a backorder and its queuing, it should still be fulfilled")
+    public void fulfillingRightAfterQueuing () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(inventoryRepository.takeFromInventory(kaligulaBatches(2))).thenReturn(false, true);
+
+        Backorder backorder = backorderService.backorderProduct(new BackorderProductIn(KALIGULA, 2));
+
+        assertEquals(BackorderStatus.FULFILLED, backorder.getStatus());
+        verify(stockEventBus).backorderFulfilled(backorder.getBackorderId(), KALIGULA, 2);
+        validateError(() -> backorderService.cancelBackorder(backorder.getBackorderId()), NON_EXISTENT_BACKORDER);
+    }
+
+    @Test
+    @DisplayName("When cancelling the oldest pending backorder, the ones behind it should be served")
+    public void cancellingBackorder () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(inventoryRepository.takeFromInventory(kaligulaBatches(2))).thenReturn(false);
+        when(inventoryRepository.takeFromInventory(kaligulaBatches(1))).thenReturn(true);
+        Backorder first = backorderService.backorderProduct(new BackorderProductIn(KALIGULA, 2));
+        Backorder second = backorderService.backorderProduct(new BackorderProductIn(KALIGULA, 1));
+
+        backorderService.cancelBackorder(first.getBackorderId());
+
+        verify(stockEventBus).backorderFulfilled(second.getBackorderId(), KALIGULA, 1);
+        verify(stockEventBus, never()).backorderFulfilled(eq(first.getBackorderId()), anyString(), anyInt());
+        validateError(() -> backorderService.cancelBackorder(first.getBackorderId()), NON_EXISTENT_BACKORDER);
+    }
+
+    @Test
+    @DisplayName("When backordering a product with too many pending backorders, or not in catalogue, should raise an error")
+    public void backorderingErrors () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(productCatalogueRepository.findArticleRequirements("none")).thenReturn(empty());
+        when(inventoryRepository.takeFromInventory(kaligulaBatches(1))).thenReturn(false);
+        backorderService.backorderProduct(new BackorderProductIn(KALIGULA, 1));
+        backorderService.backorderProduct(new BackorderProductIn(KALIGULA, 1));
+
+        validateError(() -> backorderService.backorderProduct(new BackorderProductIn(KALIGULA, 1)), BACKORDERS_FULL);
+        validateError(() -> backorderService.backorderProduct(new BackorderProductIn("none", 1)), NON_EXISTENT_PRODUCT);
+    }
+
+    private static TakeFromInventoryIn kaligulaBatches(int quantity) {
+        return new TakeFromInventoryIn(List.of(
+            new ArticleBatch(kaligulaComponent1.getArticleId(), kaligulaComponent1.getQuantity() * quantity),
+            new ArticleBatch(kaligulaComponent2.getArticleId(), kaligulaComponent2.getQuantity() * quantity)));
+    }
+
+    private void validateError(Executable executable, ErrorType errorType) {
+        BackorderException backorderException = assertThrows(BackorderException.class, executable);
+
+        assertEquals(errorType, backorderException.getErrorType());
+    }
+}
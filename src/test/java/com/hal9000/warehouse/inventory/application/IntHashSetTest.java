@@ -0,0 +1,23 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IntHashSetTest {
+
+    @Test
+    @DisplayName("When adding values beyond the expected size, each should be kept once in insertion order")
+    void addingValues() {
+        IntHashSet intHashSet = new IntHashSet(1);
+
+        IntStream.range(0, 100).forEach(value -> assertTrue(intHashSet.add(value * 1024)));
+        IntStream.range(0, 100).forEach(value -> assertFalse(intHashSet.add(value * 1024)));
+
+        assertArrayEquals(IntStream.range(0, 100).map(value -> value * 1024).toArray(), intHashSet.toArray());
+    }
+}
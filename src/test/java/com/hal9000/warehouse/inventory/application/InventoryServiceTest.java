@@ -1,22 +1,31 @@
 package com.hal9000.warehouse.inventory.application;
 
 import static com.hal9000.warehouse.inventory.port.in.InventoryUseCase.ErrorType.INVALID_QUANTITY;
+import static com.hal9000.warehouse.inventory.port.in.InventoryUseCase.ErrorType.NON_EXISTENT_LOCATION;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.hal9000.warehouse.inventory.domain.Article;
 import com.hal9000.warehouse.inventory.domain.ArticleSupply;
 import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.RestockMode;
 import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.InventoryException;
+import com.hal9000.warehouse.inventory.port.out.AuditTrail;
 import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +34,20 @@ class InventoryServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private StockEventBus stockEventBus;
+
+    @Mock
+    private AuditTrail auditTrail;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private UseCaseMetrics useCaseMetrics = new UseCaseMetrics(meterRegistry);
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -33,9 +56,31 @@ class InventoryServiceTest {
     public void addToInventory () {
         List<ArticleSupply> articleSupplies = singletonList(new ArticleSupply(new Article(2, "leg"), 1));
 
-        inventoryService.addToInventory(new AddInventoryIn(articleSupplies));
+        inventoryService.addToInventory(new AddInventoryIn(articleSupplies, RestockMode.SET));
 
         verify(inventoryRepository).addToInventory(new InventoryRepository.AddInventoryIn(articleSupplies));
+        verify(availabilityIndex).articlesChanged(List.of(2));
+        verify(auditTrail).articlesAdded(1, 1);
+    }
+
+    @Test
+    @DisplayName("Restock articles by adding to their stock")
+    public void restockInventory () {
+        List<ArticleSupply> articleSupplies = singletonList(new ArticleSupply(new Article(2, "leg"), 5));
+
+        inventoryService.addToInventory(new AddInventoryIn(articleSupplies, RestockMode.ADD));
+
+        verify(inventoryRepository).addToInventory(new InventoryRepository.AddInventoryIn(articleSupplies, true));
+        verify(availabilityIndex).articlesChanged(List.of(2));
+        verify(auditTrail).articlesAdded(1, 5);
+    }
+
+    @Test
+    @DisplayName("Once the context is up, the stock changes of the repository should be published")
+    public void publishingStockChanges () {
+        inventoryService.publishStockChanges();
+
+        verify(inventoryRepository).addStockChangeListener(stockEventBus);
     }
 
     @Test
@@ -46,10 +91,49 @@ class InventoryServiceTest {
                 new Article(2, "leg"), -1));
 
         InventoryException inventoryException = assertThrows(InventoryException.class,
-            () -> inventoryService.addToInventory(new AddInventoryIn(articleSupplies)));
+            () -> inventoryService.addToInventory(new AddInventoryIn(articleSupplies, RestockMode.SET)));
 
         assertEquals(INVALID_QUANTITY, inventoryException.getErrorType());
 
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("When setting an article to zero, it should be accepted, but adding zero units should raise an error")
+    public void addToInventoryZeroQuantity () {
+        List<ArticleSupply> articleSupplies = singletonList(new ArticleSupply(new Article(2, "leg"), 0));
+
+        inventoryService.addToInventory(new AddInventoryIn(articleSupplies, RestockMode.SET));
+        InventoryException inventoryException = assertThrows(InventoryException.class,
+            () -> inventoryService.addToInventory(new AddInventoryIn(articleSupplies, RestockMode.ADD)));
+
+        verify(inventoryRepository).addToInventory(new InventoryRepository.AddInventoryIn(articleSupplies));
+        assertEquals(INVALID_QUANTITY, inventoryException.getErrorType());
+    }
+
+    @Test
+    @DisplayName("When restocking would overflow the stock of an article, should raise an error")
+    public void restockInventoryOverflow () {
+        List<ArticleSupply> articleSupplies = singletonList(new ArticleSupply(new Article(2, "leg"), Integer.MAX_VALUE));
+        doThrow(ArithmeticException.class).when(inventoryRepository).addToInventory(any());
+
+        InventoryException inventoryException = assertThrows(InventoryException.class,
+            () -> inventoryService.addToInventory(new AddInventoryIn(articleSupplies, RestockMode.ADD)));
+
+        assertEquals(INVALID_QUANTITY, inventoryException.getErrorType());
+        verify(availabilityIndex, never()).articlesChanged(any());
+    }
+
+    @Test
+    @DisplayName("When adding articles to a location that does not exist, should raise an error")
+    public void addToInventoryNonExistentLocation () {
+        List<ArticleSupply> articleSupplies = singletonList(new ArticleSupply(new Article(2, "leg"), 1));
+        when(inventoryRepository.getLocations()).thenReturn(List.of("north"));
+
+        InventoryException inventoryException = assertThrows(InventoryException.class,
+            () -> inventoryService.addToInventory(new AddInventoryIn(articleSupplies, RestockMode.SET, "west")));
+
+        assertEquals(NON_EXISTENT_LOCATION, inventoryException.getErrorType());
+        verify(inventoryRepository, never()).addToInventory(any());
+    }
+
+}
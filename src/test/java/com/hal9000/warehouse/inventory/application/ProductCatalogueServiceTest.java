@@ -2,16 +2,30 @@ package com.hal9000.warehouse.inventory.application;
 
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.KALIGULA;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.NERO;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.diningSet;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaComponent1;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaComponent2;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaTable;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.neroComponent1;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.neroComponent2;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.neroTable;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.productList;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.wrongKaligulaTable1;
 import static com.hal9000.warehouse.inventory.domain.ProductExamples.wrongKaligulaTable2;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.BATCH_ABORTED;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.CYCLIC_SUB_ASSEMBLIES;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.INVALID_PAGE;
 import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.INVALID_QUANTITY;
 import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_ARTICLES;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_LOCATION;
 import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.NOT_ENOUGH_SUPPLIES;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType.VERSION_CONFLICT;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SellMode.ALL_OR_NOTHING;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SellMode.BEST_EFFORT;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortBy.NAME;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortBy.QUANTITY;
+import static com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SortDirection.DESC;
 import static java.util.Collections.singletonList;
 import static java.util.Optional.empty;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -19,30 +33,53 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.hal9000.warehouse.inventory.domain.Article;
 import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.domain.Product.SubAssembly;
+import com.hal9000.warehouse.inventory.domain.SellPlan;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ArticleStock;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProduct;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProducts;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProductsPage;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.AvailableProductsQuery;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ErrorType;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductCatalogueException;
 import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductCatalogueIn;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductStock;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SellProductIn;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SellProductsIn;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SoldProduct;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.SoldProducts;
+import com.hal9000.warehouse.inventory.port.out.AuditTrail;
 import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
 import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ConditionalTakeIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryBatchIn;
 import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeOutcome;
 import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 
@@ -55,28 +92,41 @@ class ProductCatalogueServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private StockEventBus stockEventBus;
+
+    @Mock
+    private AuditTrail auditTrail;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private UseCaseMetrics useCaseMetrics = new UseCaseMetrics(meterRegistry);
+
     @InjectMocks
     private ProductCatalogueService productCatalogueService;
 
     @Test
     @DisplayName("When adding products to catalogue whose components are in inventory, should not raise any errors")
     public void addToCatalogue () {
-        when(inventoryRepository.findArticleSupplyById(kaligulaComponent1.getArticleId()))
-            .thenReturn(Optional.of(new ArticleSupply(new Article(1, "leg"), 1)));
-
-        when(inventoryRepository.findArticleSupplyById(kaligulaComponent2.getArticleId()))
-            .thenReturn(Optional.of(new ArticleSupply(new Article(2, "screw"), 1)));
+        when(inventoryRepository.findArticleIdsNotInInventory(new int[] {kaligulaComponent1.getArticleId(), kaligulaComponent2.getArticleId()}))
+            .thenReturn(new int[0]);
 
         productCatalogueService.addToCatalogue(new ProductCatalogueIn(productList));
 
-        verify(productCatalogueRepository).addToCatalogue(new ProductCatalogueRepository.ProductCatalogueIn(productList));
+        verify(productCatalogueRepository).addToCatalogue(eq(new ProductCatalogueRepository.ProductCatalogueIn(productList)), any());
+        verify(availabilityIndex).productsChanged(productList);
     }
 
     @Test
     @DisplayName("When adding products to catalogue with invalid articles, should raise an error")
     public void addToCatalogueInvalidArticles () {
 
-        when(inventoryRepository.findArticleSupplyById(kaligulaComponent1.getArticleId())).thenReturn(empty());
+        when(inventoryRepository.findArticleIdsNotInInventory(new int[] {kaligulaComponent1.getArticleId(), kaligulaComponent2.getArticleId()}))
+            .thenReturn(new int[] {kaligulaComponent1.getArticleId()});
 
         validateError(() -> productCatalogueService.addToCatalogue(new ProductCatalogueIn(productList)),
             NON_EXISTENT_ARTICLES);
@@ -90,35 +140,133 @@ class ProductCatalogueServiceTest {
         validateError(() -> productCatalogueService.addToCatalogue(new ProductCatalogueIn(singletonList(wrongKaligulaTable2))), INVALID_QUANTITY);
     }
 
+    @Test
+    @DisplayName("When adding products whose article requirements overflow, should raise an error")
+    public void addToCatalogueOverflowingQuantities () {
+        when(inventoryRepository.findArticleIdsNotInInventory(new int[] {kaligulaComponent1.getArticleId(), kaligulaComponent2.getArticleId()}))
+            .thenReturn(new int[0]);
+        doThrow(new ArithmeticException("integer overflow")).when(productCatalogueRepository).addToCatalogue(any(), any());
+
+        validateError(() -> productCatalogueService.addToCatalogue(new ProductCatalogueIn(productList)), INVALID_QUANTITY);
+        verify(availabilityIndex, never()).productsChanged(any());
+    }
+
+    @Test
+    @DisplayName("When adding products whose sub-assemblies contain themselves, should raise an error")
+    public void addToCatalogueCyclicSubAssemblies () {
+        when(inventoryRepository.findArticleIdsNotInInventory(new int[] {2})).thenReturn(new int[0]);
+        when(productCatalogueRepository.findProductByName(NERO)).thenReturn(Optional.of(neroTable));
+        Product cyclicKaligulaTable = new Product(KALIGULA, List.of(), List.of(new SubAssembly(diningSet.getName(), 1)));
+        doAnswer(addToCatalogue -> {
+            addToCatalogue.<Runnable>getArgument(1).run();
+            return null;
+        }).when(productCatalogueRepository).addToCatalogue(any(), any());
+
+        validateError(() -> productCatalogueService.addToCatalogue(new ProductCatalogueIn(List.of(diningSet, cyclicKaligulaTable))),
+            CYCLIC_SUB_ASSEMBLIES);
+        verify(availabilityIndex, never()).productsChanged(any());
+    }
+
+    @Test
+    @DisplayName("When adding products with sub-assemblies that are not in catalogue, should raise an error")
+    public void addToCatalogueNonExistentSubAssemblies () {
+        when(inventoryRepository.findArticleIdsNotInInventory(new int[] {2})).thenReturn(new int[0]);
+        when(productCatalogueRepository.findProductByName(KALIGULA)).thenReturn(Optional.of(kaligulaTable));
+        when(productCatalogueRepository.findProductByName(NERO)).thenReturn(empty());
+
+        validateError(() -> productCatalogueService.addToCatalogue(new ProductCatalogueIn(List.of(diningSet))), NON_EXISTENT_PRODUCT);
+    }
 
     @Test
     @DisplayName("When selling an existent product with enough supplies, should return true")
     public void sellingProduct() {
-        when(productCatalogueRepository.findProductByName(eq(KALIGULA))).thenReturn(Optional.of(kaligulaTable));
+        SellPlan kaligulaPlan = new SellPlan(kaligulaTable.getComponents());
+        when(productCatalogueRepository.findSellPlan(eq(KALIGULA))).thenReturn(Optional.of(kaligulaPlan));
+        when(inventoryRepository.takeFromInventory(kaligulaPlan, 2)).thenReturn(true);
+
+        assertTrue(productCatalogueService.sellProduct(KALIGULA, 2));
+        verify(availabilityIndex).articlesChanged(List.of(kaligulaComponent1.getArticleId(), kaligulaComponent2.getArticleId()));
+        verify(auditTrail).productSold(KALIGULA, 2);
 
+    }
+
+    @Test
+    @DisplayName("When selling a product near a location, the take should prefer that location")
+    public void sellingProductNearLocation() {
+        when(inventoryRepository.getLocations()).thenReturn(List.of("north", "south"));
+        when(productCatalogueRepository.findSellPlan(KALIGULA)).thenReturn(Optional.of(new SellPlan(kaligulaTable.getComponents())));
         when(inventoryRepository.takeFromInventory(new TakeFromInventoryIn(
             List.of(
-                new ArticleBatch(kaligulaComponent1.getArticleId(),kaligulaComponent1.getQuantity() * 2),
-                new ArticleBatch(kaligulaComponent2.getArticleId(),kaligulaComponent2.getQuantity() * 2)))))
+                new ArticleBatch(kaligulaComponent1.getArticleId(), kaligulaComponent1.getQuantity()),
+                new ArticleBatch(kaligulaComponent2.getArticleId(), kaligulaComponent2.getQuantity())),
+            "north")))
             .thenReturn(true);
 
-        assertTrue(productCatalogueService.sellProduct(KALIGULA, 2));
+        assertTrue(productCatalogueService.sellProductNear(KALIGULA, 1, "north"));
+        validateError(() -> productCatalogueService.sellProductNear(KALIGULA, 1, "west"), NON_EXISTENT_LOCATION);
+    }
 
+    @Test
+    @DisplayName("When getting the products that can be sold at a location, only the stock of that location should count")
+    public void gettingProductsThatCanBeSoldAtLocation() {
+        when(inventoryRepository.getLocations()).thenReturn(List.of("north", "south"));
+        doAnswer(invocation -> {
+            Consumer<Product> action = invocation.getArgument(0);
+            List.of(kaligulaTable, neroTable).forEach(action);
+            return null;
+        }).when(productCatalogueRepository).forEachProduct(any());
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(productCatalogueRepository.findArticleRequirements(NERO)).thenReturn(Optional.of(neroTable.getComponents()));
+        when(inventoryRepository.findArticleSupplyById("north", 1)).thenReturn(Optional.of(new ArticleSupply(new Article(1, "leg"), 5)));
+        when(inventoryRepository.findArticleSupplyById("north", 2)).thenReturn(Optional.of(new ArticleSupply(new Article(2, "screw"), 8)));
+
+        assertEquals(new AvailableProducts(Set.of(new AvailableProduct(2, KALIGULA), new AvailableProduct(1, NERO))),
+            productCatalogueService.getAvailableProductsAt("north"));
+        validateError(() -> productCatalogueService.getAvailableProductsAt("west"), NON_EXISTENT_LOCATION);
     }
 
     @Test
     @DisplayName("When selling an existent product with not enough supplies, should return false")
     public void sellingProductsWithNotEnoughInventory () {
-        when(productCatalogueRepository.findProductByName(KALIGULA)).thenReturn(Optional.of(kaligulaTable));
-        when(inventoryRepository.takeFromInventory(any(TakeFromInventoryIn.class))).thenReturn(false);
+        when(productCatalogueRepository.findSellPlan(KALIGULA)).thenReturn(Optional.of(new SellPlan(kaligulaTable.getComponents())));
+        when(inventoryRepository.takeFromInventory(any(SellPlan.class), eq(2))).thenReturn(false);
         assertFalse(productCatalogueService.sellProduct(KALIGULA, 2));
 
     }
 
+    @Test
+    @DisplayName("When selling a product with article versions that changed since they were read, should raise an error")
+    public void sellingProductWithStaleVersions () {
+        when(productCatalogueRepository.findSellPlan(KALIGULA)).thenReturn(Optional.of(new SellPlan(kaligulaTable.getComponents())));
+        when(inventoryRepository.takeFromInventory(new ConditionalTakeIn(
+            List.of(
+                new ArticleBatch(kaligulaComponent1.getArticleId(), kaligulaComponent1.getQuantity()),
+                new ArticleBatch(kaligulaComponent2.getArticleId(), kaligulaComponent2.getQuantity())),
+            Map.of(kaligulaComponent1.getArticleId(), 3L))))
+            .thenReturn(TakeOutcome.VERSION_CONFLICT);
+
+        validateError(() -> productCatalogueService.sellProduct(KALIGULA, 1, Map.of(kaligulaComponent1.getArticleId(), 3L)), VERSION_CONFLICT);
+        verify(availabilityIndex, never()).articlesChanged(any());
+    }
+
+    @Test
+    @DisplayName("When reading the stock of a product, should return how many can be built and the versions of its articles")
+    public void gettingProductStock () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(inventoryRepository.findArticleSupplyById(kaligulaComponent1.getArticleId()))
+            .thenReturn(Optional.of(new ArticleSupply(new Article(kaligulaComponent1.getArticleId(), "leg"), 7, 4)));
+        when(inventoryRepository.findArticleSupplyById(kaligulaComponent2.getArticleId())).thenReturn(empty());
+
+        assertEquals(new ProductStock(KALIGULA, 0, List.of(
+                new ArticleStock(kaligulaComponent1.getArticleId(), 7, 4),
+                new ArticleStock(kaligulaComponent2.getArticleId(), 0, 0))),
+            productCatalogueService.getProductStock(KALIGULA));
+    }
+
     @Test
     @DisplayName("When selling a non existent product, should raise an error")
     public void sellingNonExistentProduct () {
-        when(productCatalogueRepository.findProductByName(KALIGULA)).thenReturn(empty());
+        when(productCatalogueRepository.findSellPlan(KALIGULA)).thenReturn(empty());
         validateError(() -> productCatalogueService.sellProduct(KALIGULA, 2), NON_EXISTENT_PRODUCT);
     }
 
@@ -131,39 +279,113 @@ class ProductCatalogueServiceTest {
     }
 
     @Test
-    @DisplayName("Should return a list of products that can be sold")
-    public void listOfProductsThatCanBeSold() {
+    @DisplayName("When selling so many units that an article quantity overflows, should raise an error without taking anything")
+    public void sellingOverflowingQuantity () {
+        when(productCatalogueRepository.findSellPlan(KALIGULA)).thenReturn(Optional.of(new SellPlan(kaligulaTable.getComponents())));
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
 
-        when(productCatalogueRepository.findAllProducts()).thenReturn(Set.of(kaligulaTable, neroTable));
-        when(inventoryRepository.findArticleSupplyById(1))
-            .thenReturn(Optional.of(new ArticleSupply(new Article(1, "leg"), 9)));
-        when(inventoryRepository.findArticleSupplyById(2))
-            .thenReturn(Optional.of(new ArticleSupply(new Article(2, "screw"), 12)));
+        validateError(() -> productCatalogueService.sellProduct(KALIGULA, Integer.MAX_VALUE / 2), INVALID_QUANTITY);
+        assertEquals(
+            new SoldProducts(List.of(new SoldProduct(KALIGULA, Integer.MAX_VALUE / 2, false, INVALID_QUANTITY))),
+            productCatalogueService.sellProducts(new SellProductsIn(List.of(new SellProductIn(KALIGULA, Integer.MAX_VALUE / 2)), BEST_EFFORT)));
+        verify(inventoryRepository, never()).takeFromInventory(any(SellPlan.class), anyInt());
+        verify(inventoryRepository).takeFromInventory(new TakeFromInventoryBatchIn(List.of(), false));
+    }
+
+    @Test
+    @DisplayName("When selling a batch in best effort mode, should report the outcome of every line")
+    public void sellingProductsBestEffort() {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(productCatalogueRepository.findArticleRequirements(NERO)).thenReturn(Optional.of(neroTable.getComponents()));
+        when(productCatalogueRepository.findArticleRequirements("none")).thenReturn(empty());
+        when(inventoryRepository.takeFromInventory(any(TakeFromInventoryBatchIn.class))).thenReturn(List.of(true, false));
 
         assertEquals(
-            new AvailableProducts(Set.of(
-                new AvailableProduct(3, KALIGULA),
-                new AvailableProduct(2, NERO))),
-            productCatalogueService.getAvailableProducts());
+            new SoldProducts(List.of(
+                new SoldProduct(KALIGULA, 1, true, null),
+                new SoldProduct(NERO, 2, false, NOT_ENOUGH_SUPPLIES),
+                new SoldProduct("none", 1, false, NON_EXISTENT_PRODUCT),
+                new SoldProduct(KALIGULA, 0, false, INVALID_QUANTITY))),
+            productCatalogueService.sellProducts(new SellProductsIn(List.of(
+                new SellProductIn(KALIGULA, 1),
+                new SellProductIn(NERO, 2),
+                new SellProductIn("none", 1),
+                new SellProductIn(KALIGULA, 0)),
+                BEST_EFFORT)));
+        assertEquals(1, meterRegistry.get("products.sales").tag("outcome", "sold").counter().count());
+        assertEquals(1, meterRegistry.get("products.sales").tag("outcome", "not_enough_supplies").counter().count());
+        assertEquals(1, meterRegistry.get("products.sales").tag("outcome", "non_existent_product").counter().count());
+        assertEquals(1, meterRegistry.get("products.sales").tag("outcome", "invalid_quantity").counter().count());
+
+        verify(inventoryRepository).takeFromInventory(new TakeFromInventoryBatchIn(List.of(
+            new TakeFromInventoryIn(List.of(
+                new ArticleBatch(kaligulaComponent1.getArticleId(), kaligulaComponent1.getQuantity()),
+                new ArticleBatch(kaligulaComponent2.getArticleId(), kaligulaComponent2.getQuantity()))),
+            new TakeFromInventoryIn(List.of(
+                new ArticleBatch(neroComponent1.getArticleId(), neroComponent1.getQuantity() * 2),
+                new ArticleBatch(neroComponent2.getArticleId(), neroComponent2.getQuantity() * 2)))),
+            false));
+        verify(availabilityIndex).articlesChanged(List.of(kaligulaComponent1.getArticleId(), kaligulaComponent2.getArticleId()));
+    }
 
+    @Test
+    @DisplayName("When selling a batch in all or nothing mode with an invalid line, should not take anything from inventory")
+    public void sellingProductsAllOrNothing() {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(productCatalogueRepository.findArticleRequirements("none")).thenReturn(empty());
+
+        assertEquals(
+            new SoldProducts(List.of(
+                new SoldProduct(KALIGULA, 1, false, BATCH_ABORTED),
+                new SoldProduct("none", 1, false, NON_EXISTENT_PRODUCT))),
+            productCatalogueService.sellProducts(new SellProductsIn(List.of(
+                new SellProductIn(KALIGULA, 1),
+                new SellProductIn("none", 1)),
+                ALL_OR_NOTHING)));
+
+        verify(inventoryRepository, never()).takeFromInventory(any(TakeFromInventoryBatchIn.class));
     }
 
     @Test
-    @DisplayName("Should not include a product in the list of products that can be sold if there is not enough supplies for it")
-    public void productsThatCanNotBeSold () {
+    @DisplayName("Should return the products that can be sold from the availability index")
+    public void listOfProductsThatCanBeSold() {
 
-        when(productCatalogueRepository.findAllProducts()).thenReturn(Set.of(kaligulaTable, neroTable));
-        when(inventoryRepository.findArticleSupplyById(1))
-            .thenReturn(Optional.of(new ArticleSupply(new Article(1, "leg"), 2)));
-        when(inventoryRepository.findArticleSupplyById(2))
-            .thenReturn(Optional.of(new ArticleSupply(new Article(2, "screw"), 4)));
+        when(availabilityIndex.getAvailableProducts()).thenReturn(Set.of(
+            new AvailableProduct(3, KALIGULA),
+            new AvailableProduct(2, NERO)));
 
         assertEquals(
-            new AvailableProducts(Set.of(new AvailableProduct(1, KALIGULA))),
+            new AvailableProducts(Set.of(
+                new AvailableProduct(3, KALIGULA),
+                new AvailableProduct(2, NERO))),
             productCatalogueService.getAvailableProducts());
 
     }
 
+    @Test
+    @DisplayName("When paging the products that can be sold, each page should continue after the cursor of the previous one")
+    public void pagingProductsThatCanBeSold() {
+        when(availabilityIndex.findAvailableProducts("", 1, QUANTITY, DESC, null, 2))
+            .thenReturn(List.of(new AvailableProduct(3, KALIGULA), new AvailableProduct(2, NERO)));
+        when(availabilityIndex.findAvailableProducts("", 1, QUANTITY, DESC, new AvailableProduct(3, KALIGULA), 2))
+            .thenReturn(List.of(new AvailableProduct(2, NERO)));
+
+        AvailableProductsPage firstPage = productCatalogueService.getAvailableProducts(new AvailableProductsQuery("", 1, QUANTITY, DESC, null, 1));
+        AvailableProductsPage lastPage = productCatalogueService.getAvailableProducts(
+            new AvailableProductsQuery("", 1, QUANTITY, DESC, firstPage.getNextCursor(), 1));
+
+        assertEquals(List.of(new AvailableProduct(3, KALIGULA)), firstPage.getAvailableProductList());
+        assertEquals(new AvailableProductsPage(List.of(new AvailableProduct(2, NERO)), null), lastPage);
+        validateError(() -> productCatalogueService.getAvailableProducts(new AvailableProductsQuery("", 1, NAME, DESC, firstPage.getNextCursor(), 1)),
+            INVALID_PAGE);
+        validateError(() -> productCatalogueService.getAvailableProducts(new AvailableProductsQuery("N", 1, QUANTITY, DESC, firstPage.getNextCursor(), 1)),
+            INVALID_PAGE);
+        validateError(() -> productCatalogueService.getAvailableProducts(new AvailableProductsQuery("", 1, QUANTITY, DESC, "not a cursor", 1)),
+            INVALID_PAGE);
+        validateError(() -> productCatalogueService.getAvailableProducts(new AvailableProductsQuery("", 1, QUANTITY, DESC, null, 0)),
+            INVALID_PAGE);
+    }
+
     private void validateError(Executable executable, ErrorType errorType) {
         ProductCatalogueException productCatalogueException = assertThrows(ProductCatalogueException.class,
             executable);
@@ -0,0 +1,175 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.KALIGULA;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaComponent1;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaComponent2;
+import static com.hal9000.warehouse.inventory.domain.ProductExamples.kaligulaTable;
+import static com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ErrorType.INVALID_QUANTITY;
+import static com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ErrorType.INVALID_TIME_TO_LIVE;
+import static com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ErrorType.NON_EXISTENT_PRODUCT;
+import static com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ErrorType.NON_EXISTENT_RESERVATION;
+import static java.util.Optional.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ErrorType;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase.HoldProductIn;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase.Reservation;
+import com.hal9000.warehouse.inventory.port.in.ReservationUseCase.ReservationException;
+import com.hal9000.warehouse.inventory.port.out.AuditTrail;
+import com.hal9000.warehouse.inventory.port.out.HoldJournal;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryIn;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.TakeFromInventoryOut;
+import com.hal9000.warehouse.inventory.port.out.ProductCatalogueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceTest {
+
+    private static final TakeFromInventoryIn kaligulaBatches = new TakeFromInventoryIn(List.of(
+        new ArticleBatch(kaligulaComponent1.getArticleId(), kaligulaComponent1.getQuantity() * 2),
+        new ArticleBatch(kaligulaComponent2.getArticleId(), kaligulaComponent2.getQuantity() * 2)));
+    private static final List<Integer> kaligulaArticleIds = List.of(kaligulaComponent1.getArticleId(), kaligulaComponent2.getArticleId());
+
+    @Mock
+    private ProductCatalogueRepository productCatalogueRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private AuditTrail auditTrail;
+
+    @Mock
+    private HoldJournal holdJournal;
+
+    private ReservationService reservationService;
+
+    @BeforeEach
+    public void setUp () {
+        reservationService = new ReservationService(productCatalogueRepository, inventoryRepository, availabilityIndex,
+            auditTrail, holdJournal, new UseCaseMetrics(new SimpleMeterRegistry()),
+            new ReservationProperties(Duration.ofMinutes(15), Duration.ofHours(1), Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("When holding a product with enough supplies, its articles should be taken until the reservation is confirmed")
+    public void holdingAndConfirming () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(inventoryRepository.takeFromLocation(kaligulaBatches)).thenReturn(new TakeFromInventoryOut(true, null));
+
+        Reservation reservation = reservationService.holdProduct(new HoldProductIn(KALIGULA, 2, null)).orElseThrow();
+        verify(availabilityIndex).articlesChanged(kaligulaArticleIds);
+
+        reservationService.confirmReservation(reservation.getReservationId());
+        verify(auditTrail).productSold(KALIGULA, 2);
+        reservationService.expireHolds(reservation.getExpiresAt().toEpochMilli() + 2000);
+
+        verify(inventoryRepository, never()).returnToInventory(any());
+        validateError(() -> reservationService.confirmReservation(reservation.getReservationId()), NON_EXISTENT_RESERVATION);
+    }
+
+    @Test
+    @DisplayName("When releasing a reservation, its articles should be returned to inventory once")
+    public void holdingAndReleasing () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(inventoryRepository.takeFromLocation(kaligulaBatches)).thenReturn(new TakeFromInventoryOut(true, null));
+
+        Reservation reservation = reservationService.holdProduct(new HoldProductIn(KALIGULA, 2, null)).orElseThrow();
+        reservationService.releaseReservation(reservation.getReservationId());
+
+        verify(holdJournal).holdTaken(reservation.getReservationId(), kaligulaBatches.getArticleBatchList());
+        verify(holdJournal).holdEnded(reservation.getReservationId());
+        verify(inventoryRepository).returnToInventory(kaligulaBatches);
+        verify(availabilityIndex, times(2)).articlesChanged(kaligulaArticleIds);
+        validateError(() -> reservationService.releaseReservation(reservation.getReservationId()), NON_EXISTENT_RESERVATION);
+    }
+
+    @Test
+    @DisplayName("When a reservation outlives its time to live, its articles should be returned to inventory")
+    public void expiringHold () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(inventoryRepository.takeFromLocation(kaligulaBatches)).thenReturn(new TakeFromInventoryOut(true, null));
+
+        Reservation reservation = reservationService.holdProduct(new HoldProductIn(KALIGULA, 2, Duration.ofSeconds(30))).orElseThrow();
+
+        reservationService.expireHolds(reservation.getExpiresAt().toEpochMilli() - 2000);
+        verify(inventoryRepository, never()).returnToInventory(any());
+
+        reservationService.expireHolds(reservation.getExpiresAt().toEpochMilli() + 2000);
+        verify(inventoryRepository).returnToInventory(kaligulaBatches);
+        validateError(() -> reservationService.confirmReservation(reservation.getReservationId()), NON_EXISTENT_RESERVATION);
+    }
+
+    @Test
+    @DisplayName("When holding a product with not enough supplies, should return no reservation")
+    public void holdingWithNotEnoughSupplies () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(inventoryRepository.takeFromLocation(kaligulaBatches)).thenReturn(new TakeFromInventoryOut(false, null));
+
+        assertTrue(reservationService.holdProduct(new HoldProductIn(KALIGULA, 2, null)).isEmpty());
+        verify(availabilityIndex, never()).articlesChanged(any());
+    }
+
+    @Test
+    @DisplayName("When holding a non existent product, an invalid quantity or an invalid time to live, should raise an error")
+    public void holdingWithInvalidParameters () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(empty());
+
+        validateError(() -> reservationService.holdProduct(new HoldProductIn(KALIGULA, 1, null)), NON_EXISTENT_PRODUCT);
+        validateError(() -> reservationService.holdProduct(new HoldProductIn(KALIGULA, 0, null)), INVALID_QUANTITY);
+        validateError(() -> reservationService.holdProduct(new HoldProductIn(KALIGULA, 1, Duration.ZERO)), INVALID_TIME_TO_LIVE);
+        validateError(() -> reservationService.holdProduct(new HoldProductIn(KALIGULA, 1, Duration.ofHours(2))), INVALID_TIME_TO_LIVE);
+    }
+
+    @Test
+    @DisplayName("When holding so many units that an article quantity overflows, should raise an error without taking anything")
+    public void holdingOverflowingQuantity () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+
+        validateError(() -> reservationService.holdProduct(new HoldProductIn(KALIGULA, Integer.MAX_VALUE / 2, null)), INVALID_QUANTITY);
+        verify(inventoryRepository, never()).takeFromLocation(any());
+    }
+
+    @Test
+    @DisplayName("When the hold cannot be journaled, its articles should be returned to inventory and the error raised")
+    public void holdingWithFailingJournal () {
+        when(productCatalogueRepository.findArticleRequirements(KALIGULA)).thenReturn(Optional.of(kaligulaTable.getComponents()));
+        when(inventoryRepository.takeFromLocation(kaligulaBatches)).thenReturn(new TakeFromInventoryOut(true, null));
+        doThrow(new UncheckedIOException(new IOException("Disk full"))).when(holdJournal).holdTaken(any(), any());
+
+        assertThrows(UncheckedIOException.class, () -> reservationService.holdProduct(new HoldProductIn(KALIGULA, 2, null)));
+        verify(inventoryRepository).returnToInventory(kaligulaBatches);
+        verify(availabilityIndex, times(2)).articlesChanged(kaligulaArticleIds);
+    }
+
+    private void validateError(Executable executable, ErrorType errorType) {
+        ReservationException reservationException = assertThrows(ReservationException.class, executable);
+
+        assertEquals(errorType, reservationException.getErrorType());
+    }
+}
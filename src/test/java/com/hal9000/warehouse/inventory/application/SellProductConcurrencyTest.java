@@ -0,0 +1,150 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hal9000.warehouse.inventory.adapter.out.Inventory;
+import com.hal9000.warehouse.inventory.adapter.out.ProductCatalogue;
+import com.hal9000.warehouse.inventory.adapter.out.audit.NoAuditTrail;
+import com.hal9000.warehouse.inventory.domain.Article;
+import com.hal9000.warehouse.inventory.domain.ArticleSupply;
+import com.hal9000.warehouse.inventory.domain.Product;
+import com.hal9000.warehouse.inventory.domain.Product.Component;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.AddInventoryIn;
+import com.hal9000.warehouse.inventory.port.in.InventoryUseCase.RestockMode;
+import com.hal9000.warehouse.inventory.port.in.ProductCatalogueUseCase.ProductCatalogueIn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SellProductConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int SELLS = 8000;
+
+    private static final Product chair = new Product("Chair", List.of(new Component(1, 4), new Component(2, 8)));
+    private static final Product stool = new Product("Stool", List.of(new Component(2, 3), new Component(3, 1)));
+    private static final Product shelf = new Product("Shelf", List.of(new Component(4, 2)));
+    private static final List<Product> products = List.of(chair, stool, shelf);
+
+    private final Inventory inventory = new Inventory();
+    private final ProductCatalogue productCatalogue = new ProductCatalogue();
+    private final StockEventBus stockEventBus = new StockEventBus(new StockEventProperties(1 << 16, Duration.ofMillis(50)));
+    private final AvailabilityIndex availabilityIndex = new AvailabilityIndex(productCatalogue, inventory, stockEventBus,
+        new AvailabilityProperties(0, 1024, 1024));
+    private final UseCaseMetrics useCaseMetrics = new UseCaseMetrics(new SimpleMeterRegistry());
+    private final InventoryService inventoryService = new InventoryService(inventory, availabilityIndex, stockEventBus, new NoAuditTrail(), useCaseMetrics);
+    private final ProductCatalogueService productCatalogueService =
+        new ProductCatalogueService(productCatalogue, inventory, availabilityIndex, stockEventBus, new NoAuditTrail(), useCaseMetrics);
+
+    @BeforeEach
+    void setUp() {
+        inventoryService.addToInventory(new AddInventoryIn(List.of(
+            new ArticleSupply(new Article(1, "leg"), 2000),
+            new ArticleSupply(new Article(2, "screw"), 5000),
+            new ArticleSupply(new Article(3, "seat"), 700),
+            new ArticleSupply(new Article(4, "board"), 3000)), RestockMode.SET));
+        productCatalogueService.addToCatalogue(new ProductCatalogueIn(products));
+    }
+
+    @Test
+    @DisplayName("When thousands of sells run concurrently, no article should be oversold")
+    void concurrentSellsDoNotOversell() {
+        AtomicInteger[] unitsSold = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+
+        runConcurrently(sell -> {
+            int productIndex = sell % products.size();
+            int quantity = 1 + sell % 2;
+            if (productCatalogueService.sellProduct(products.get(productIndex).getName(), quantity)) {
+                unitsSold[productIndex].addAndGet(quantity);
+            }
+        });
+
+        int chairs = unitsSold[0].get();
+        int stools = unitsSold[1].get();
+        int shelves = unitsSold[2].get();
+
+        assertStock(1, 2000 - chairs * 4);
+        assertStock(2, 5000 - chairs * 8 - stools * 3);
+        assertStock(3, 700 - stools);
+        assertStock(4, 3000 - shelves * 2);
+        assertTrue(chairs > 0 && stools > 0 && shelves > 0);
+    }
+
+    @Test
+    @DisplayName("When sells race for the last units of an article, exactly the available stock should be sold")
+    void concurrentSellsExhaustStockExactly() {
+        AtomicInteger soldUnits = new AtomicInteger();
+
+        runConcurrently(sell -> {
+            if (productCatalogueService.sellProduct(stool.getName(), 1)) {
+                soldUnits.incrementAndGet();
+            }
+        });
+
+        assertEquals(700, soldUnits.get());
+        assertStock(3, 0);
+        assertStock(2, 5000 - 700 * 3);
+    }
+
+    @Test
+    @DisplayName("When restocks by increment race with sells, no restocked or sold unit should be lost")
+    void concurrentRestocksAndSells() {
+        AtomicInteger soldUnits = new AtomicInteger();
+        AtomicInteger restockedUnits = new AtomicInteger();
+
+        runConcurrently(sell -> {
+            if (sell % 4 == 0) {
+                inventoryService.addToInventory(new AddInventoryIn(List.of(new ArticleSupply(new Article(3, "seat"), 1)), RestockMode.ADD));
+                restockedUnits.incrementAndGet();
+            } else if (productCatalogueService.sellProduct(stool.getName(), 1)) {
+                soldUnits.incrementAndGet();
+            }
+        });
+
+        assertStock(3, 700 + restockedUnits.get() - soldUnits.get());
+        assertStock(2, 5000 - soldUnits.get() * 3);
+    }
+
+    private void assertStock(int articleId, int expectedQuantity) {
+        int quantity = inventory.findArticleSupplyById(articleId).map(ArticleSupply::getQuantity).orElseThrow();
+        assertTrue(quantity >= 0);
+        assertEquals(expectedQuantity, quantity);
+    }
+
+    @SneakyThrows
+    private void runConcurrently(SellAttempt sellAttempt) {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < SELLS; i++) {
+            int sell = i;
+            tasks.add(() -> {
+                sellAttempt.sell(sell);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+            executorService.awaitTermination(10, SECONDS);
+        }
+    }
+
+    private interface SellAttempt {
+        void sell(int sell);
+    }
+}
@@ -0,0 +1,112 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.ArticleQuantity;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.EventType;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.StockEvent;
+import com.hal9000.warehouse.inventory.port.in.StockEventsUseCase.Subscription;
+import com.hal9000.warehouse.inventory.port.out.InventoryRepository.ArticleBatch;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StockEventBusTest {
+
+    private final StockEventBus stockEventBus = new StockEventBus(new StockEventProperties(4, Duration.ofMillis(50)));
+    private final List<StockEvent> received = new ArrayList<>();
+
+    @Test
+    @DisplayName("When subscribing from a sequence, every later event should be delivered in order")
+    void resumingFromSequence() {
+        stockEventBus.articlesTaken(List.of(new ArticleBatch(1, 2)));
+        stockEventBus.articlesReturned(List.of(new ArticleBatch(1, 1)));
+        stockEventBus.subscribe(1, received::add);
+
+        stockEventBus.dispatch(Runnable::run);
+        stockEventBus.availabilityChanged("Chair", 3);
+        stockEventBus.dispatch(Runnable::run);
+
+        assertEquals(List.of(
+                new StockEvent(2, EventType.ARTICLES_RETURNED, List.of(new ArticleQuantity(1, 1)), List.of(), 0, null),
+                new StockEvent(3, EventType.AVAILABILITY_CHANGED, List.of(), List.of("Chair"), 3, null)),
+            received);
+    }
+
+    @Test
+    @DisplayName("When a subscriber falls behind the buffered events, it should be told and continue from the oldest one")
+    void losingEvents() {
+        stockEventBus.subscribe(0, received::add);
+        for (int quantity = 1; quantity <= 6; quantity++) {
+            stockEventBus.availabilityChanged("Chair", quantity);
+        }
+
+        stockEventBus.dispatch(Runnable::run);
+
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), received.stream().map(StockEvent::getSequence).collect(toList()));
+        assertEquals(EventType.EVENTS_LOST, received.get(0).getType());
+    }
+
+    @Test
+    @DisplayName("When resuming from a sequence this bus never published, the subscriber should be told it lost events")
+    void resumingFromUnknownSequence() {
+        stockEventBus.availabilityChanged("Chair", 1);
+        stockEventBus.subscribe(100, received::add);
+
+        stockEventBus.dispatch(Runnable::run);
+
+        assertEquals(List.of(new StockEvent(1, EventType.EVENTS_LOST, List.of(), List.of(), 0, null)), received);
+    }
+
+    @Test
+    @DisplayName("When a subscription is cancelled or its subscriber fails, no more events should be delivered to it")
+    void cancellingSubscriptions() {
+        Subscription subscription = stockEventBus.subscribe(0, received::add);
+        stockEventBus.subscribe(0, event -> {
+            throw new IllegalStateException("Connection closed");
+        });
+        stockEventBus.availabilityChanged("Chair", 1);
+        stockEventBus.dispatch(Runnable::run);
+
+        subscription.cancel();
+        stockEventBus.availabilityChanged("Chair", 2);
+        stockEventBus.dispatch(Runnable::run);
+
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    @DisplayName("When a subscriber blocks, the other subscribers should still receive the events")
+    void slowSubscriber() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        stockEventBus.subscribe(0, event -> awaitUninterruptibly(blocked));
+        stockEventBus.subscribe(0, event -> delivered.countDown());
+        ExecutorService deliveryPool = Executors.newCachedThreadPool();
+        try {
+            stockEventBus.availabilityChanged("Chair", 1);
+            stockEventBus.dispatch(deliveryPool);
+
+            assertTrue(delivered.await(5, SECONDS));
+        } finally {
+            blocked.countDown();
+            deliveryPool.shutdownNow();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hal9000.warehouse.inventory.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+    private final TimerWheel<String> timerWheel = new TimerWheel<>(100, 8, 0);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    @DisplayName("When the wheel reaches a deadline, only the values due should expire, at most one tick late")
+    void expiringValues() {
+        timerWheel.schedule("first", 250);
+        timerWheel.schedule("second", 300);
+        timerWheel.schedule("late", 2_050);
+
+        timerWheel.advance(299, expired::add);
+        assertEquals(List.of(), expired);
+
+        timerWheel.advance(300, expired::add);
+        assertEquals(List.of("first", "second"), expired);
+
+        timerWheel.advance(2_000, expired::add);
+        assertEquals(List.of("first", "second"), expired);
+
+        timerWheel.advance(2_100, expired::add);
+        assertEquals(List.of("first", "second", "late"), expired);
+    }
+
+    @Test
+    @DisplayName("When scheduling a value whose deadline already passed, it should expire on the next tick")
+    void expiringOverdueValues() {
+        timerWheel.advance(1_000, expired::add);
+        timerWheel.schedule("overdue", 500);
+
+        timerWheel.advance(1_050, expired::add);
+        assertEquals(List.of(), expired);
+
+        timerWheel.advance(1_100, expired::add);
+        assertEquals(List.of("overdue"), expired);
+    }
+}
@@ -3,6 +3,7 @@ package com.hal9000.warehouse.inventory.domain;
 import static java.util.Collections.singletonList;
 
 import com.hal9000.warehouse.inventory.domain.Product.Component;
+import com.hal9000.warehouse.inventory.domain.Product.SubAssembly;
 import java.util.List;
 
 public class ProductExamples {
@@ -27,6 +28,11 @@ public class ProductExamples {
     public static final Product neroTable = new Product(NERO,
         List.of(neroComponent1, neroComponent2));
 
+    public static final String DINING_SET = "Dining set";
+
+    public static final Product diningSet = new Product(DINING_SET, List.of(new Component(2, 8)),
+        List.of(new SubAssembly(KALIGULA, 1), new SubAssembly(NERO, 2)));
+
     public static final List<Product> productList = singletonList(kaligulaTable);
 
 }